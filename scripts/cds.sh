@@ -0,0 +1,20 @@
+#!/bin/sh
+# Builds target/cardgame.jar and target/cardgame.jsa, an AppCDS archive of
+# the classes a short game loads, for scripts/cardgame. An archive only works
+# with the JDK that created it: rerun after changing the JDK or the sources.
+set -e
+cd "$(dirname "$0")/.."
+root="$(pwd -P)" # the archive records the class path; scripts/cardgame uses the same one
+rm -rf target/cds-classes target/cds-train
+mkdir -p target/cds-classes target/cds-train
+# Plain StringBuilder concatenation: the invokedynamic one spins a class per
+# shape on first use, which a dynamic archive does not keep.
+javac -encoding UTF-8 -XDstringConcat=inline -d target/cds-classes $(find src/main/java -name '*.java')
+jar --create --file target/cardgame.jar -C target/cds-classes .
+
+# Training game: two players, player 1 wins on its first turn, so the run
+# loads the classes of dealing, a turn, the logs and the deck files.
+printf '1\n2\n1\n2\n1\n2\n3\n3\n1\n4\n5\n6\n7\n8\n4\n5\n' > target/cds-train/pack.txt
+java -XX:ArchiveClassesAtExit=target/cardgame.jsa -cp "$root/target/cardgame.jar" \
+    com.ecm2414.cardgame.CardGameLauncher 2 target/cds-train/pack.txt --out target/cds-train
+echo "wrote target/cardgame.jar and target/cardgame.jsa"
@@ -0,0 +1,27 @@
+package com.ecm2414.cardgame;
+
+/**
+ * What a publisher does when a subscriber's event buffer is full.
+ */
+public enum BackpressurePolicy {
+
+    /** Discard the event; the publisher never waits. */
+    DROP,
+
+    /** Wait until there is room; nothing is lost, but a stuck subscriber stalls publishers. */
+    BLOCK,
+
+    /**
+     * Never wait and never discard: the buffer is unbounded, so a subscriber
+     * that falls behind holds its backlog in memory instead of stalling
+     * publishers. Only for subscribers known to keep up; the heap grows
+     * without limit otherwise.
+     */
+    GROW,
+
+    /**
+     * Once the buffer is half full, keep only every n-th event and discard the
+     * rest; if it fills completely, discard. The publisher never waits.
+     */
+    SAMPLE
+}
@@ -0,0 +1,496 @@
+package com.ecm2414.cardgame;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Plays every pack file in a directory, without prompts, as a pipeline of
+ * stages that each run on their own thread pool:
+ * <ol>
+ *   <li>READ: read the file's lines (I/O);</li>
+ *   <li>VALIDATE: parse and check them with PackValidator;</li>
+ *   <li>DEAL: build the GameConfig and deal it into a CompactGame, or take
+ *       the outcome from the OutcomeCache;</li>
+ *   <li>PLAY: play the game deterministically (GameConfig.setDeterministic);</li>
+ *   <li>WRITE: write the SUMMARY output files into a directory per pack (I/O).</li>
+ * </ol>
+ * Every stage holds at most its threads plus its queue capacity of packs; a
+ * stage handing a pack to a full stage waits, so a slow stage holds back the
+ * ones before it instead of letting packs pile up in memory. Reading and
+ * writing files therefore overlap with play, and the Report tells which stage
+ * is the bottleneck: its queue stays full and its threads stay busy.
+ * <p>
+ * Games run on CompactGame because the threaded game writes its files while
+ * it plays, which would tie WRITE to PLAY. A pack that fails to load is
+ * reported and does not stop the others.
+ */
+public final class BatchRunner {
+
+    /** The stages of the pipeline, in order. */
+    public enum Stage { READ, VALIDATE, DEAL, PLAY, WRITE }
+
+    /** Packs each stage may hold waiting, by default. */
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+    private final Path packDirectory;
+    private final Path outputRoot;
+    private final Map<Stage, Integer> threads = new EnumMap<>(Stage.class);
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    private int numPlayers = 0;       // 0 = line count / 8
+    private long scheduleSeed = 0;
+    private long turnBudget = 0;      // 0 = play until someone wins
+    private OutcomeCache outcomeCache;
+
+    /**
+     * @param packDirectory directory whose regular files are the packs, played in name order
+     * @param outputRoot    directory under which each pack gets a directory named after its file,
+     *                      without the extension; a pack whose name is already taken fails
+     */
+    public BatchRunner(Path packDirectory, Path outputRoot) {
+        this.packDirectory = packDirectory;
+        this.outputRoot = outputRoot;
+        int cpus = Runtime.getRuntime().availableProcessors();
+        threads.put(Stage.READ, 2);
+        threads.put(Stage.VALIDATE, 1);
+        threads.put(Stage.DEAL, 1);
+        threads.put(Stage.PLAY, cpus);
+        threads.put(Stage.WRITE, 2);
+    }
+
+    /**
+     * Sets the number of threads of a stage.
+     *
+     * @param count must be > 0
+     */
+    public void setThreads(Stage stage, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive.");
+        }
+        threads.put(stage, count);
+    }
+
+    /**
+     * Sets the number of packs each stage may hold waiting for a thread.
+     *
+     * @param capacity must be > 0
+     */
+    public void setQueueCapacity(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive.");
+        }
+        this.queueCapacity = capacity;
+    }
+
+    /**
+     * Sets the number of players of every pack.
+     *
+     * @param n the number of players; 0 to take a pack's line count / 8
+     */
+    public void setNumPlayers(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Number of players must not be negative.");
+        }
+        this.numPlayers = n;
+    }
+
+    /**
+     * Sets the schedule seed and turn budget of every game (see
+     * GameConfig.setDeterministic). Without a turn budget, a pack nobody can
+     * win keeps a PLAY thread forever.
+     */
+    public void setSchedule(long seed, long turnBudget) {
+        if (turnBudget < 0) {
+            throw new IllegalArgumentException("Turn budget must not be negative.");
+        }
+        this.scheduleSeed = seed;
+        this.turnBudget = turnBudget;
+    }
+
+    /** Looks every game up in the cache before playing it; null to always play. */
+    public void setOutcomeCache(OutcomeCache cache) {
+        this.outcomeCache = cache;
+    }
+
+    /** One pack on its way through the pipeline. */
+    private static final class Job {
+        final Path file;
+        List<String> lines;
+        int[] values;
+        int n;
+        GameConfig config;
+        OutcomeCache.Key key;
+        CompactGame game;
+        FinalState state;
+        boolean cached;
+        long startNanos;
+        PackResult result;
+
+        Job(Path file) {
+            this.file = file;
+        }
+    }
+
+    /** What happened to one pack. */
+    public static final class PackResult {
+        private final Path packFile;
+        private final Path outputDirectory;
+        private final GameResult result;
+        private final String error;
+
+        PackResult(Path packFile, Path outputDirectory, GameResult result, String error) {
+            this.packFile = packFile;
+            this.outputDirectory = outputDirectory;
+            this.result = result;
+            this.error = error;
+        }
+
+        public Path getPackFile() {
+            return packFile;
+        }
+
+        /** Returns where the output files were written, or null if the pack failed. */
+        public Path getOutputDirectory() {
+            return outputDirectory;
+        }
+
+        /** Returns the result of the game, or null if the pack failed. */
+        public GameResult getResult() {
+            return result;
+        }
+
+        /** Returns why the pack failed, or null if it was played. */
+        public String getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return packFile.getFileName() + ": " + (error != null ? "failed: " + error : result);
+        }
+    }
+
+    /** Counters of one stage. */
+    public static final class StageStats {
+        private final Stage stage;
+        private final int threads;
+        private final long completed;
+        private final long failed;
+        private final long busyNanos;
+        private final long wallNanos;
+        private final int maxQueueDepth;
+        private final double meanQueueDepth;
+
+        StageStats(Stage stage, int threads, long completed, long failed, long busyNanos,
+                   long wallNanos, int maxQueueDepth, double meanQueueDepth) {
+            this.stage = stage;
+            this.threads = threads;
+            this.completed = completed;
+            this.failed = failed;
+            this.busyNanos = busyNanos;
+            this.wallNanos = wallNanos;
+            this.maxQueueDepth = maxQueueDepth;
+            this.meanQueueDepth = meanQueueDepth;
+        }
+
+        public Stage getStage() {
+            return stage;
+        }
+
+        /** Returns the number of packs the stage finished, including failed ones. */
+        public long getCompleted() {
+            return completed;
+        }
+
+        /** Returns the number of packs that failed in this stage. */
+        public long getFailed() {
+            return failed;
+        }
+
+        /** Returns the time the stage's threads spent on packs, added up. */
+        public long getBusyNanos() {
+            return busyNanos;
+        }
+
+        /** Returns packs finished per second of the whole run. */
+        public double getThroughput() {
+            return wallNanos == 0 ? 0 : completed * 1e9 / wallNanos;
+        }
+
+        /** Returns the fraction of the run the stage's threads were busy, from 0 to 1. */
+        public double getUtilisation() {
+            return wallNanos == 0 ? 0 : (double) busyNanos / wallNanos / threads;
+        }
+
+        /**
+         * Returns the most packs that waited for the stage's threads at once;
+         * up to the queue capacity plus the threads, since a thread frees its
+         * slot just before it takes the next pack.
+         */
+        public int getMaxQueueDepth() {
+            return maxQueueDepth;
+        }
+
+        /** Returns the average number of packs waiting, seen by each pack as it arrived. */
+        public double getMeanQueueDepth() {
+            return meanQueueDepth;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-8s %2d thr  %6d done %4d failed  %9.1f packs/s  %5.1f%% busy  "
+                            + "%8.3f ms/pack  queue mean %5.2f max %d",
+                    stage, threads, completed, failed, getThroughput(), 100 * getUtilisation(),
+                    completed == 0 ? 0 : busyNanos / 1e6 / completed, meanQueueDepth, maxQueueDepth);
+        }
+    }
+
+    /** Results of a run, in pack file order, and the counters of each stage. */
+    public static final class Report {
+        private final List<PackResult> packs;
+        private final Map<Stage, StageStats> stages;
+        private final long elapsedNanos;
+
+        Report(List<PackResult> packs, Map<Stage, StageStats> stages, long elapsedNanos) {
+            this.packs = packs;
+            this.stages = stages;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public List<PackResult> getPacks() {
+            return packs;
+        }
+
+        public StageStats getStageStats(Stage stage) {
+            return stages.get(stage);
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /** Returns the number of packs that failed to load. */
+        public long getFailedCount() {
+            return packs.stream().filter(p -> p.getError() != null).count();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(packs.size()).append(" packs, ").append(getFailedCount()).append(" failed, ")
+                    .append(elapsedNanos / 1_000_000).append(" ms\n");
+            for (StageStats s : stages.values()) sb.append(s).append('\n');
+            return sb.toString();
+        }
+    }
+
+    /** A stage's pool; submit blocks while the stage is full. */
+    private final class StageRunner {
+        final Stage stage;
+        final ThreadPoolExecutor executor;
+        final Semaphore slots; // threads + queue capacity
+        final LongAdder completed = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder busyNanos = new LongAdder();
+        final LongAdder depthSum = new LongAdder();
+        final LongAdder arrivals = new LongAdder();
+        final AtomicInteger maxDepth = new AtomicInteger();
+
+        StageRunner(Stage stage) {
+            this.stage = stage;
+            int n = threads.get(stage);
+            AtomicInteger count = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(n, n, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity + n), r -> {
+                        Thread t = new Thread(r, "batch-" + stage.name().toLowerCase() + "-" + count.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+            this.slots = new Semaphore(n + queueCapacity);
+        }
+
+        void submit(Job job) throws InterruptedException {
+            slots.acquire();
+            int depth = executor.getQueue().size();
+            depthSum.add(depth);
+            arrivals.increment();
+            maxDepth.accumulateAndGet(depth, Math::max);
+            executor.execute(() -> {
+                long start = System.nanoTime();
+                try {
+                    process(stage, job);
+                } catch (IOException | InvalidPackException | RuntimeException | Error e) {
+                    job.result = new PackResult(job.file, null, null, e.getMessage() != null ? e.getMessage() : e.toString());
+                    failed.increment();
+                    if (e instanceof Error) throw (Error) e; // after the finally block has counted the pack
+                } finally {
+                    busyNanos.add(System.nanoTime() - start);
+                    completed.increment();
+                    try {
+                        forward(stage, job); // may wait for the next stage; this one stays full meanwhile
+                    } finally {
+                        slots.release();
+                    }
+                }
+            });
+        }
+
+        StageStats stats(long wallNanos) {
+            long n = arrivals.sum();
+            return new StageStats(stage, threads.get(stage), completed.sum(), failed.sum(),
+                    busyNanos.sum(), wallNanos, maxDepth.get(), n == 0 ? 0 : (double) depthSum.sum() / n);
+        }
+    }
+
+    private final Map<Stage, StageRunner> runners = new EnumMap<>(Stage.class);
+    private CountDownLatch remaining;
+
+    /**
+     * Plays every pack in the directory and waits for the last output file.
+     *
+     * @return the result of every pack and the counters of every stage
+     * @throws IOException if the pack directory cannot be listed
+     */
+    public synchronized Report run() throws IOException, InterruptedException {
+        List<Path> files;
+        try (Stream<Path> s = Files.list(packDirectory)) {
+            files = s.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        long start = System.nanoTime();
+        List<Job> jobs = new ArrayList<>(files.size());
+        runners.clear();
+        for (Stage stage : Stage.values()) runners.put(stage, new StageRunner(stage));
+        remaining = new CountDownLatch(files.size());
+        Map<String, Path> outputNames = new HashMap<>();
+        try {
+            for (Path f : files) {
+                Job job = new Job(f);
+                jobs.add(job);
+                Path other = outputNames.putIfAbsent(baseName(f), f);
+                if (other != null) { // a.txt and a.csv would write into the same directory
+                    job.result = new PackResult(f, null, null, "Output directory " + baseName(f)
+                            + " is already that of " + other.getFileName() + ".");
+                    remaining.countDown();
+                    continue;
+                }
+                runners.get(Stage.READ).submit(job); // waits while READ is full
+            }
+            remaining.await();
+        } finally {
+            for (StageRunner r : runners.values()) r.executor.shutdownNow();
+        }
+        long wall = System.nanoTime() - start;
+        Map<Stage, StageStats> stats = new EnumMap<>(Stage.class);
+        for (StageRunner r : runners.values()) stats.put(r.stage, r.stats(wall));
+        List<PackResult> results = new ArrayList<>(jobs.size());
+        for (Job j : jobs) results.add(j.result);
+        return new Report(Collections.unmodifiableList(results), stats, wall);
+    }
+
+    /** Hands a job to its next stage, or counts it as finished. */
+    private void forward(Stage done, Job job) {
+        if (job.result != null) { // written, or failed
+            remaining.countDown();
+            return;
+        }
+        Stage next = job.cached && done == Stage.DEAL ? Stage.WRITE : Stage.values()[done.ordinal() + 1];
+        try {
+            runners.get(next).submit(job);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // the run is being shut down
+        }
+    }
+
+    private void process(Stage stage, Job job) throws IOException, InvalidPackException {
+        switch (stage) {
+            case READ:
+                job.startNanos = System.nanoTime();
+                job.lines = Files.readAllLines(job.file, StandardCharsets.UTF_8);
+                break;
+            case VALIDATE: {
+                List<Integer> values = new ArrayList<>(job.lines.size());
+                for (int i = 0; i < job.lines.size(); i++) {
+                    values.add(PackValidator.parseNonNegativeInt(job.lines.get(i), i + 1));
+                }
+                job.n = numPlayers > 0 ? numPlayers : Math.max(1, values.size() / 8);
+                PackValidator.validateLineCount(values, job.n);
+                job.values = values.stream().mapToInt(Integer::intValue).toArray();
+                job.lines = null;
+                break;
+            }
+            case DEAL:
+                job.config = new GameConfig(job.n, job.file, job.values);
+                job.config.setDeterministic(true, scheduleSeed);
+                job.config.setTurnBudget(turnBudget);
+                job.config.setOutcomeCache(outcomeCache);
+                job.values = null;
+                if (outcomeCache != null) {
+                    job.key = OutcomeCache.key(job.config);
+                    job.state = outcomeCache.get(job.key);
+                    job.cached = job.state != null;
+                }
+                if (!job.cached) job.game = new CompactGame(job.config);
+                break;
+            case PLAY: {
+                int winner = job.game.playSeeded(scheduleSeed, turnBudget);
+                GameResult.Outcome outcome = winner != -1 ? GameResult.Outcome.WON
+                        : job.game.isBudgetExhausted() ? GameResult.Outcome.TURN_BUDGET_EXHAUSTED
+                        : GameResult.Outcome.CANCELLED;
+                job.state = job.game.finalState(outcome);
+                if (outcomeCache != null && outcome != GameResult.Outcome.CANCELLED) {
+                    outcomeCache.put(job.key, job.state);
+                }
+                job.game = null;
+                break;
+            }
+            case WRITE: {
+                Path dir = outputRoot.resolve(baseName(job.file));
+                Files.createDirectories(dir);
+                CompactGame.writeLogs(job.config, job.state, dir);
+                FinalState s = job.state;
+                job.result = new PackResult(job.file, dir, new GameResult(s.getWinnerId(), s.getTotalTurns(),
+                        System.nanoTime() - job.startNanos, null, List.of(), s.getOutcome(), s, job.cached), null);
+                break;
+            }
+        }
+    }
+
+    private static String baseName(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    /**
+     * Plays every pack in a directory and prints the report.
+     * Usage: BatchRunner packDir outputDir [players]
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: BatchRunner packDir outputDir [players]");
+            System.exit(2);
+        }
+        BatchRunner runner = new BatchRunner(Path.of(args[0]), Path.of(args[1]));
+        if (args.length == 3) runner.setNumPlayers(Integer.parseInt(args[2]));
+        Report report = runner.run();
+        for (PackResult p : report.getPacks()) System.out.println(p);
+        System.out.print(report);
+        System.exit(report.getFailedCount() == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,201 @@
+package com.ecm2414.cardgame;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+
+/**
+ * Non-interactive entry point: everything CardGame asks for, and the engine
+ * options of GameConfig, come from the command line, so games can be
+ * scripted. Run with no arguments for the usage.
+ * <p>
+ * The path from main to the first turn avoids lambdas, String.format,
+ * regular expressions and streams, each of which loads and links dozens of
+ * JDK classes on first use. scripts/cds.sh records the classes a short game
+ * does load into an AppCDS archive, which scripts/cardgame passes to the
+ * JVM so they are mapped instead of parsed and verified.
+ */
+public final class CardGameLauncher {
+
+    private static final String USAGE = "Usage: CardGameLauncher <players> <pack file | generated:SEED> [options]\n"
+            + "  --out DIR              directory for the output files (default: current)\n"
+            + "  --hand-size K          cards per hand; the pack has 2*K*players lines (default: 4)\n"
+            + "  --verbosity V          FULL, SUMMARY or SAMPLED:k (default: FULL)\n"
+            + "  --dense                play on dense value ids\n"
+            + "  --wait S               MONITOR or SPIN_PARK deck waits\n"
+            + "  --discard D            FIRST_NON_PREFERRED, KEEP_MOST_COMMON or FEED_NEIGHBOUR (threaded games)\n"
+            + "  --topology T           RING, SHARDS:s or LINKED:s:every (threaded games, see Topology)\n"
+            + "  --max-open-files N     share N open files between all output files (default: 0, one each)\n"
+            + "  --gzip WORKERS         write .gz output files with WORKERS compression threads\n"
+            + "  --log-writers N        write player files on N threads (default: one per CPU)\n"
+            + "  --compact WORKERS      play on flat arrays with WORKERS threads\n"
+            + "  --deterministic SEED   take turns one at a time in an order drawn from SEED\n"
+            + "  --turn-budget N        stop after N turns of all players together\n"
+            + "  --time-budget MS       stop after MS milliseconds\n"
+            + "  --turn-pause MS        each player sleeps MS after a turn (default: 10)\n"
+            + "  --timing               print JVM start to first turn and game times to stderr\n";
+
+    private CardGameLauncher() {} // entry point only
+
+    /** Exit codes: 0 the game ran, 1 the pack is invalid or unreadable, 2 bad arguments. */
+    public static void main(String[] args) {
+        int code = run(args);
+        if (code != 0) System.exit(code);
+    }
+
+    /**
+     * Plays the game the arguments describe, reporting problems on stderr.
+     *
+     * @return the exit code of main
+     */
+    static int run(String[] args) {
+        long mainNanos = System.nanoTime();
+        if (args.length < 2) {
+            System.err.print(USAGE);
+            return 2;
+        }
+        GameConfig config;
+        boolean timing = false;
+        try {
+            int n = parseInt(args[0], "players");
+            int k = 4;
+            for (int i = 2; i < args.length; i++) {
+                if (args[i].equals("--hand-size")) k = parseInt(value(args, ++i), "--hand-size");
+            }
+            PackValidator.validatePlayerCount(n);
+            PackValidator.validateHandSize(k);
+            config = new GameConfig(n, packSource(args[1]), k);
+            for (int i = 2; i < args.length; i++) {
+                String opt = args[i];
+                if (opt.equals("--timing")) {
+                    timing = true;
+                } else if (opt.equals("--hand-size")) {
+                    i++; // already applied
+                } else {
+                    applyOption(config, opt, takesValue(opt) ? value(args, ++i) : null);
+                }
+            }
+        } catch (InvalidPackException e) {
+            System.err.println("Invalid pack file: " + e.getMessage());
+            return 1;
+        } catch (IOException e) {
+            System.err.println("Error reading pack file: " + e.getMessage());
+            return 1;
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            return 2;
+        }
+
+        GameController controller = new GameController();
+        FirstTurn firstTurn = null;
+        if (timing) {
+            firstTurn = new FirstTurn();
+            controller.addEventListener(firstTurn, BackpressurePolicy.DROP);
+        }
+        long startNanos = System.nanoTime();
+        GameResult result = controller.startGame(config);
+        long endNanos = System.nanoTime();
+        if (timing) {
+            // Read after the game: java.management is not on the startup path. The JVM start
+            // time has millisecond precision; the other times are nanoTime differences.
+            long jvmToMain = System.currentTimeMillis() - (System.nanoTime() - mainNanos) / 1_000_000
+                    - ManagementFactory.getRuntimeMXBean().getStartTime();
+            System.err.println("timing: jvm-to-main " + jvmToMain + " ms, main-to-game "
+                    + millis(startNanos - mainNanos) + " ms, main-to-first-turn "
+                    + (firstTurn.nanos == 0 ? "n/a" : millis(firstTurn.nanos - mainNanos) + " ms")
+                    + ", game " + millis(endNanos - startNanos) + " ms, " + result);
+        }
+        return 0;
+    }
+
+    /**
+     * Applies one engine option of the usage to a config; GameServer takes the
+     * same options as query parameters.
+     *
+     * @param value the option's value, or null if it takes none
+     * @throws IllegalArgumentException if the option is unknown or its value invalid
+     */
+    static void applyOption(GameConfig config, String opt, String value) {
+        switch (opt) {
+            case "--out": config.setOutputDirectory(Path.of(value)); break;
+            case "--verbosity": setVerbosity(config, value); break;
+            case "--dense": config.setDenseValues(true); break;
+            case "--wait": config.setWaitStrategy(WaitStrategy.valueOf(value)); break;
+            case "--discard": config.setDiscardStrategy(StandardDiscard.valueOf(value)); break;
+            case "--topology": config.setTopology(Topology.parse(value)); break;
+            case "--max-open-files": config.setMaxOpenFiles(parseInt(value, opt)); break;
+            case "--gzip": config.setCompressedOutput(true, parseInt(value, opt)); break;
+            case "--log-writers": config.setLogWriters(parseInt(value, opt)); break;
+            case "--compact": config.setCompactMode(true, parseInt(value, opt)); break;
+            case "--deterministic": config.setDeterministic(true, parseLong(value, opt)); break;
+            case "--turn-budget": config.setTurnBudget(parseLong(value, opt)); break;
+            case "--time-budget": config.setTimeBudget(parseLong(value, opt)); break;
+            case "--turn-pause": config.setTurnPause(parseInt(value, opt)); break;
+            default: throw new IllegalArgumentException("Unknown option " + opt + ".");
+        }
+    }
+
+    /** Returns whether an option of the usage is followed by a value. */
+    static boolean takesValue(String opt) {
+        return !opt.equals("--dense") && !opt.equals("--timing");
+    }
+
+    /**
+     * Returns the source of a pack argument: a file, or generated:SEED for a
+     * PackGenerator pack with its defaults, made in memory.
+     */
+    static PackSource packSource(String arg) {
+        if (arg.startsWith("generated:")) {
+            return new PackGenerator(parseLong(arg.substring(10), "pack seed"));
+        }
+        return PackSource.file(Path.of(arg));
+    }
+
+    /** Records when the first turn's draw was published. */
+    private static final class FirstTurn implements GameEventListener {
+        volatile long nanos = 0;
+
+        @Override
+        public void onEvent(GameEvent event) {
+            if (nanos == 0 && event.getType() == GameEvent.Type.DRAW) nanos = System.nanoTime();
+        }
+    }
+
+    private static void setVerbosity(GameConfig config, String v) {
+        if (v.startsWith("SAMPLED:")) {
+            config.setLogVerbosity(LogVerbosity.SAMPLED, parseInt(v.substring(8), "--verbosity"));
+        } else {
+            config.setLogVerbosity(LogVerbosity.valueOf(v), 1);
+        }
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Option " + args[i - 1] + " needs a value.");
+        }
+        return args[i];
+    }
+
+    private static int parseInt(String s, String what) {
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + what + ": " + s + ".");
+        }
+    }
+
+    private static long parseLong(String s, String what) {
+        try {
+            return Long.parseLong(s);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + what + ": " + s + ".");
+        }
+    }
+
+    /** Formats nanoseconds as milliseconds with one decimal. */
+    private static String millis(long nanos) {
+        long tenths = nanos / 100_000;
+        return tenths / 10 + "." + tenths % 10;
+    }
+}
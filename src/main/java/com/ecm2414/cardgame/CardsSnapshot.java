@@ -0,0 +1,62 @@
+package com.ecm2414.cardgame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable view of the card values held by a Deck or Hand at one moment.
+ * <p>
+ * A deck or hand only copies its cards into a snapshot when one is asked
+ * for, so a game nobody observes pays no copy per change. Once watched, as
+ * GameMonitor does, it publishes a new snapshot through a volatile field
+ * every time it changes, while still holding its own monitor, and readers
+ * pick it up without taking that monitor, so observing a deck never delays
+ * a player drawing from it.
+ */
+public final class CardsSnapshot {
+
+    static final CardsSnapshot EMPTY = new CardsSnapshot(0, new int[0]);
+
+    private final long version;
+    private final int[] values;
+
+    CardsSnapshot(long version, int[] values) {
+        this.version = version;
+        this.values = values;
+    }
+
+    /** Returns how many changes the owner had seen when this snapshot was taken. */
+    public long getVersion() {
+        return version;
+    }
+
+    /** Returns the number of cards in the snapshot. */
+    public int size() {
+        return values.length;
+    }
+
+    /** Returns the card value at the given position (0 = top of a deck). */
+    public int valueAt(int index) {
+        return values[index];
+    }
+
+    /** Returns the card values in order. */
+    public List<Integer> getValues() {
+        List<Integer> list = new ArrayList<>(values.length);
+        for (int v : values) list.add(v);
+        return list;
+    }
+
+    /**
+     * Returns the card values separated by single spaces, e.g. "1 1 2 4".
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(values[i]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,337 @@
+package com.ecm2414.cardgame;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plays a game on flat primitive arrays, for player counts where a thread,
+ * Hand, Deck and Card objects per player no longer fit in memory.
+ * <p>
+ * Every deck card is a node in {@code next}/{@code value}; a deck is a linked
+ * list of nodes given by {@code head}/{@code tail}. A turn moves the drawn node
+ * to the right deck and overwrites its value with the discard, so the 4n nodes
+ * are allocated once and never freed. Hands are k ints per player, plus the
+ * running sum and sum of squares that make the k-of-a-kind check O(1) (see
+ * Hand). A few
+ * worker threads each take turns for a contiguous block of players, locking
+ * the two decks of a turn in id order with a CAS try-lock and skipping the
+ * player when a neighbour holds one.
+ * <p>
+ * With k = 4, state costs 80 bytes per player, 32 of which are the deck
+ * cards; the pack kept by GameConfig adds 32. Output files are written after the game, one at
+ * a time, at LogVerbosity.SUMMARY level.
+ */
+final class CompactGame {
+
+    private static final int NONE = -1;
+    /** Turns a worker takes from the turn budget at a time. */
+    private static final int BUDGET_CHUNK = 1024;
+
+    private final GameConfig config;
+    private final int n;
+    private final int k;
+    private final int[] next;   // node -> next node in the same deck, or NONE
+    private final int[] value;  // node -> card value
+    private final int[] head;   // deck -> first node, or NONE
+    private final int[] tail;   // deck -> last node, or NONE
+    private final int[] hands;  // player p holds hands[kp .. kp+k-1]
+    private final long[] sums;  // player p: sums[2p] = sum, sums[2p+1] = sum of squares, wrapping
+    private final int[] turns;  // player -> turns taken; each player belongs to one worker
+    private final AtomicIntegerArray locks; // deck -> 0 free, 1 held
+    private final AtomicInteger winner = new AtomicInteger(NONE); // 0-based player
+    private final AtomicLong budgetLeft = new AtomicLong(); // turns of the budget no worker has taken yet
+    private volatile boolean stopped = false;
+    private boolean immediate;
+    private volatile boolean budgetExhausted;
+
+    /** Deals the pack of the given config into the compact layout. */
+    CompactGame(GameConfig config) {
+        this.config = config;
+        n = config.getNumPlayers();
+        k = config.getHandSize();
+        next = new int[k * n];
+        value = new int[k * n];
+        head = new int[n];
+        tail = new int[n];
+        hands = new int[k * n];
+        sums = new long[2 * n];
+        turns = new int[n];
+        locks = new AtomicIntegerArray(n);
+
+        // Same layout as GameConfig.dealInitialHands/fillDecks: round-robin hands, then decks.
+        for (int i = 0; i < k * n; i++) {
+            int v = config.getPackValue(i);
+            int p = i % n;
+            hands[p * k + i / n] = v;
+            sums[2 * p] += v;
+            sums[2 * p + 1] += (long) v * v;
+        }
+        Arrays.fill(head, NONE);
+        Arrays.fill(tail, NONE);
+        for (int node = 0; node < k * n; node++) {
+            value[node] = config.getPackValue(k * n + node);
+            append(node % n, node);
+        }
+    }
+
+    /**
+     * Plays until a player holds k equal cards.
+     *
+     * @param workers number of threads taking turns
+     * @return the 1-based id of the winner, or -1 if stopped first
+     */
+    int play(int workers) {
+        return play(workers, 0);
+    }
+
+    /**
+     * Plays until a player holds k equal cards or the turn budget is used up.
+     * Each worker takes the budget BUDGET_CHUNK turns at a time and stops
+     * when none is left, so no more than turnBudget turns are taken; a worker
+     * whose neighbours have stopped may leave a few of its own unused.
+     *
+     * @param workers    number of threads taking turns
+     * @param turnBudget turns after which the game stops without a winner; 0 for no limit
+     * @return the 1-based id of the winner, or -1 if stopped or out of turns first
+     */
+    int play(int workers, long turnBudget) {
+        for (int p = 0; p < n; p++) {
+            if (isWinning(p)) {
+                winner.set(p);
+                immediate = true;
+                return p + 1;
+            }
+        }
+        budgetLeft.set(turnBudget);
+        boolean limited = turnBudget > 0;
+        int w = Math.min(workers, n);
+        List<Thread> threads = new ArrayList<>(w);
+        for (int i = 0; i < w; i++) {
+            int from = (int) ((long) n * i / w);
+            int to = (int) ((long) n * (i + 1) / w);
+            Thread t = new Thread(() -> runBlock(from, to, limited), "compact-" + i);
+            threads.add(t);
+            t.start();
+        }
+        boolean interrupted = false;
+        for (Thread t : threads) {
+            while (t.isAlive()) {
+                try {
+                    t.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    stop(); // the workers finish their turns, so the state stays whole
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        int id = winner.get();
+        return id == NONE ? NONE : id + 1;
+    }
+
+    /** Makes play return after the workers' current turns, without a winner. */
+    void stop() {
+        stopped = true;
+    }
+
+    /** Returns the number of turns taken by all players; call after play. */
+    long getTotalTurns() {
+        long total = 0;
+        for (int t : turns) total += t;
+        return total;
+    }
+
+    /**
+     * Plays until a player holds k equal cards, taking every turn on the
+     * calling thread in an order drawn from the seed: each step picks a
+     * player uniformly at random, who moves unless its left deck is empty.
+     * The same pack and seed therefore always give the same game.
+     *
+     * @param seed       seed of the turn order
+     * @param turnBudget turns after which the game stops without a winner; 0 for no limit
+     * @return the 1-based id of the winner, or -1 if stopped or out of turns first
+     */
+    int playSeeded(long seed, long turnBudget) {
+        for (int p = 0; p < n; p++) {
+            if (isWinning(p)) {
+                winner.set(p);
+                immediate = true;
+                return p + 1;
+            }
+        }
+        SplittableRandom schedule = new SplittableRandom(seed);
+        long taken = 0;
+        while (winner.get() == NONE && !stopped) {
+            if (turnBudget > 0 && taken >= turnBudget) {
+                budgetExhausted = true;
+                break;
+            }
+            if (takeTurn(schedule.nextInt(n))) taken++;
+        }
+        int id = winner.get();
+        return id == NONE ? NONE : id + 1;
+    }
+
+    /** Returns whether play or playSeeded stopped because the turn budget ran out. */
+    boolean isBudgetExhausted() {
+        return budgetExhausted;
+    }
+
+    /** Returns the hands and decks of the finished game, with the original card values. */
+    FinalState finalState(GameResult.Outcome outcome) {
+        int[] finalHands = new int[k * n];
+        for (int i = 0; i < finalHands.length; i++) finalHands[i] = config.originalValue(hands[i]);
+        int[][] decks = new int[n][];
+        for (int d = 0; d < n; d++) {
+            int size = 0;
+            for (int node = head[d]; node != NONE; node = next[node]) size++;
+            decks[d] = new int[size];
+            int i = 0;
+            for (int node = head[d]; node != NONE; node = next[node]) decks[d][i++] = config.originalValue(value[node]);
+        }
+        int id = winner.get();
+        return new FinalState(outcome, id == NONE ? NONE : id + 1, getTotalTurns(), immediate, k, finalHands, decks);
+    }
+
+    /**
+     * Writes player and deck output files for a finished game. Only the
+     * SUMMARY lines exist, since no per-turn history is kept.
+     */
+    static void writeLogs(GameConfig config, FinalState state, Path directory) {
+        int n = state.getNumPlayers();
+        int k = state.getHandSize();
+        int win = state.getWinnerId();
+        for (int id = 1; id <= n; id++) {
+            try (PlayerLogger logger = PlayerLogger.create(directory, id)) {
+                int[] initial = new int[k];
+                for (int r = 0; r < k; r++) initial[r] = config.originalValue(config.getPackValue(r * n + id - 1));
+                logger.logInitialHand(new CardsSnapshot(0, initial));
+                if (id == win) {
+                    logger.logWin();
+                } else if (win != NONE) {
+                    logger.logInformedByWinner(win);
+                }
+                if (id != win || !state.isImmediateWin()) {
+                    logger.logExit();
+                }
+                logger.logFinalHand(new CardsSnapshot(0, state.getHand(id)));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        for (int d = 1; d <= n; d++) {
+            List<Integer> contents = new ArrayList<>();
+            for (int v : state.getDeck(d)) contents.add(v);
+            try {
+                DeckLogger.logFinalState(directory, d, contents);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /** Takes turns for players [from, to) until someone wins, or, if limited, the turn budget runs out. */
+    private void runBlock(int from, int to, boolean limited) {
+        long allowed = 0; // turns of the budget this worker has taken but not played
+        while (winner.get() == NONE && !stopped) {
+            boolean moved = false;
+            for (int p = from; p < to && winner.get() == NONE; p++) {
+                if (limited && allowed == 0 && (allowed = takeBudget()) == 0) return;
+                if (takeTurn(p)) {
+                    moved = true;
+                    allowed--;
+                }
+            }
+            if (!moved) {
+                if (budgetExhausted) return; // the other workers have stopped or soon will
+                Thread.yield(); // every left deck in the block is empty or locked
+            }
+        }
+    }
+
+    /** Takes up to BUDGET_CHUNK turns from the budget; returns 0, and marks it exhausted, if none is left. */
+    private long takeBudget() {
+        while (true) {
+            long left = budgetLeft.get();
+            if (left == 0) {
+                budgetExhausted = true;
+                return 0;
+            }
+            long taken = Math.min(left, BUDGET_CHUNK);
+            if (budgetLeft.compareAndSet(left, left - taken)) return taken;
+        }
+    }
+
+    /** Draws, discards and checks for a win; returns false if the player could not move. */
+    private boolean takeTurn(int p) {
+        int left = p;
+        int right = (p + 1) % n;
+        int first = Math.min(left, right);
+        int second = Math.max(left, right);
+        if (!locks.compareAndSet(first, 0, 1)) return false;
+        if (second != first && !locks.compareAndSet(second, 0, 1)) {
+            locks.set(first, 0);
+            return false;
+        }
+        try {
+            int node = head[left];
+            if (node == NONE || winner.get() != NONE) return false;
+            head[left] = next[node];
+            if (head[left] == NONE) tail[left] = NONE;
+
+            // Same choice as Hand.chooseDiscard on [hand..., drawn]: first non-preferred card.
+            int base = k * p;
+            int preferred = config.preferredValue(p + 1);
+            int drawn = value[node];
+            int discard = drawn;
+            for (int i = 0; i < k; i++) {
+                if (hands[base + i] != preferred) {
+                    discard = hands[base + i];
+                    System.arraycopy(hands, base + i + 1, hands, base + i, k - 1 - i);
+                    hands[base + k - 1] = drawn;
+                    sums[2 * p] += (long) drawn - discard;
+                    sums[2 * p + 1] += (long) drawn * drawn - (long) discard * discard;
+                    break;
+                }
+            }
+            value[node] = discard;
+            append(right, node);
+            turns[p]++;
+
+            if (isWinning(p)) winner.compareAndSet(NONE, p);
+            return true;
+        } finally {
+            if (second != first) locks.set(second, 0);
+            locks.set(first, 0);
+        }
+    }
+
+    private void append(int deck, int node) {
+        next[node] = NONE;
+        if (tail[deck] == NONE) {
+            head[deck] = node;
+        } else {
+            next[tail[deck]] = node;
+        }
+        tail[deck] = node;
+    }
+
+    private boolean isWinning(int p) {
+        long sum = sums[2 * p];
+        if (k * sums[2 * p + 1] != sum * sum) {
+            return false;
+        }
+        int v = hands[k * p];
+        for (int i = 1; i < k; i++) { // the sums matched: almost surely a win, confirm it
+            if (hands[k * p + i] != v) return false;
+        }
+        return true;
+    }
+}
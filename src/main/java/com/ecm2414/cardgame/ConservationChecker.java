@@ -0,0 +1,217 @@
+package com.ecm2414.cardgame;
+
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Checks while a game runs that no card is lost or duplicated.
+ * <p>
+ * Every Deck and Hand keeps a fingerprint of its cards, the wrapping sum of
+ * fingerprint(v) over its values, which changes with any change to the
+ * multiset of values. Two checks use it:
+ * <ul>
+ *   <li>Per turn: a player takes its turn holding both of its decks, so it
+ *       can compare the card count and fingerprint of its left deck, hand
+ *       and right deck before and after the turn exactly. A difference is
+ *       reported with the player, the turn and both deck ids.</li>
+ *   <li>Sampled: every interval a sampler thread adds up the counts and
+ *       fingerprints of all decks and hands and compares them with the
+ *       pack's. It does so without locks, on a consistent cut found with
+ *       one seqlock stripe per player: a player makes its stripe odd for the
+ *       length of a turn, and a cut only counts if every stripe was even and
+ *       unchanged before and after reading the containers. Stripes are a
+ *       cache line apart, so players never contend on them.</li>
+ * </ul>
+ * A per-turn check costs a few reads of fields the turn has just written; the
+ * sampler reads two fields per container, on its own thread.
+ */
+final class ConservationChecker {
+
+    /** Violations listed; further ones are only counted. */
+    static final int MAX_LISTED_VIOLATIONS = 100;
+    /** Attempts at a consistent cut before a sample is skipped. */
+    private static final int MAX_ATTEMPTS = 64;
+    /** Longs per stripe: the sequence, then the player's fingerprint and count at the start of its turn. */
+    private static final int STRIDE = 8;
+
+    private final Deck[] decks;
+    private final List<Hand> hands;
+    private final long packFingerprint;
+    private final long packCount;
+    private final long intervalMillis;
+    private final AtomicLongArray stripes;
+    private final List<String> violations = new ArrayList<>(); // guarded by itself
+    private final AtomicLong violationCount = new AtomicLong();
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private Thread sampler;
+    private volatile boolean running = false;
+
+    /**
+     * @param config         the game, for its pack
+     * @param decks          the game's decks, deck i + 1 at index i
+     * @param hands          the players' hands, player i + 1 at index i
+     * @param intervalMillis time between samples
+     */
+    ConservationChecker(GameConfig config, Deck[] decks, List<Hand> hands, long intervalMillis) {
+        this.decks = decks;
+        this.hands = hands;
+        this.intervalMillis = intervalMillis;
+        this.stripes = new AtomicLongArray(hands.size() * STRIDE);
+        long fp = 0;
+        for (int i = 0; i < config.getPackSize(); i++) {
+            fp += fingerprint(config.getPackValue(i));
+        }
+        this.packFingerprint = fp;
+        this.packCount = config.getPackSize();
+    }
+
+    /** Returns the fingerprint of one card value; a container's fingerprint is the wrapping sum over its cards. */
+    static long fingerprint(int value) {
+        long z = value * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /** Starts the sampler thread. */
+    void start() {
+        running = true;
+        sampler = new Thread(() -> {
+            while (running) {
+                try {
+                    Thread.sleep(intervalMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                sample();
+            }
+        }, "conservation-checker");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    /** Stops the sampler thread and waits for it. */
+    void stop() {
+        running = false;
+        if (sampler == null) return;
+        sampler.interrupt();
+        try {
+            sampler.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Called by a player holding both of its decks, before it changes them or
+     * its hand.
+     */
+    void beginTurn(int playerId, Deck left, Hand hand, Deck right) {
+        int i = (playerId - 1) * STRIDE;
+        stripes.incrementAndGet(i); // odd: a cut taken now is not trusted
+        stripes.setPlain(i + 1, fingerprint(left, hand, right));
+        stripes.setPlain(i + 2, count(left, hand, right));
+    }
+
+    /**
+     * Called by the player, still holding both decks, after its turn; reports
+     * a violation if the three containers do not hold the same cards as before.
+     */
+    void endTurn(int playerId, int turn, Deck left, Hand hand, Deck right) {
+        int i = (playerId - 1) * STRIDE;
+        long count = count(left, hand, right);
+        if (fingerprint(left, hand, right) != stripes.getPlain(i + 1) || count != stripes.getPlain(i + 2)) {
+            violation("player " + playerId + " turn " + turn + ": deck " + left.getId() + ", its hand and deck "
+                    + right.getId() + " hold " + count + " cards after the turn, " + stripes.getPlain(i + 2)
+                    + " before" + (count == stripes.getPlain(i + 2) ? ", but not the same ones" : ""));
+        }
+        stripes.set(i, stripes.getPlain(i) + 1); // even again; releases the writes of the turn
+    }
+
+    /**
+     * Compares all decks and hands with the pack on a consistent cut.
+     *
+     * @return false if no consistent cut was found and the sample was skipped
+     */
+    boolean sample() {
+        int n = hands.size();
+        long[] seqs = new long[n];
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            boolean busy = false;
+            for (int p = 0; p < n && !busy; p++) {
+                seqs[p] = stripes.get(p * STRIDE);
+                busy = (seqs[p] & 1) != 0;
+            }
+            if (busy) {
+                Thread.yield();
+                continue;
+            }
+            long fp = 0;
+            long count = 0;
+            for (int p = 0; p < n; p++) {
+                fp += decks[p].fingerprintUnlocked() + hands.get(p).fingerprintUnlocked();
+                count += decks[p].sizeUnlocked() + hands.get(p).sizeUnlocked();
+            }
+            VarHandle.acquireFence(); // the reads above happen before the stripes are read again
+            boolean unchanged = true;
+            for (int p = 0; p < n && unchanged; p++) {
+                unchanged = stripes.get(p * STRIDE) == seqs[p];
+            }
+            if (!unchanged) continue;
+            samples.incrementAndGet();
+            if (fp != packFingerprint || count != packCount) {
+                violation("sample " + samples.get() + ": the decks and hands hold " + count + " cards, the pack "
+                        + packCount + (count == packCount ? ", but not the same ones" : ""));
+            }
+            return true;
+        }
+        skipped.incrementAndGet();
+        return false;
+    }
+
+    /** Returns the first MAX_LISTED_VIOLATIONS violations. */
+    List<String> getViolations() {
+        synchronized (violations) {
+            return Collections.unmodifiableList(new ArrayList<>(violations));
+        }
+    }
+
+    /** Returns the number of violations found. */
+    long getViolationCount() {
+        return violationCount.get();
+    }
+
+    /** Returns the number of samples taken on a consistent cut. */
+    long getSamples() {
+        return samples.get();
+    }
+
+    /** Returns the number of samples skipped because no consistent cut was found. */
+    long getSkipped() {
+        return skipped.get();
+    }
+
+    private void violation(String v) {
+        System.err.println("Card conservation violated: " + v);
+        if (violationCount.incrementAndGet() <= MAX_LISTED_VIOLATIONS) {
+            synchronized (violations) {
+                violations.add(v);
+            }
+        }
+    }
+
+    private static long fingerprint(Deck left, Hand hand, Deck right) {
+        long fp = left.fingerprintUnlocked() + hand.fingerprintUnlocked();
+        return left == right ? fp : fp + right.fingerprintUnlocked();
+    }
+
+    private static long count(Deck left, Hand hand, Deck right) {
+        long c = left.sizeUnlocked() + hand.sizeUnlocked();
+        return left == right ? c : c + right.sizeUnlocked();
+    }
+}
@@ -1,35 +1,127 @@
 package com.ecm2414.cardgame;
 
-import java.util.Queue;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.ArrayList;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Represents a thread-safe deck of cards for the card game.
  * Players draw from the top (front) and discard to the bottom (back).
+ * Card values are kept in a growable int ring rather than Card objects.
+ * <p>
+ * Only the player to the right ever draws from a deck, so at most one thread
+ * waits for it at a time. How that thread waits is the deck's WaitStrategy.
  */
 public class Deck implements IDeck {
     private final int id;
-    private final Queue<Card> queue = new LinkedList<>();
+    private int[] ring;  // guarded by this; card values, top at ring[head]
+    private int head = 0; // guarded by this
+    private volatile int count = 0; // written under this; read without it by spinThenPark
+    private long fingerprint = 0; // guarded by this; see ConservationChecker.fingerprint
+    private long version = 0;                                   // guarded by this; counts changes
+    private volatile CardsSnapshot snapshot = CardsSnapshot.EMPTY; // latest copy; see snapshot()
+    private volatile boolean watched = false; // republish the snapshot on every change
+    private final WaitStrategy strategy;
+    private volatile Thread parked;   // SPIN_PARK: the reader parked waiting for a card, if any
+    private int monitorWaiters = 0;   // guarded by this; threads in this.wait()
+    private volatile boolean closed = false; // waits on an empty deck return at once
+
+    /** Spins before yielding; spinning only helps when the discarding thread runs on another CPU. */
+    private static final int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 200 : 0;
+    /** Yields before parking. */
+    private static final int YIELDS = 8;
 
     /**
-     * Returns a copy of the cards currently in the deck.
-     * Thread-safe.
+     * Returns a copy of the cards currently in the deck, read from snapshot().
      *
      * @return a list containing the current cards in the deck
      */
-    public synchronized List<Card> getCards() {
-        return new ArrayList<>(queue);
+    public List<Card> getCards() {
+        CardsSnapshot s = snapshot();
+        List<Card> cards = new ArrayList<>(s.size());
+        for (int i = 0; i < s.size(); i++) {
+            cards.add(new Card(s.valueAt(i)));
+        }
+        return cards;
+    }
+
+    /**
+     * Returns a view of the deck's current contents. A watched deck republishes
+     * it on every change, so this never waits for the deck's lock. Otherwise
+     * nothing is copied until asked for: this copies the contents under the
+     * lock, at most once per change.
+     */
+    public CardsSnapshot snapshot() {
+        if (watched) return snapshot;
+        synchronized (this) {
+            if (snapshot.getVersion() != version) snapshot = copy();
+            return snapshot;
+        }
+    }
+
+    /**
+     * Makes every later change republish the snapshot, so that snapshot()
+     * never takes the lock. Used by GameMonitor, which reads the decks of a
+     * running game; the next reset stops it.
+     */
+    void watch() {
+        synchronized (this) {
+            snapshot = copy();
+            watched = true;
+        }
     }
 
 
     public Deck(int id) {
+        this(id, WaitStrategy.SPIN_PARK);
+    }
+
+    /**
+     * Creates an empty deck whose readers wait with the given strategy.
+     */
+    public Deck(int id, WaitStrategy strategy) {
+        this.id = id;
+        this.ring = new int[4];
+        this.strategy = strategy;
+    }
+
+    /**
+     * Creates a deck that takes ownership of the given values, top first.
+     * The array is used as is, without copying or locking, so the caller must
+     * not touch it afterwards and must publish the deck safely to other threads.
+     */
+    Deck(int id, int[] values, WaitStrategy strategy) {
         this.id = id;
+        this.strategy = strategy;
+        this.ring = values.length > 0 ? values : new int[4];
+        this.count = values.length;
+        for (int v : values) fingerprint += ConservationChecker.fingerprint(v);
+        changed();
+    }
+
+    /**
+     * Refills the deck of a finished game for a new one, keeping its ring:
+     * count values pack[first], pack[first + stride], ..., top first. The deck
+     * is reopened. Used by WarmPool; no other thread may use the deck meanwhile.
+     */
+    synchronized void reset(int[] pack, int first, int stride, int count) {
+        if (ring.length < count) ring = new int[count];
+        head = 0;
+        fingerprint = 0;
+        for (int i = 0; i < count; i++) {
+            ring[i] = pack[first + i * stride];
+            fingerprint += ConservationChecker.fingerprint(ring[i]);
+        }
+        this.count = count;
+        closed = false;
+        parked = null;
+        monitorWaiters = 0;
+        watched = false;
+        changed();
     }
 
     @Override
@@ -43,8 +135,9 @@ public class Deck implements IDeck {
     @Override
     public void addCard(Card c) {
         synchronized (this) {
-            queue.add(c);
-            this.notifyAll(); // notify any waiting player
+            push(c.getValue());
+            changed();
+            wakeReader(); // notify any waiting player
         }
     }
 
@@ -54,8 +147,9 @@ public class Deck implements IDeck {
      */
     public void addCards(List<Card> cardsToAdd) {
         synchronized (this) {
-            queue.addAll(cardsToAdd);
-            this.notifyAll();
+            for (Card c : cardsToAdd) push(c.getValue());
+            changed();
+            wakeReader();
         }
     }
 
@@ -65,33 +159,75 @@ public class Deck implements IDeck {
      */
     @Override
     public Card drawCard() {
+        // Parking while holding the monitor would shut out the discarding player,
+        // so a caller that already holds it falls back to the monitor wait below.
+        if (strategy == WaitStrategy.SPIN_PARK && !Thread.holdsLock(this)) {
+            while (!awaitCard(Long.MAX_VALUE / 1_000_000)) {
+                if (Thread.currentThread().isInterrupted() || closed) return null;
+            }
+        }
         synchronized (this) {
-            while (queue.isEmpty()) {
+            JfrEvents.DeckWait jfrWait = null;
+            while (count == 0) {
+                if (closed) {
+                    commitWait(jfrWait, false);
+                    return null; // the game is being stopped
+                }
+                if (jfrWait == null) jfrWait = beginWait();
+                monitorWaiters++;
                 try {
                     this.wait(); // wait until notified by addCard
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
+                    commitWait(jfrWait, false);
                     return null; // exit if interrupted
+                } finally {
+                    monitorWaiters--;
                 }
             }
-            return queue.poll();
+            commitWait(jfrWait, true);
+            Card top = new Card(poll());
+            changed();
+            return top;
         }
     }
 
     /**
-     * Returns a string of the current card values in the deck.
+     * Waits until the deck holds at least one card, for at most the given time.
+     * Does not keep the lock afterwards: callers should wait here before taking
+     * any other deck's lock, so a waiting player never blocks its neighbours.
+     *
+     * @param timeoutMillis longest time to wait
+     * @return true if a card is available, false on timeout, interrupt or close
      */
-    @Override
-    public String contentsString() {
+    public boolean awaitCard(long timeoutMillis) {
+        if (strategy == WaitStrategy.SPIN_PARK) {
+            return spinThenPark(timeoutMillis);
+        }
         synchronized (this) {
-            List<String> vals = new ArrayList<>();
-            for (Card c : queue) {
-                vals.add(String.valueOf(c.getValue()));
+            if (count == 0 && !closed) {
+                JfrEvents.DeckWait jfrWait = beginWait();
+                try {
+                    this.wait(timeoutMillis); // woken by addCard/addCards
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    commitWait(jfrWait, false);
+                    return false;
+                }
+                commitWait(jfrWait, count != 0);
             }
-            return String.join(" ", vals);
+            return count != 0;
         }
     }
 
+    /**
+     * Returns a string of the current card values in the deck, read from snapshot().
+     */
+    @Override
+    public String contentsString() {
+        return snapshot().toString();
+    }
+
     /**
      * Writes the final contents of this deck to a file named deckX_output.txt.
      */
@@ -110,10 +246,13 @@ public class Deck implements IDeck {
      */
     public void initializeDeck() {
         synchronized (this) {
-            queue.clear();
+            head = 0;
+            count = 0;
+            fingerprint = 0;
             for (int i = 0; i < 4; i++) {
-                queue.add(new Card(id));
+                push(id);
             }
+            changed();
             this.notifyAll();
         }
     }
@@ -128,11 +267,10 @@ public class Deck implements IDeck {
     public List<Card> dealInitialCards(int count) {
         List<Card> handCards = new ArrayList<>();
         synchronized (this) {
-            for (int i = 0; i < count; i++) {
-                Card c = queue.poll();
-                if (c != null) handCards.add(c);
-                else break;
+            for (int i = 0; i < count && this.count > 0; i++) {
+                handCards.add(new Card(poll()));
             }
+            changed();
         }
         return handCards;
     }
@@ -142,7 +280,139 @@ public class Deck implements IDeck {
      */
     public int size() {
         synchronized (this) {
-            return queue.size();
+            return count;
+        }
+    }
+
+    /**
+     * SPIN_PARK wait, without the monitor: count is volatile, so it tells
+     * whether a card is there. The reader announces itself in parked before
+     * its last check and a discard reads parked after writing count, so
+     * either the reader sees the card or it gets unparked.
+     */
+    private boolean spinThenPark(long timeoutMillis) {
+        if (count > 0) return true;
+        for (int i = 0; i < SPINS; i++) {
+            Thread.onSpinWait();
+            if (count > 0) return true;
+        }
+        for (int i = 0; i < YIELDS; i++) {
+            Thread.yield();
+            if (count > 0) return true;
+        }
+        JfrEvents.DeckWait jfrWait = beginWait();
+        Thread me = Thread.currentThread();
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000;
+        parked = me;
+        try {
+            while (count == 0 && !closed) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || me.isInterrupted()) break;
+                LockSupport.parkNanos(this, remaining);
+            }
+        } finally {
+            parked = null;
+        }
+        boolean gotCard = count > 0;
+        commitWait(jfrWait, gotCard);
+        return gotCard && !me.isInterrupted();
+    }
+
+    /**
+     * Wakes every thread waiting for a card and makes later waits on the empty
+     * deck return at once: drawCard returns null and awaitCard false. Cards can
+     * still be added and drawn. Used to stop a game.
+     */
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            this.notifyAll();
+        }
+        Thread reader = parked;
+        if (reader != null) {
+            LockSupport.unpark(reader);
+        }
+    }
+
+    /** Wakes whoever waits for a card. Caller must hold this deck's lock. */
+    private void wakeReader() {
+        if (strategy == WaitStrategy.MONITOR || monitorWaiters > 0) {
+            this.notifyAll();
         }
+        Thread reader = parked;
+        if (reader != null) {
+            LockSupport.unpark(reader);
+        }
+    }
+
+    /** Starts a DeckWait event, or returns null if no recording can be running. */
+    private static JfrEvents.DeckWait beginWait() {
+        if (!JfrEvents.active()) return null;
+        JfrEvents.DeckWait jfrWait = new JfrEvents.DeckWait();
+        jfrWait.begin();
+        return jfrWait;
+    }
+
+    private void commitWait(JfrEvents.DeckWait jfrWait, boolean gotCard) {
+        if (jfrWait == null) return;
+        jfrWait.end();
+        if (jfrWait.shouldCommit()) {
+            jfrWait.deckId = id;
+            jfrWait.gotCard = gotCard;
+            jfrWait.commit();
+        }
+    }
+
+    /** Appends a value at the bottom, doubling the ring when full. Caller must hold this deck's lock. */
+    private void push(int value) {
+        if (count == ring.length) {
+            int[] bigger = new int[ring.length * 2];
+            int firstPart = Math.min(count, ring.length - head);
+            System.arraycopy(ring, head, bigger, 0, firstPart);
+            System.arraycopy(ring, 0, bigger, firstPart, count - firstPart);
+            ring = bigger;
+            head = 0;
+        }
+        ring[(head + count) % ring.length] = value;
+        count++;
+        fingerprint += ConservationChecker.fingerprint(value);
+    }
+
+    /** Removes and returns the top value; the deck must not be empty. Caller must hold this deck's lock. */
+    private int poll() {
+        int value = ring[head];
+        head = (head + 1) % ring.length;
+        count--;
+        fingerprint -= ConservationChecker.fingerprint(value);
+        return value;
+    }
+
+    /**
+     * Returns the fingerprint of the cards, read without the lock: the caller
+     * holds it or validates the read as ConservationChecker does.
+     */
+    long fingerprintUnlocked() {
+        return fingerprint;
+    }
+
+    /** Returns the number of cards, read without the lock; see fingerprintUnlocked. */
+    int sizeUnlocked() {
+        return count;
+    }
+
+    /** Counts a change and republishes the snapshot if the deck is watched. Caller must hold this deck's lock. */
+    private void changed() {
+        version++;
+        if (watched) snapshot = copy();
+    }
+
+    /** Copies the current contents into a snapshot. Caller must hold this deck's lock. */
+    private CardsSnapshot copy() {
+        int n = count;
+        int[] values = new int[n];
+        int firstPart = Math.min(n, ring.length - head);
+        System.arraycopy(ring, head, values, 0, firstPart);
+        System.arraycopy(ring, 0, values, firstPart, n - firstPart);
+        return new CardsSnapshot(version, values);
     }
 }
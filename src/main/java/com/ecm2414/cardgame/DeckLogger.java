@@ -2,6 +2,7 @@ package com.ecm2414.cardgame;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -25,8 +26,20 @@ public final class DeckLogger {
      * @throws IOException if the file cannot be written
      */
     public static void logFinalState(int deckId, List<Integer> contents) throws IOException {
+        logFinalState(Path.of(""), deckId, contents);
+    }
+
+    /**
+     * Writes the final deck state to "deck<ID>_output.txt" in the given directory.
+     *
+     * @param directory the directory to write to
+     * @param deckId    the ID of the deck
+     * @param contents  the final list of card values in the deck
+     * @throws IOException if the file cannot be written
+     */
+    public static void logFinalState(Path directory, int deckId, List<Integer> contents) throws IOException {
         String fileName = "deck" + deckId + "_output.txt";
-        Path path = Path.of(fileName);
+        Path path = directory.resolve(fileName);
 
         StringBuilder sb = new StringBuilder();
         sb.append("deck").append(deckId).append(" contents:");
@@ -40,4 +53,45 @@ public final class DeckLogger {
         }
     }
 
+    /**
+     * Writes the final deck state through a shared pool of open files.
+     * The bytes written are the same as with the other overloads.
+     *
+     * @param pool      the pool that owns the open files
+     * @param directory the directory to write to
+     * @param deckId    the ID of the deck
+     * @param contents  the final list of card values in the deck
+     * @throws IOException if the file cannot be written
+     */
+    public static void logFinalState(LogFilePool pool, Path directory, int deckId, List<Integer> contents)
+            throws IOException {
+        write(pool, directory, deckId, contents);
+    }
+
+    /**
+     * Writes the final deck state gzip-compressed to "deck<ID>_output.txt.gz".
+     * Decompressed, it holds the same bytes as the other overloads write.
+     *
+     * @param gzip      the writer that compresses and writes the file
+     * @param directory the directory to write to
+     * @param deckId    the ID of the deck
+     * @param contents  the final list of card values in the deck
+     * @throws IOException if an earlier compressed write failed
+     */
+    public static void logFinalState(GzipLogWriter gzip, Path directory, int deckId, List<Integer> contents)
+            throws IOException {
+        write(gzip, directory, deckId, contents);
+    }
+
+    private static void write(LogSink sink, Path directory, int deckId, List<Integer> contents) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("deck").append(deckId).append(" contents:");
+        for (Integer card : contents) {
+            sb.append(" ").append(card);
+        }
+        sb.append(System.lineSeparator());
+        Path path = directory.resolve("deck" + deckId + "_output.txt");
+        sink.write(path, ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
 }
@@ -0,0 +1,20 @@
+package com.ecm2414.cardgame;
+
+/**
+ * How a player picks the card to discard after drawing. GameConfig sets the
+ * strategy of a game's players; StandardDiscard holds the built-in ones.
+ */
+public interface DiscardStrategy {
+
+    /**
+     * Picks the card to discard from a hand of k + 1 cards, the drawn card
+     * last. Called with the hand's lock held; must not change the array.
+     *
+     * @param values         the hand's values; only values[0..size) are cards
+     * @param size           the number of cards, k + 1 during a turn
+     * @param preferredValue the value the player collects, as the game sees it
+     * @param neighbourValue the value the right neighbour, who draws the discard, collects
+     * @return the index of the card to discard, in 0..size-1
+     */
+    int chooseDiscard(int[] values, int size, int preferredValue, int neighbourValue);
+}
@@ -0,0 +1,81 @@
+package com.ecm2414.cardgame;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue of events with many producers and one consumer.
+ * <p>
+ * Each slot carries a sequence number: a producer claims a position with a
+ * CAS on the tail and then publishes the slot by advancing its sequence,
+ * and the single consumer frees the slot by advancing it once more. No
+ * thread ever blocks inside offer or poll.
+ */
+final class EventRing {
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final AtomicReferenceArray<GameEvent> slots;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head; // written only by the consumer
+
+    /** @param capacity rounded up to a power of two */
+    EventRing(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        mask = size - 1;
+        sequences = new AtomicLongArray(size);
+        slots = new AtomicReferenceArray<>(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /** Adds the event if there is room. Safe to call from any thread. */
+    boolean offer(GameEvent e) {
+        long pos = tail.get();
+        while (true) {
+            int idx = (int) (pos & mask);
+            long dif = sequences.get(idx) - pos;
+            if (dif == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots.set(idx, e);
+                    sequences.set(idx, pos + 1); // publish to the consumer
+                    return true;
+                }
+                pos = tail.get();
+            } else if (dif < 0) {
+                return false; // slot still holds an event from the previous lap: full
+            } else {
+                pos = tail.get(); // another producer took this position
+            }
+        }
+    }
+
+    /** Removes the oldest event, or returns null if none is ready. Consumer thread only. */
+    GameEvent poll() {
+        long h = head;
+        int idx = (int) (h & mask);
+        if (sequences.get(idx) != h + 1) {
+            return null;
+        }
+        GameEvent e = slots.get(idx);
+        slots.set(idx, null);
+        sequences.set(idx, h + mask + 1); // free the slot for the next lap
+        head = h + 1;
+        return e;
+    }
+
+    /** Returns the approximate number of queued events. */
+    int size() {
+        long n = tail.get() - head;
+        return (int) Math.max(0, Math.min(n, capacity()));
+    }
+}
@@ -0,0 +1,41 @@
+package com.ecm2414.cardgame;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/** A pack file read line by line into the pack array; see PackSource.file. */
+final class FilePackSource implements PackSource {
+
+    private final Path path;
+
+    FilePackSource(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public void fill(int[] pack, int n, int k) throws IOException, InvalidPackException {
+        try (BufferedReader br = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            fill(br, pack, n, k);
+        }
+    }
+
+    /** Reads a pack of one value per line from a reader; GameServer reads request bodies with it. */
+    static void fill(BufferedReader br, int[] pack, int n, int k) throws IOException, InvalidPackException {
+        int lineNo = 0;
+        String line;
+        while ((line = br.readLine()) != null) {
+            int v = PackValidator.parseNonNegativeInt(line, lineNo + 1);
+            if (lineNo < pack.length) pack[lineNo] = v;
+            lineNo++; // lines past the end are still checked and counted for the error
+        }
+        PackValidator.validateLineCount(lineNo, n, k);
+    }
+
+    @Override
+    public Path getPath() {
+        return path;
+    }
+}
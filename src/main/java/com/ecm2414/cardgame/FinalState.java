@@ -0,0 +1,90 @@
+package com.ecm2414.cardgame;
+
+import java.util.Arrays;
+
+/**
+ * The cards every player and deck holds at the end of a deterministic game,
+ * with the original card values, and how the game ended. Stored by
+ * OutcomeCache and returned by GameResult.getFinalState.
+ */
+public final class FinalState {
+
+    private final GameResult.Outcome outcome;
+    private final int winnerId;
+    private final long totalTurns;
+    private final boolean immediateWin;
+    private final int handSize;
+    private final int[] hands;   // player p holds hands[kp .. kp+k-1]
+    private final int[][] decks; // deck d + 1, top card first
+
+    FinalState(GameResult.Outcome outcome, int winnerId, long totalTurns, boolean immediateWin, int handSize,
+               int[] hands, int[][] decks) {
+        this.outcome = outcome;
+        this.winnerId = winnerId;
+        this.totalTurns = totalTurns;
+        this.immediateWin = immediateWin;
+        this.handSize = handSize;
+        this.hands = hands;
+        this.decks = decks;
+    }
+
+    /** Returns how the game ended. */
+    public GameResult.Outcome getOutcome() {
+        return outcome;
+    }
+
+    /** Returns the 1-based id of the winning player, or -1 if the game ended without one. */
+    public int getWinnerId() {
+        return winnerId;
+    }
+
+    /** Returns the number of turns taken by all players. */
+    public long getTotalTurns() {
+        return totalTurns;
+    }
+
+    /** Returns whether the winner was dealt a winning hand, so no turn was taken. */
+    public boolean isImmediateWin() {
+        return immediateWin;
+    }
+
+    /** Returns the number of players. */
+    public int getNumPlayers() {
+        return decks.length;
+    }
+
+    /** Returns the number of cards in a hand. */
+    public int getHandSize() {
+        return handSize;
+    }
+
+    /** Returns a copy of the final hand of a player, oldest card first. */
+    public int[] getHand(int playerId) {
+        return Arrays.copyOfRange(hands, handSize * (playerId - 1), handSize * playerId);
+    }
+
+    /** Returns a copy of the final contents of a deck, top card first. */
+    public int[] getDeck(int deckId) {
+        return decks[deckId - 1].clone();
+    }
+
+    /** Returns the number of cards in all hands and decks together. */
+    long cardCount() {
+        long count = hands.length;
+        for (int[] d : decks) count += d.length;
+        return count;
+    }
+
+    int[] hands() {
+        return hands;
+    }
+
+    int[][] decks() {
+        return decks;
+    }
+
+    @Override
+    public String toString() {
+        return "FinalState(" + outcome + ", winner " + winnerId + ", turns " + totalTurns + ")";
+    }
+}
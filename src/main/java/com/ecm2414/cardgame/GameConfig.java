@@ -1,8 +1,11 @@
 package com.ecm2414.cardgame;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.IntStream;
 
 /**
  * Stores configuration and setup parameters for a card game.
@@ -10,9 +13,38 @@ import java.util.List;
  */
 public class GameConfig {
 
+    /** Player count from which hands and decks are dealt in parallel. */
+    private static final int PARALLEL_DEAL_THRESHOLD = 1 << 14;
+
     private final int numPlayers;        // number of players in the game
+    private final int handSize;          // k: cards per hand and per deck at the start
     private final Path packFilePath;     // location of input pack file
-    private final List<Card> pack;       // list of cards read from file
+    private final int[] pack;            // card values in pack order; dense ids once remapped
+    private ValueRemap valueRemap;       // null = the game plays on the original values
+    private LogVerbosity logVerbosity = LogVerbosity.FULL;
+    private int sampleInterval = 1;      // k for LogVerbosity.SAMPLED
+    private Path dashboardFile;          // null = no live dashboard
+    private long dashboardIntervalMillis;
+    private Path outputDirectory = Path.of(""); // where player/deck files go
+    private Path latencyReportFile;      // null = turn latencies are not measured
+    private Path traceFile;              // null = no timeline is recorded
+    private long conservationCheckMillis = 0; // 0 = cards are not checked while the game runs
+    private long turnBudget = 0;         // 0 = no limit on the turns of all players together
+    private long timeBudgetMillis = 0;   // 0 = no limit on the game's wall time
+    private int turnPauseMillis = 10;    // players sleep this long after each turn
+    private int traceMaxSpans = GameTracer.DEFAULT_MAX_SPANS;
+    private int maxOpenFiles = 0;        // 0 = one open file per player
+    private boolean compressedOutput = false; // write .gz player and deck files
+    private int compressionWorkers = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private int logWriters = Runtime.getRuntime().availableProcessors(); // threads writing player files
+    private WaitStrategy waitStrategy = WaitStrategy.SPIN_PARK;
+    private DiscardStrategy discardStrategy = StandardDiscard.FIRST_NON_PREFERRED;
+    private Topology topology = Topology.RING;
+    private boolean compactMode = false; // run on CompactGame instead of one thread per player
+    private int compactWorkers = Runtime.getRuntime().availableProcessors();
+    private boolean deterministic = false; // take turns one at a time in a seeded order
+    private long scheduleSeed = 0;
+    private OutcomeCache outcomeCache;   // null = deterministic games are always played
 
     /**
      * Constructs a GameConfig.
@@ -29,8 +61,81 @@ public class GameConfig {
             throw new IllegalArgumentException("Pack must contain exactly 8 * numPlayers cards.");
         }
         this.numPlayers = numPlayers;
+        this.handSize = 4;
         this.packFilePath = packFilePath;
-        this.pack = new ArrayList<>(pack); // defensive copy
+        this.pack = new int[pack.size()];
+        for (int i = 0; i < this.pack.length; i++) {
+            this.pack[i] = pack.get(i).getValue();
+        }
+    }
+
+    /**
+     * Constructs a GameConfig from plain card values, without creating Card objects.
+     *
+     * @param numPlayers number of players (must be > 0)
+     * @param packFilePath path to input pack file
+     * @param packValues non-negative card values (must contain 8*numPlayers values); copied
+     */
+    public GameConfig(int numPlayers, Path packFilePath, int[] packValues) {
+        this(numPlayers, packFilePath, packValues, 4);
+    }
+
+    /**
+     * Constructs a GameConfig for hands of k cards: each player is dealt k
+     * cards, each deck starts with k, and a player wins with k of a kind.
+     *
+     * @param numPlayers number of players (must be > 0)
+     * @param packFilePath path to input pack file
+     * @param packValues non-negative card values (must contain 2*k*numPlayers values); copied
+     * @param handSize k (must be > 0)
+     */
+    public GameConfig(int numPlayers, Path packFilePath, int[] packValues, int handSize) {
+        if (numPlayers <= 0) {
+            throw new IllegalArgumentException("Number of players must be positive.");
+        }
+        if (handSize <= 0) {
+            throw new IllegalArgumentException("Hand size must be positive.");
+        }
+        if (packValues == null || packValues.length != 2L * handSize * numPlayers) {
+            throw new IllegalArgumentException("Pack must contain exactly 2 * handSize * numPlayers cards.");
+        }
+        for (int v : packValues) {
+            if (v < 0) throw new IllegalArgumentException("Card value must be non-negative.");
+        }
+        this.numPlayers = numPlayers;
+        this.handSize = handSize;
+        this.packFilePath = packFilePath;
+        this.pack = packValues.clone();
+    }
+
+    /**
+     * Constructs a GameConfig for hands of k cards whose pack the source
+     * writes straight into the config, without an intermediate list or copy.
+     *
+     * @param numPlayers number of players (must be > 0)
+     * @param source fills the 2*k*numPlayers non-negative card values
+     * @param handSize k (must be > 0)
+     * @throws InvalidPackException if the source holds no valid pack of that size
+     * @throws IOException if the source cannot be read
+     */
+    public GameConfig(int numPlayers, PackSource source, int handSize) throws IOException, InvalidPackException {
+        if (numPlayers <= 0) {
+            throw new IllegalArgumentException("Number of players must be positive.");
+        }
+        if (handSize <= 0) {
+            throw new IllegalArgumentException("Hand size must be positive.");
+        }
+        if (2L * handSize * numPlayers > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("A pack of 2 * handSize * numPlayers cards does not fit in an array.");
+        }
+        this.numPlayers = numPlayers;
+        this.handSize = handSize;
+        this.packFilePath = source.getPath();
+        this.pack = new int[2 * handSize * numPlayers];
+        source.fill(pack, numPlayers, handSize);
+        for (int v : pack) {
+            if (v < 0) throw new InvalidPackException("Card value must be non-negative.");
+        }
     }
 
     /** Returns the number of players in the game */
@@ -38,35 +143,540 @@ public class GameConfig {
         return numPlayers;
     }
 
+    /** Returns k, the number of cards in a hand between turns (4 unless configured) */
+    public int getHandSize() {
+        return handSize;
+    }
+
     /** Returns the input pack file path */
     public Path getPackFilePath() {
         return packFilePath;
     }
 
-    /** Returns a copy of the pack cards */
+    /** Returns how much of the per-turn player log is written (FULL by default) */
+    public LogVerbosity getLogVerbosity() {
+        return logVerbosity;
+    }
+
+    /** Returns k, the turn interval used by LogVerbosity.SAMPLED */
+    public int getSampleInterval() {
+        return sampleInterval;
+    }
+
+    /**
+     * Sets the player log verbosity.
+     *
+     * @param verbosity the level to use
+     * @param sampleInterval k for SAMPLED (every k-th turn is logged); must be > 0
+     */
+    public void setLogVerbosity(LogVerbosity verbosity, int sampleInterval) {
+        if (verbosity == null) {
+            throw new IllegalArgumentException("Log verbosity must not be null.");
+        }
+        if (sampleInterval <= 0) {
+            throw new IllegalArgumentException("Sample interval must be positive.");
+        }
+        this.logVerbosity = verbosity;
+        this.sampleInterval = sampleInterval;
+    }
+
+    /** Returns the directory the player and deck output files are written to */
+    public Path getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    /**
+     * Sets the directory for the player and deck output files (the working
+     * directory by default). The directory must already exist.
+     */
+    public void setOutputDirectory(Path outputDirectory) {
+        if (outputDirectory == null) {
+            throw new IllegalArgumentException("Output directory must not be null.");
+        }
+        this.outputDirectory = outputDirectory;
+    }
+
+    /** Returns the live dashboard file, or null if the dashboard is off */
+    public Path getDashboardFile() {
+        return dashboardFile;
+    }
+
+    /** Returns the time between dashboard dumps in milliseconds */
+    public long getDashboardIntervalMillis() {
+        return dashboardIntervalMillis;
+    }
+
+    /**
+     * Turns on the live dashboard: every interval the contents of all decks and
+     * hands are written to the given file (see GameMonitor).
+     *
+     * @param file the file to rewrite, or null to turn the dashboard off
+     * @param intervalMillis time between dumps; must be > 0
+     */
+    public void setDashboard(Path file, long intervalMillis) {
+        if (file != null && intervalMillis <= 0) {
+            throw new IllegalArgumentException("Dashboard interval must be positive.");
+        }
+        this.dashboardFile = file;
+        this.dashboardIntervalMillis = intervalMillis;
+    }
+
+    /** Returns the file the turn latency report is written to, or null if latencies are not measured */
+    public Path getLatencyReportFile() {
+        return latencyReportFile;
+    }
+
+    /**
+     * Measures draw wait, lock acquire, log write and total turn time of every
+     * turn in per-player histograms (see TurnLatencies). They are merged when
+     * the game ends, returned in the GameResult and written to the given file
+     * in the Prometheus text format. Compact games do not measure latencies.
+     *
+     * @param file the report file, or null to stop measuring
+     */
+    public void setLatencyReport(Path file) {
+        this.latencyReportFile = file;
+    }
+
+    /** Returns the file the Chrome trace of the game is written to, or null if none is recorded */
+    public Path getTraceFile() {
+        return traceFile;
+    }
+
+    /** Returns the most spans the trace keeps; later ones are dropped */
+    public int getTraceMaxSpans() {
+        return traceMaxSpans;
+    }
+
+    /**
+     * Records a timeline of turns, draw waits, deck lock acquisitions and
+     * player log flushes, one track per thread, and writes it to the given
+     * file in the Chrome Trace Event Format when the game ends (see
+     * GameTracer). Compact games are not traced.
+     *
+     * @param file     the trace file, or null to stop tracing
+     * @param maxSpans the most spans kept over the whole game (24 bytes each)
+     */
+    public void setTrace(Path file, int maxSpans) {
+        if (maxSpans <= 0) {
+            throw new IllegalArgumentException("Trace span limit must be positive.");
+        }
+        this.traceFile = file;
+        this.traceMaxSpans = maxSpans;
+    }
+
+    /** Returns the most turns all players together may take, or 0 for no limit */
+    public long getTurnBudget() {
+        return turnBudget;
+    }
+
+    /**
+     * Stops the game with GameResult.Outcome.TURN_BUDGET_EXHAUSTED once all
+     * players together have taken this many turns. Turns are counted on
+     * striped counters and checked every few milliseconds, so a few more
+     * turns may be taken before every player has stopped. Compact games
+     * never take more than this many, and may stop a few short when a worker
+     * thread's players are blocked by stopped neighbours; deterministic games
+     * stop after exactly this many.
+     *
+     * @param turns the budget; 0 for no limit
+     */
+    public void setTurnBudget(long turns) {
+        if (turns < 0) {
+            throw new IllegalArgumentException("Turn budget must not be negative.");
+        }
+        this.turnBudget = turns;
+    }
+
+    /** Returns the longest the game may run in milliseconds, or 0 for no limit */
+    public long getTimeBudgetMillis() {
+        return timeBudgetMillis;
+    }
+
+    /**
+     * Stops the game with GameResult.Outcome.TIME_BUDGET_EXHAUSTED once it has
+     * run this long. Writing the files after the players stop is not limited.
+     *
+     * @param millis the budget; 0 for no limit
+     */
+    public void setTimeBudget(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Time budget must not be negative.");
+        }
+        this.timeBudgetMillis = millis;
+    }
+
+    /** Returns how long each player sleeps after a turn, in milliseconds (10 by default) */
+    public int getTurnPauseMillis() {
+        return turnPauseMillis;
+    }
+
+    /**
+     * Sets how long each player sleeps after a turn. The pause bounds every
+     * player to about 100 turns a second, whatever the topology or the number
+     * of CPUs; with 0 players take their turns back to back and only wait for
+     * cards. Compact and deterministic games never pause.
+     *
+     * @param millis the pause; must not be negative
+     */
+    public void setTurnPause(int millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Turn pause must not be negative.");
+        }
+        this.turnPauseMillis = millis;
+    }
+
+    /** Returns the interval between card conservation samples, or 0 if cards are not checked */
+    public long getConservationCheckMillis() {
+        return conservationCheckMillis;
+    }
+
+    /**
+     * Checks while the game runs that no card is lost or duplicated (see
+     * ConservationChecker): every turn is checked by the player taking it, and
+     * all decks and hands together are compared with the pack at the given
+     * interval and when the game ends. Violations are printed to standard
+     * error and returned in the GameResult. Compact games are not checked.
+     *
+     * @param intervalMillis time between samples; 0 turns checking off
+     */
+    public void setConservationCheck(long intervalMillis) {
+        if (intervalMillis < 0) {
+            throw new IllegalArgumentException("Conservation check interval must not be negative.");
+        }
+        this.conservationCheckMillis = intervalMillis;
+    }
+
+    /** Returns the most output files kept open at once, or 0 for one open file per player */
+    public int getMaxOpenFiles() {
+        return maxOpenFiles;
+    }
+
+    /**
+     * Bounds the number of output files open at once by writing them through a
+     * LogFilePool. With 0, the default, every player keeps its own file open
+     * for the whole game and every line is written as it happens. With a pool,
+     * player lines are written in 4 KB chunks: tail -f shows nothing until a
+     * chunk is full, and a crash loses each player's unwritten tail. Use it
+     * when the player count would otherwise exceed ulimit -n.
+     *
+     * @param maxOpenFiles most files open at once, or 0 (the default); must be >= 0
+     */
+    public void setMaxOpenFiles(int maxOpenFiles) {
+        if (maxOpenFiles < 0) {
+            throw new IllegalArgumentException("Max open files must not be negative.");
+        }
+        this.maxOpenFiles = maxOpenFiles;
+    }
+
+    /** Returns how players wait for a card on an empty deck (SPIN_PARK by default) */
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    /**
+     * Sets how players wait for a card on an empty deck. Applies to the decks
+     * created by dealDecks.
+     *
+     * @param waitStrategy the strategy; must not be null
+     */
+    public void setWaitStrategy(WaitStrategy waitStrategy) {
+        if (waitStrategy == null) {
+            throw new IllegalArgumentException("Wait strategy must not be null.");
+        }
+        this.waitStrategy = waitStrategy;
+    }
+
+    /** Returns how players choose their discards (FIRST_NON_PREFERRED by default) */
+    public DiscardStrategy getDiscardStrategy() {
+        return discardStrategy;
+    }
+
+    /**
+     * Sets how players choose the card to discard. Compact and deterministic
+     * games only discard as StandardDiscard.FIRST_NON_PREFERRED, so they take
+     * no other strategy.
+     *
+     * @param discardStrategy the strategy; must not be null
+     */
+    public void setDiscardStrategy(DiscardStrategy discardStrategy) {
+        if (discardStrategy == null) {
+            throw new IllegalArgumentException("Discard strategy must not be null.");
+        }
+        if ((compactMode || deterministic) && discardStrategy != StandardDiscard.FIRST_NON_PREFERRED) {
+            throw new IllegalArgumentException("Compact and deterministic games only discard as FIRST_NON_PREFERRED.");
+        }
+        this.discardStrategy = discardStrategy;
+    }
+
+    /** Returns which deck each player discards to (the single RING by default) */
+    public Topology getTopology() {
+        return topology;
+    }
+
+    /**
+     * Sets which deck each player discards to. Output files of a cross-linked
+     * topology show discards to two decks; OutputVerifier.setTopology checks them.
+     * Compact and deterministic games only play on the single ring.
+     *
+     * @param topology the topology; must not be null and have no more shards than players
+     */
+    public void setTopology(Topology topology) {
+        if (topology == null) {
+            throw new IllegalArgumentException("Topology must not be null.");
+        }
+        if ((compactMode || deterministic) && topology != Topology.RING) {
+            throw new IllegalArgumentException("Compact and deterministic games only play on the single ring.");
+        }
+        topology.validate(numPlayers);
+        this.topology = topology;
+    }
+
+    /** Returns whether player and deck files are written gzip-compressed */
+    public boolean isCompressedOutput() {
+        return compressedOutput;
+    }
+
+    /** Returns the number of threads that compress output files */
+    public int getCompressionWorkers() {
+        return compressionWorkers;
+    }
+
+    /**
+     * Writes player and deck files gzip-compressed, as player<i>_output.txt.gz
+     * and deck<i>_output.txt.gz (see GzipLogWriter), compressing on the given
+     * number of worker threads. LogReader reads them back as plain text.
+     * Compressed files are always written through a LogFilePool, with
+     * LogFilePool.DEFAULT_MAX_OPEN files if setMaxOpenFiles was 0. Compact
+     * games write plain files.
+     *
+     * @param compressed true to compress the output
+     * @param workers number of compression threads; must be > 0
+     */
+    public void setCompressedOutput(boolean compressed, int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Number of workers must be positive.");
+        }
+        this.compressedOutput = compressed;
+        this.compressionWorkers = workers;
+    }
+
+    /** Returns the number of threads writing player files, at most one per player */
+    public int getLogWriters() {
+        return Math.min(logWriters, numPlayers);
+    }
+
+    /**
+     * Sets how many threads write the player files (one per CPU by default).
+     * Each writes the files of every writers-th player, so a game's logging
+     * is spread over that many threads; players never wait for them, and a
+     * writer that falls behind keeps its backlog of lines in memory.
+     *
+     * @param writers number of log writer threads; must be > 0
+     */
+    public void setLogWriters(int writers) {
+        if (writers <= 0) {
+            throw new IllegalArgumentException("Number of log writers must be positive.");
+        }
+        this.logWriters = writers;
+    }
+
+    /** Returns whether the game runs in compact mode (see CompactGame) */
+    public boolean isCompactMode() {
+        return compactMode;
+    }
+
+    /** Returns the number of worker threads used in compact mode */
+    public int getCompactWorkers() {
+        return compactWorkers;
+    }
+
+    /**
+     * Runs the game on CompactGame: primitive arrays and a few worker threads
+     * instead of a thread, Hand and Deck object per player. Compact games always
+     * log at SUMMARY level and publish no events.
+     *
+     * @param compactMode true to use compact mode
+     * @param workers number of worker threads; must be > 0
+     * @throws IllegalArgumentException also if a discard strategy or topology CompactGame does not play is set
+     */
+    public void setCompactMode(boolean compactMode, int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Number of workers must be positive.");
+        }
+        if (compactMode) requireCompactPlay();
+        this.compactMode = compactMode;
+        this.compactWorkers = workers;
+    }
+
+    /** Returns whether the game takes its turns in a seeded order (see setDeterministic) */
+    public boolean isDeterministic() {
+        return deterministic;
+    }
+
+    /** Returns the seed of the turn order of a deterministic game */
+    public long getScheduleSeed() {
+        return scheduleSeed;
+    }
+
+    /**
+     * Runs the game on CompactGame with every turn taken on the calling
+     * thread, in an order drawn from the seed, so the same pack, player
+     * count, seed and turn budget always give the same result. The turn
+     * budget is exact; output files are written at SUMMARY level.
+     *
+     * @param deterministic true to play deterministically
+     * @param seed seed of the turn order
+     * @throws IllegalArgumentException if a discard strategy or topology CompactGame does not play is set
+     */
+    public void setDeterministic(boolean deterministic, long seed) {
+        if (deterministic) requireCompactPlay();
+        this.deterministic = deterministic;
+        this.scheduleSeed = seed;
+    }
+
+    /** Rejects the settings CompactGame does not play. */
+    private void requireCompactPlay() {
+        if (discardStrategy != StandardDiscard.FIRST_NON_PREFERRED) {
+            throw new IllegalArgumentException("Compact and deterministic games only discard as FIRST_NON_PREFERRED.");
+        }
+        if (topology != Topology.RING) {
+            throw new IllegalArgumentException("Compact and deterministic games only play on the single ring.");
+        }
+    }
+
+    /** Returns the cache of deterministic outcomes, or null if there is none */
+    public OutcomeCache getOutcomeCache() {
+        return outcomeCache;
+    }
+
+    /**
+     * Looks deterministic games up in the cache before playing them, and
+     * stores their outcome afterwards. A cached game is not replayed: its
+     * output files are written from the stored final state.
+     *
+     * @param cache the cache to use; null to always play
+     */
+    public void setOutcomeCache(OutcomeCache cache) {
+        this.outcomeCache = cache;
+    }
+
+    /** Returns the id remap the game plays on, or null if it plays on the original values */
+    public ValueRemap getValueRemap() {
+        return valueRemap;
+    }
+
+    /**
+     * Makes the game play on dense ids 0..m-1 instead of the original card
+     * values (see ValueRemap). Output files still show the original values;
+     * card values in GameEvents and Hand/Deck snapshots are ids, which
+     * getValueRemap() translates back.
+     *
+     * @param dense true to remap the pack, false to restore the original values
+     */
+    public void setDenseValues(boolean dense) {
+        if (dense && valueRemap == null) {
+            valueRemap = PackLoader.remap(pack);
+        } else if (!dense && valueRemap != null) {
+            for (int i = 0; i < pack.length; i++) {
+                pack[i] = valueRemap.toValue(pack[i]);
+            }
+            valueRemap = null;
+        }
+    }
+
+    /**
+     * Returns the card value the given player collects, as the game sees it:
+     * the player's id, or its dense id, or -1 if no card has that value.
+     */
+    public int preferredValue(int playerId) {
+        return valueRemap == null ? playerId : valueRemap.toId(playerId);
+    }
+
+    /** Returns the original card value of a value the game plays with. */
+    public int originalValue(int value) {
+        return valueRemap == null ? value : valueRemap.toValue(value);
+    }
+
+    /** Returns a copy of the pack cards, with their original values */
     public List<Card> getPack() {
-        return new ArrayList<>(pack);
+        List<Card> cards = new ArrayList<>(pack.length);
+        for (int v : pack) {
+            cards.add(new Card(originalValue(v)));
+        }
+        return cards;
+    }
+
+    /** Returns the number of cards in the pack (2 * handSize * numPlayers) */
+    public int getPackSize() {
+        return pack.length;
+    }
+
+    /** Returns the value the game plays with (a dense id once remapped) at the given position of the pack */
+    public int getPackValue(int index) {
+        return pack[index];
     }
 
     /**
      * Deals the initial hands for all players round-robin.
+     * <p>
+     * Round-robin dealing gives player p the cards at p, n + p, ... (k - 1)n + p,
+     * so each hand's slice is computed on its own, in parallel for large
+     * games, straight into the array the Hand keeps.
      *
      * @return a list of hands, one per player
      */
     public List<Hand> dealInitialHands() {
-        List<Hand> hands = new ArrayList<>(numPlayers);
-        for (int i = 0; i < numPlayers; i++) {
-            hands.add(new Hand(new ArrayList<>()));
-        }
+        Hand[] hands = new Hand[numPlayers];
+        players().forEach(p -> {
+            int[] values = new int[handSize + 1]; // room for the drawn card during a turn
+            for (int round = 0; round < handSize; round++) { // k cards per hand
+                values[round] = pack[round * numPlayers + p];
+            }
+            hands[p] = new Hand(values, handSize, handSize);
+        });
+        return Arrays.asList(hands);
+    }
 
-        int index = 0;
-        for (int round = 0; round < 4; round++) { // 4 cards per hand
-            for (int p = 0; p < numPlayers; p++) {
-                hands.get(p).addCard(pack.get(index++));
+    /**
+     * Creates the n decks (ids 1..n) holding the cards left after dealing,
+     * laid out as fillDecks would: deck d gets kn + d, (k + 1)n + d, ...
+     * (2k - 1)n + d. Each deck's slice is computed on its own, in parallel for large
+     * games, straight into the array the Deck keeps.
+     *
+     * @return the decks, index = deck id - 1
+     */
+    public Deck[] dealDecks() {
+        Deck[] decks = new Deck[numPlayers];
+        int first = numPlayers * handSize; // skip cards dealt to players
+        players().forEach(d -> {
+            int[] values = new int[(pack.length - first) / numPlayers];
+            for (int round = 0; round < values.length; round++) {
+                values[round] = pack[first + round * numPlayers + d];
             }
-        }
+            decks[d] = new Deck(d + 1, values, waitStrategy);
+        });
+        return decks;
+    }
+
+    /**
+     * Deals the pack as dealInitialHands and dealDecks would, into the hands
+     * and decks of a finished game with the same number of players, hand size
+     * and wait strategy.
+     */
+    void dealInto(List<Hand> hands, Deck[] decks) {
+        int first = numPlayers * handSize;
+        int perDeck = (pack.length - first) / numPlayers;
+        players().forEach(p -> {
+            hands.get(p).reset(pack, p, numPlayers);
+            decks[p].reset(pack, first + p, numPlayers, perDeck);
+        });
+    }
 
-        return hands;
+    /** Player (and deck) indexes 0..n-1; parallel once a game is big enough to gain from it. */
+    private IntStream players() {
+        IntStream range = IntStream.range(0, numPlayers);
+        return numPlayers >= PARALLEL_DEAL_THRESHOLD ? range.parallel() : range;
     }
 
     /**
@@ -75,10 +685,10 @@ public class GameConfig {
      * @param decks array of deck objects to populate
      */
     public void fillDecks(Deck[] decks) {
-        int index = numPlayers * 4; // skip cards dealt to players
-        while (index < pack.size()) {
-            for (int d = 0; d < decks.length && index < pack.size(); d++) {
-                decks[d].addCard(pack.get(index++));
+        int index = numPlayers * handSize; // skip cards dealt to players
+        while (index < pack.length) {
+            for (int d = 0; d < decks.length && index < pack.length; d++) {
+                decks[d].addCard(new Card(pack[index++]));
             }
         }
     }
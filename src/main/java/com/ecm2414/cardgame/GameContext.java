@@ -0,0 +1,62 @@
+package com.ecm2414.cardgame;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-game runtime state shared by the controller and all of its players.
+ */
+final class GameContext {
+
+    private final GameConfig config;
+    private final AtomicBoolean winnerFound;
+    private final AtomicInteger winnerId = new AtomicInteger(-1);
+    private final LongAdder turnsTaken = new LongAdder();
+    private final GameEventBus events;
+    private final GameTracer tracer; // null when the game is not traced
+    private final ConservationChecker checker; // null when cards are not checked
+
+    GameContext(GameConfig config, AtomicBoolean winnerFound, GameEventBus events, GameTracer tracer,
+                ConservationChecker checker) {
+        this.config = config;
+        this.winnerFound = winnerFound;
+        this.events = events;
+        this.tracer = tracer;
+        this.checker = checker;
+    }
+
+    GameConfig config() {
+        return config;
+    }
+
+    /** Returns the flag that ends the game: set when a player has won or the game is stopped. */
+    AtomicBoolean winnerFound() {
+        return winnerFound;
+    }
+
+    /** Returns the id of the first player to win, or -1 while nobody has. */
+    AtomicInteger winnerId() {
+        return winnerId;
+    }
+
+    /** Returns the turns taken by all players; only counted when the game has a turn budget. */
+    LongAdder turnsTaken() {
+        return turnsTaken;
+    }
+
+    /** Returns the bus every player publishes its events to. */
+    GameEventBus events() {
+        return events;
+    }
+
+    /** Returns the game's tracer, or null if the game is not traced. */
+    GameTracer tracer() {
+        return tracer;
+    }
+
+    /** Returns the game's conservation checker, or null if cards are not checked. */
+    ConservationChecker checker() {
+        return checker;
+    }
+}
@@ -1,9 +1,16 @@
 package com.ecm2414.cardgame;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * GameController sets up and runs the multithreaded card game.
@@ -11,62 +18,347 @@ import java.util.concurrent.atomic.AtomicBoolean;
  */
 public class GameController {
 
-    private final AtomicBoolean winnerFound = new AtomicBoolean(false);
+    /** How often the turn budget is checked while the players run. */
+    private static final long BUDGET_POLL_MILLIS = 5;
 
-    /** Starts a new game from the provided configuration. */
-    public void startGame(GameConfig config) {
+    /** Events each player log writer shard buffers before players wait for it. */
+    private static final int LOG_RING_CAPACITY = 1 << 16;
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final WarmPool warm; // null: every game starts its own threads and deals new decks and hands
+
+    /** Creates a controller whose games start their own player threads. */
+    public GameController() {
+        this(null);
+    }
+
+    /** Creates a controller whose games run on pooled player threads, decks and hands. */
+    GameController(WarmPool warm) {
+        this.warm = warm;
+    }
+
+    /**
+     * Subscribes a listener to the events of games started by this controller.
+     * Events reach it on its own thread; players never wait for it unless the
+     * policy is BLOCK.
+     *
+     * @param listener the listener to call
+     * @param policy   what to do when its buffer is full
+     */
+    public void addEventListener(GameEventListener listener, BackpressurePolicy policy) {
+        addEventListener(listener, policy, GameEventBus.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Subscribes a listener with an explicit buffer size.
+     *
+     * @param listener the listener to call
+     * @param policy   what to do when its buffer is full
+     * @param capacity number of events the buffer holds
+     */
+    public void addEventListener(GameEventListener listener, BackpressurePolicy policy, int capacity) {
+        listeners.add(new Listener(listener, policy, capacity));
+    }
+
+    /**
+     * Starts a new game from the provided configuration and blocks until it ends.
+     * If the calling thread is interrupted, the game is cancelled; this method
+     * still returns once the files are written, with the interrupt status set.
+     *
+     * @return the winner, the number of turns taken and the wall time of the game
+     */
+    public GameResult startGame(GameConfig config) {
+        return startGame(config, new GameHandle());
+    }
+
+    /** Plays a game on the calling thread that the given handle can stop from another one. */
+    GameResult startGame(GameConfig config, GameHandle handle) {
+        GameResult result = run(config, handle);
+        handle.complete(result);
+        return result;
+    }
+
+    /**
+     * Starts a new game on its own thread and returns at once. The handle
+     * cancels the game and waits for its result; the turn and time budgets
+     * of the configuration apply as with startGame.
+     *
+     * @return the handle of the running game
+     */
+    public GameHandle start(GameConfig config) {
+        GameHandle handle = new GameHandle();
+        Thread t = new Thread(() -> {
+            try {
+                handle.complete(run(config, handle));
+            } catch (RuntimeException | Error e) {
+                handle.fail(e);
+            }
+        }, "game-controller");
+        t.start();
+        return handle;
+    }
+
+    /** Plays a game on the calling thread until it is won or stopped through the handle. */
+    private GameResult run(GameConfig config, GameHandle handle) {
+        final long startNanos = System.nanoTime();
         final int n = config.getNumPlayers();
+        if (config.getTimeBudgetMillis() > 0) {
+            handle.startDeadline(config.getTimeBudgetMillis());
+        }
+        if (config.isDeterministic()) {
+            return startDeterministicGame(config, handle, startNanos);
+        }
+        if (config.isCompactMode()) {
+            return startCompactGame(config, handle, startNanos);
+        }
+        final AtomicBoolean winnerFound = new AtomicBoolean(false);
 
-        // Create decks (ids are 1..n for logging/filenames).
-        Deck[] decks = new Deck[n];
-        for (int i = 0; i < n; i++) {
-            decks[i] = new Deck(i + 1);
+        // Player output files are written by a lossless subscriber of the event bus.
+        // With a pool, player and deck files share a bounded number of open descriptors.
+        // Compressed files are written in chunks, so they always go through a pool.
+        LogFilePool pool = null;
+        if (config.getMaxOpenFiles() > 0) {
+            pool = new LogFilePool(config.getMaxOpenFiles());
+        } else if (config.isCompressedOutput()) {
+            pool = new LogFilePool(LogFilePool.DEFAULT_MAX_OPEN);
+        }
+        GzipLogWriter gzip = config.isCompressedOutput()
+                ? new GzipLogWriter(pool, config.getCompressionWorkers()) : null;
+        GameTracer tracer = config.getTraceFile() != null ? new GameTracer(config.getTraceMaxSpans()) : null;
+        GameEventBus events = new GameEventBus();
+        subscribeLogWriters(events, config, pool, gzip, tracer);
+        for (Listener l : listeners) {
+            events.subscribe(l.listener, l.policy, l.capacity);
         }
 
-        // Deal initial hands and fill decks with the remaining cards.
-        List<Hand> hands = config.dealInitialHands();
-        config.fillDecks(decks);
+        // Deal initial hands and the decks (ids are 1..n for logging/filenames) from the pack.
+        WarmPool.Set pooled = warm != null ? warm.acquire(config) : null;
+        List<Hand> hands = pooled != null ? pooled.hands : config.dealInitialHands();
+        Deck[] decks = pooled != null ? pooled.decks : config.dealDecks();
+
+        // Optional card conservation checks; the first sample checks the deal itself.
+        ConservationChecker checker = null;
+        if (config.getConservationCheckMillis() > 0) {
+            checker = new ConservationChecker(config, decks, hands, config.getConservationCheckMillis());
+            checker.sample();
+        }
 
         // Check for immediate winner after the initial deal.
-        int immediateWinner = findImmediateWinner(hands);
+        int immediateWinner = findImmediateWinner(hands, winnerFound);
         if (immediateWinner != -1) {
             System.out.println("player " + immediateWinner + " wins");
-            emitInitialDealLogsAndFinish(immediateWinner, hands, decks);
-            return;
+            emitInitialDealLogsAndFinish(immediateWinner, hands, decks, events, pool, gzip, config);
+            TurnLatencies none = null; // no turns were taken
+            if (config.getLatencyReportFile() != null) {
+                none = new TurnLatencies();
+                writeLatencyReport(config.getLatencyReportFile(), none);
+            }
+            if (tracer != null) writeTrace(config.getTraceFile(), tracer);
+            if (pooled != null) warm.release(pooled); // no stop action has been registered yet
+            return new GameResult(immediateWinner, 0, System.nanoTime() - startNanos, none,
+                    checker != null ? checker.getViolations() : List.of());
         }
 
         // Create player objects & threads.
-        List<Thread> threads = new ArrayList<>(n);
+        GameContext context = new GameContext(config, winnerFound, events, tracer, checker);
+        List<Player> players = new ArrayList<>(n);
+        List<Runnable> tasks = new ArrayList<>(n);
+        CountDownLatch finished = new CountDownLatch(n);
+        // Players wait until all are started: with thousands of players those already
+        // playing would otherwise starve this thread, and the turn budget, which it
+        // checks, would only be enforced once the last player was started.
+        CountDownLatch started = new CountDownLatch(1);
+        Topology topology = config.getTopology();
         for (int i = 0; i < n; i++) {
             int playerId = i + 1;
             Deck left = decks[i];
-            Deck right = decks[(i + 1) % n];
-            Player p = new Player(playerId, hands.get(i), left, right, winnerFound);
-            Thread t = new Thread(p, "player-" + playerId);
-            threads.add(t);
+            Deck right = decks[topology.rightDeck(playerId, n) - 1];
+            int linkId = topology.linkDeck(playerId, n);
+            Player p = new Player(playerId, hands.get(i), left, right, linkId != -1 ? decks[linkId - 1] : null,
+                    context);
+            players.add(p);
+            tasks.add(() -> {
+                try {
+                    try {
+                        started.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt(); // left for the player, as if it came later
+                    }
+                    p.run();
+                } finally {
+                    finished.countDown();
+                }
+            });
         }
 
+        // Optional live dashboard, fed from lock-free deck/hand snapshots.
+        GameMonitor monitor = null;
+        if (config.getDashboardFile() != null) {
+            monitor = new GameMonitor(decks, hands, config.getDashboardFile(), config.getDashboardIntervalMillis(),
+                    config.getValueRemap());
+            monitor.start();
+        }
+
+        // Stopping ends the players' loops and wakes those waiting on an empty deck.
+        handle.onStop(() -> {
+            winnerFound.set(true);
+            for (Deck d : decks) d.close();
+        });
+
         // Start all players.
-        for (Thread t : threads) t.start();
+        if (checker != null) checker.start();
+        for (int i = 0; i < n; i++) {
+            if (warm != null) {
+                warm.execute(tasks.get(i), "player-" + (i + 1));
+            } else {
+                new Thread(tasks.get(i), "player-" + (i + 1)).start();
+            }
+        }
+        started.countDown();
+
+        // Wait for termination. The interrupt status is put back once the files are
+        // written: an interrupted thread cannot write through a FileChannel.
+        boolean interrupted = awaitPlayers(finished, context.turnsTaken(), config.getTurnBudget(), handle);
+
+        if (monitor != null) monitor.stop();
+        if (checker != null) {
+            checker.stop();
+            checker.sample(); // every player has finished, so this cut is consistent
+        }
+        events.close(); // deliver every remaining event before the deck files are written
+        interrupted |= Thread.interrupted();
+
+        // Emit deck logs at the end of the game.
+        writeDeckLogs(decks, pool, gzip, config);
 
-        // Wait for termination.
-        for (Thread t : threads) {
+        int winner = -1;
+        long turns = 0;
+        TurnLatencies latencies = config.getLatencyReportFile() != null ? new TurnLatencies() : null;
+        for (Player p : players) {
+            if (p.hasWon()) winner = p.getId();
+            turns += p.getTurns();
+            if (latencies != null) latencies.merge(p.getLatencies());
+        }
+        if (latencies != null) {
+            writeLatencyReport(config.getLatencyReportFile(), latencies);
+        }
+        if (tracer != null) writeTrace(config.getTraceFile(), tracer);
+        GameResult.Outcome outcome = outcome(winner, handle);
+        if (pooled != null) {
+            handle.detach(); // a late cancel or deadline must not close the decks of the set's next game
+            warm.release(pooled);
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        return new GameResult(winner, turns, System.nanoTime() - startNanos, latencies,
+                checker != null ? checker.getViolations() : List.of(), outcome);
+    }
+
+    /**
+     * Waits until every player has finished, cancelling the game if this thread
+     * is interrupted and stopping it once the turn budget is used up.
+     *
+     * @return whether this thread was interrupted; its interrupt status is cleared
+     */
+    private boolean awaitPlayers(CountDownLatch finished, LongAdder turnsTaken, long turnBudget, GameHandle handle) {
+        boolean interrupted = false;
+        while (finished.getCount() > 0) {
             try {
-                t.join();
+                if (turnBudget > 0) {
+                    finished.await(BUDGET_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } else {
+                    finished.await();
+                }
             } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break; // try to finish gracefully
+                interrupted = true;
+                handle.cancel(); // the players still finish, so the logs stay complete
+            }
+            if (turnBudget > 0 && turnsTaken.sum() >= turnBudget) {
+                handle.stop(GameResult.Outcome.TURN_BUDGET_EXHAUSTED);
             }
         }
+        return interrupted;
+    }
 
-        // Emit deck logs at the end of the game.
-        writeDeckLogs(decks);
+    private static GameResult.Outcome outcome(int winner, GameHandle handle) {
+        if (winner != -1) return GameResult.Outcome.WON;
+        GameResult.Outcome reason = handle.getStopReason();
+        return reason != null ? reason : GameResult.Outcome.CANCELLED;
+    }
+
+    /**
+     * Runs the game on CompactGame. No events are published and the output
+     * files only hold the SUMMARY lines, written once the game is over.
+     */
+    private GameResult startCompactGame(GameConfig config, GameHandle handle, long startNanos) {
+        CompactGame game = new CompactGame(config);
+        handle.onStop(game::stop);
+        int winner = game.play(config.getCompactWorkers(), config.getTurnBudget());
+        if (winner != -1) {
+            System.out.println("player " + winner + " wins");
+        }
+        GameResult.Outcome outcome = winner == -1 && game.isBudgetExhausted()
+                ? GameResult.Outcome.TURN_BUDGET_EXHAUSTED : outcome(winner, handle);
+        boolean interrupted = Thread.interrupted(); // put back after the files are written
+        CompactGame.writeLogs(config, game.finalState(outcome), config.getOutputDirectory());
+        if (interrupted) Thread.currentThread().interrupt();
+        return new GameResult(winner, game.getTotalTurns(), System.nanoTime() - startNanos, null, List.of(),
+                outcome);
+    }
+
+    /**
+     * Runs a deterministic game, or takes its outcome from the OutcomeCache
+     * if it was played before. Either way the output files are written from
+     * the final state, at SUMMARY level.
+     */
+    private GameResult startDeterministicGame(GameConfig config, GameHandle handle, long startNanos) {
+        OutcomeCache cache = config.getOutcomeCache();
+        OutcomeCache.Key key = cache != null ? OutcomeCache.key(config) : null;
+        FinalState state = cache != null ? cache.get(key) : null;
+        boolean cached = state != null;
+        if (!cached) {
+            CompactGame game = new CompactGame(config);
+            handle.onStop(game::stop);
+            int winner = game.playSeeded(config.getScheduleSeed(), config.getTurnBudget());
+            GameResult.Outcome outcome = game.isBudgetExhausted()
+                    ? GameResult.Outcome.TURN_BUDGET_EXHAUSTED : outcome(winner, handle);
+            state = game.finalState(outcome);
+            // A cancelled or timed-out game depends on when it was stopped, so it is not stored.
+            if (cache != null && (winner != -1 || game.isBudgetExhausted())) {
+                cache.put(key, state);
+            }
+        }
+        if (state.getWinnerId() != -1) {
+            System.out.println("player " + state.getWinnerId() + " wins");
+        }
+        boolean interrupted = Thread.interrupted(); // put back after the files are written
+        CompactGame.writeLogs(config, state, config.getOutputDirectory());
+        if (interrupted) Thread.currentThread().interrupt();
+        return new GameResult(state.getWinnerId(), state.getTotalTurns(), System.nanoTime() - startNanos, null,
+                List.of(), state.getOutcome(), state, cached);
+    }
+
+    /** Writes the merged turn latencies in the Prometheus text format. */
+    private void writeLatencyReport(Path file, TurnLatencies latencies) {
+        try {
+            Files.writeString(file, latencies.toPrometheus(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** Writes the recorded timeline in the Chrome Trace Event Format. */
+    private void writeTrace(Path file, GameTracer tracer) {
+        try {
+            tracer.write(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
     /** Returns 1-based player id of a winner if any, otherwise -1. */
-    private int findImmediateWinner(List<Hand> hands) {
+    private int findImmediateWinner(List<Hand> hands, AtomicBoolean winnerFound) {
         for (int i = 0; i < hands.size(); i++) {
-            if (isWinningHand(hands.get(i))) {
+            if (hands.get(i).hasWinningHand()) {
                 winnerFound.set(true);
                 return i + 1;
             }
@@ -74,57 +366,93 @@ public class GameController {
         return -1;
     }
 
-    /** A winning hand is four cards of the same value. */
-    private boolean isWinningHand(Hand hand) {
-        List<Integer> values = hand.getCardValues();
-        if (values.size() != 4) return false;
-        int v0 = values.get(0);
-        return values.get(1) == v0 && values.get(2) == v0 && values.get(3) == v0;
+    /**
+     * Subscribes the player log writers: GameConfig.getLogWriters() shards of
+     * PlayerLogSubscriber, each writing its players' files on its own thread.
+     * BLOCK keeps every line in a bounded ring per shard: when the disk falls
+     * behind, players wait for room instead of the backlog filling the heap.
+     */
+    private static void subscribeLogWriters(GameEventBus events, GameConfig config, LogFilePool pool,
+                                            GzipLogWriter gzip, GameTracer tracer) {
+        int shards = config.getLogWriters();
+        List<PlayerLogSubscriber> writers = new ArrayList<>(shards);
+        for (int s = 0; s < shards; s++) {
+            GameTracer.Buffer trace = tracer != null ? tracer.buffer(-s, "player-log-writer-" + (s + 1)) : null;
+            writers.add(new PlayerLogSubscriber(config, pool, gzip, trace, s, shards));
+        }
+        events.subscribeSharded(writers, BackpressurePolicy.BLOCK, LOG_RING_CAPACITY);
     }
 
     /** If someone wins on the initial deal, create the required logs and exit. */
-    private void emitInitialDealLogsAndFinish(int winnerId, List<Hand> hands, Deck[] decks) {
+    private void emitInitialDealLogsAndFinish(int winnerId, List<Hand> hands, Deck[] decks, GameEventBus events,
+                                              LogFilePool pool, GzipLogWriter gzip, GameConfig config) {
         // Per spec, create all player output files even on immediate victory.
         for (int i = 0; i < hands.size(); i++) {
             int playerId = i + 1;
-            PlayerLogger logger = null;
-            try {
-                logger = PlayerLogger.create(playerId);
-                logger.logInitialHand(hands.get(i).getCardValues());
-                if (playerId == winnerId) {
-                    logger.logWin();
-                    logger.logFinalHand(hands.get(i).getCardValues());
-                } else {
-                    logger.logInformedByWinner(winnerId);
-                    logger.logExit();
-                    logger.logFinalHand(hands.get(i).getCardValues());
-                }
-            } catch (IOException ioe) {
-                ioe.printStackTrace();
-            } finally {
-                if (logger != null) {
-                    try { logger.close(); } catch (IOException ignored) {}
-                }
+            CardsSnapshot hand = hands.get(i).snapshot();
+            events.publish(GameEvent.initialHand(playerId, hand));
+            if (playerId == winnerId) {
+                events.publish(GameEvent.win(playerId, 0));
+            } else {
+                events.publish(GameEvent.informed(playerId, 0, winnerId));
+                events.publish(GameEvent.exit(playerId, 0));
             }
+            events.publish(GameEvent.finalHand(playerId, 0, hand));
         }
-        writeDeckLogs(decks);
+        events.close();
+        writeDeckLogs(decks, pool, gzip, config);
     }
 
-    /** Writes deckX_output.txt files for each deck. */
-    private void writeDeckLogs(Deck[] decks) {
+    /**
+     * Writes deckX_output.txt files for each deck, then waits for the compressor
+     * and closes the pool if there are any.
+     */
+    private void writeDeckLogs(Deck[] decks, LogFilePool pool, GzipLogWriter gzip, GameConfig config) {
         for (Deck d : decks) {
             // соберём значения карт по порядку (как лежат в очереди)
-            List<Integer> values = new java.util.ArrayList<>();
-            // если у Deck есть метод snapshot/iterator/getCards — используй его;
-            // иначе добавь в Deck публичный метод, который вернёт копию содержимого.
-            for (Card c : d.getCards()) {
-                values.add(c.getValue());
+            CardsSnapshot s = d.snapshot();
+            List<Integer> values = new ArrayList<>(s.size());
+            for (int i = 0; i < s.size(); i++) {
+                values.add(config.originalValue(s.valueAt(i)));
+            }
+            try {
+                if (gzip != null) {
+                    DeckLogger.logFinalState(gzip, config.getOutputDirectory(), d.getId(), values);
+                } else if (pool != null) {
+                    DeckLogger.logFinalState(pool, config.getOutputDirectory(), d.getId(), values);
+                } else {
+                    DeckLogger.logFinalState(config.getOutputDirectory(), d.getId(), values);
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
             }
+        }
+        if (gzip != null) {
+            try {
+                gzip.close(); // every compressed chunk is in its file after this
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        if (pool != null) {
             try {
-                DeckLogger.logFinalState(d.getId(), values);
+                pool.close();
             } catch (IOException e) {
                 e.printStackTrace();
             }
         }
     }
+
+    /** A listener registered on the controller, subscribed to each new game's bus. */
+    private static final class Listener {
+        final GameEventListener listener;
+        final BackpressurePolicy policy;
+        final int capacity;
+
+        Listener(GameEventListener listener, BackpressurePolicy policy, int capacity) {
+            this.listener = listener;
+            this.policy = policy;
+            this.capacity = capacity;
+        }
+    }
 }
@@ -0,0 +1,108 @@
+package com.ecm2414.cardgame;
+
+/**
+ * Something that happened to one player during a game.
+ * <p>
+ * Events are immutable and are handed to every subscriber of the game's
+ * GameEventBus. Hands are carried as CardsSnapshot, which is immutable too,
+ * so publishing an event never copies a hand.
+ */
+public final class GameEvent {
+
+    /** The kinds of event a player goes through, in the order they can occur. */
+    public enum Type {
+        /** The hand dealt to the player; {@link #getHand()} is set. */
+        INITIAL_HAND,
+        /** A card drawn; {@link #getValue()} and {@link #getDeckId()} are set. */
+        DRAW,
+        /** A card discarded; value, deck id and the hand after the discard are set. */
+        DISCARD,
+        /** The player has won. */
+        WIN,
+        /** Another player won; {@link #getValue()} is the winner's id. */
+        INFORMED,
+        /** The player leaves the game. */
+        EXIT,
+        /** The hand the player ends with; {@link #getHand()} is set. Always the player's last event. */
+        FINAL_HAND
+    }
+
+    private final Type type;
+    private final int playerId;
+    private final int turn;
+    private final int value;
+    private final int deckId;
+    private final CardsSnapshot hand;
+
+    private GameEvent(Type type, int playerId, int turn, int value, int deckId, CardsSnapshot hand) {
+        this.type = type;
+        this.playerId = playerId;
+        this.turn = turn;
+        this.value = value;
+        this.deckId = deckId;
+        this.hand = hand;
+    }
+
+    public static GameEvent initialHand(int playerId, CardsSnapshot hand) {
+        return new GameEvent(Type.INITIAL_HAND, playerId, 0, 0, 0, hand);
+    }
+
+    public static GameEvent draw(int playerId, int turn, int value, int fromDeckId) {
+        return new GameEvent(Type.DRAW, playerId, turn, value, fromDeckId, null);
+    }
+
+    public static GameEvent discard(int playerId, int turn, int value, int toDeckId, CardsSnapshot handAfter) {
+        return new GameEvent(Type.DISCARD, playerId, turn, value, toDeckId, handAfter);
+    }
+
+    public static GameEvent win(int playerId, int turn) {
+        return new GameEvent(Type.WIN, playerId, turn, playerId, 0, null);
+    }
+
+    public static GameEvent informed(int playerId, int turn, int winnerId) {
+        return new GameEvent(Type.INFORMED, playerId, turn, winnerId, 0, null);
+    }
+
+    public static GameEvent exit(int playerId, int turn) {
+        return new GameEvent(Type.EXIT, playerId, turn, 0, 0, null);
+    }
+
+    public static GameEvent finalHand(int playerId, int turn, CardsSnapshot hand) {
+        return new GameEvent(Type.FINAL_HAND, playerId, turn, 0, 0, hand);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /** Returns the 1-based id of the player the event belongs to. */
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    /** Returns the player's turn number when the event happened (0 before the first turn). */
+    public int getTurn() {
+        return turn;
+    }
+
+    /** Returns the card value for DRAW/DISCARD, the winner's id for WIN/INFORMED, otherwise 0. */
+    public int getValue() {
+        return value;
+    }
+
+    /** Returns the deck drawn from or discarded to, otherwise 0. */
+    public int getDeckId() {
+        return deckId;
+    }
+
+    /** Returns the hand for INITIAL_HAND, DISCARD and FINAL_HAND events, otherwise null. */
+    public CardsSnapshot getHand() {
+        return hand;
+    }
+
+    @Override
+    public String toString() {
+        return "GameEvent(" + type + ", player " + playerId + ", turn " + turn + ", value " + value
+                + ", deck " + deckId + (hand == null ? "" : ", hand " + hand) + ")";
+    }
+}
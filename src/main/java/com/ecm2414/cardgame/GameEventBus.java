@@ -0,0 +1,263 @@
+package com.ecm2414.cardgame;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivers game events from player threads to subscribers without letting a
+ * slow subscriber slow the players down.
+ * <p>
+ * Every subscriber gets its own bounded lock-free EventRing and dispatcher
+ * thread. Publishing only offers the event to each ring; what happens when a
+ * ring is full is decided per subscriber by its BackpressurePolicy. A
+ * subscriber can also be split into shards by player, each with its own
+ * buffer and thread. The player log subscriber is sharded and uses BLOCK, so
+ * no line is lost and the lines waiting for a file write stay within the
+ * rings, while analytics subscribers would normally use DROP or SAMPLE. An
+ * idle dispatcher spins briefly, then parks until the next publish wakes it.
+ */
+public final class GameEventBus {
+
+    /** Default ring size per subscriber. */
+    public static final int DEFAULT_CAPACITY = 8192;
+    /** With SAMPLE, one in this many events is kept once a ring is half full. */
+    static final int SAMPLE_EVERY = 8;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final List<Subscription[]> routes = new CopyOnWriteArrayList<>(); // one entry per subscriber
+    private volatile boolean closed = false;
+
+    /**
+     * Adds a subscriber and starts its dispatcher thread.
+     *
+     * @param listener the listener to call
+     * @param policy   what to do when its buffer is full
+     * @param capacity size of its buffer
+     * @return the subscription, which exposes delivery counters
+     */
+    public Subscription subscribe(GameEventListener listener, BackpressurePolicy policy, int capacity) {
+        if (closed) {
+            throw new IllegalStateException("Event bus is closed.");
+        }
+        Subscription s = new Subscription(listener, policy, capacity);
+        subscriptions.add(s);
+        routes.add(new Subscription[]{s});
+        s.thread.start();
+        return s;
+    }
+
+    /**
+     * Adds a subscriber split into shards, each with its own buffer and
+     * dispatcher thread. All events of player p go to shard (p - 1) % shards,
+     * so one player's events stay in order while the shards run in parallel.
+     *
+     * @param shards   the listener of each shard; it only sees its players' events
+     * @param policy   what to do when a shard's buffer is full
+     * @param capacity size of each shard's buffer
+     * @return the shards' subscriptions, in the order of the listeners
+     */
+    public List<Subscription> subscribeSharded(List<? extends GameEventListener> shards, BackpressurePolicy policy,
+                                               int capacity) {
+        if (closed) {
+            throw new IllegalStateException("Event bus is closed.");
+        }
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is needed.");
+        }
+        Subscription[] route = new Subscription[shards.size()];
+        for (int i = 0; i < route.length; i++) {
+            route[i] = new Subscription(shards.get(i), policy, capacity);
+        }
+        List<Subscription> added = List.of(route);
+        subscriptions.addAll(added);
+        routes.add(route);
+        for (Subscription s : route) s.thread.start();
+        return added;
+    }
+
+    /** Offers the event to every subscriber, or to its shard for the event's player, according to its policy. */
+    public void publish(GameEvent event) {
+        for (Subscription[] route : routes) {
+            Subscription s = route.length == 1 ? route[0] : route[(event.getPlayerId() - 1) % route.length];
+            s.offer(event);
+        }
+    }
+
+    /**
+     * Delivers everything already published, calls onClose on each listener
+     * and stops the dispatcher threads. Waits until all of that is done.
+     */
+    public void close() {
+        closed = true;
+        for (Subscription s : subscriptions) {
+            LockSupport.unpark(s.thread);
+        }
+        boolean interrupted = false;
+        for (Subscription s : subscriptions) {
+            while (s.thread.isAlive()) {
+                try {
+                    s.thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true; // keep waiting: logs must be complete before we return
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    /** One subscriber: its ring, policy, dispatcher thread and counters. */
+    public final class Subscription implements Runnable {
+
+        private final GameEventListener listener;
+        private final BackpressurePolicy policy;
+        private final EventRing ring;                          // null with GROW
+        private final ConcurrentLinkedQueue<GameEvent> queue;  // GROW only
+        private final AtomicLong queued = new AtomicLong();    // GROW: events offered and not yet polled
+        private final AtomicLong peakQueued = new AtomicLong();
+        private final Thread thread;
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong sampleCounter = new AtomicLong();
+        private final AtomicInteger blockedPublishers = new AtomicInteger(); // BLOCK publishers waiting for room
+        private volatile boolean parked; // the dispatcher is about to park or parked; publishers unpark it
+        private final Object space = new Object();
+        private volatile long delivered;
+
+        private Subscription(GameEventListener listener, BackpressurePolicy policy, int capacity) {
+            this.listener = listener;
+            this.policy = policy;
+            this.ring = policy == BackpressurePolicy.GROW ? null : new EventRing(capacity);
+            this.queue = policy == BackpressurePolicy.GROW ? new ConcurrentLinkedQueue<>() : null;
+            this.thread = new Thread(this, "event-dispatch-" + listener.getClass().getSimpleName());
+            this.thread.setDaemon(true);
+        }
+
+        /** Returns how many events were discarded because of DROP or SAMPLE. */
+        public long getDropped() {
+            return dropped.get();
+        }
+
+        /** Returns how many events the listener has received. */
+        public long getDelivered() {
+            return delivered;
+        }
+
+        /** Returns the number of events waiting for the listener. */
+        public int getQueueDepth() {
+            return ring != null ? ring.size() : (int) Math.min(Integer.MAX_VALUE, queued.get());
+        }
+
+        /** Returns the most events that have waited for the listener at once; tracked for GROW only. */
+        public long getPeakQueueDepth() {
+            return peakQueued.get();
+        }
+
+        private void offer(GameEvent event) {
+            if (enqueue(event) && parked) LockSupport.unpark(thread);
+        }
+
+        /** Queues the event according to the policy; returns false if it was discarded. */
+        private boolean enqueue(GameEvent event) {
+            switch (policy) {
+                case BLOCK:
+                    return ring.offer(event) || awaitSpace(event);
+                case GROW:
+                    long depth = queued.incrementAndGet();
+                    if (depth > peakQueued.get()) peakQueued.accumulateAndGet(depth, Math::max);
+                    queue.offer(event);
+                    return true;
+                case SAMPLE:
+                    if (ring.size() >= ring.capacity() / 2
+                            && sampleCounter.getAndIncrement() % SAMPLE_EVERY != 0) {
+                        dropped.incrementAndGet();
+                        return false;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            if (ring.offer(event)) return true;
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        /**
+         * Waits until the event fits. Publishers sleep on a monitor the
+         * dispatcher signals each time it has emptied half the ring. Spinning
+         * instead starved the dispatcher whenever many players were waiting on
+         * a busy machine, and signalling after every event made it fight
+         * thousands of them for the monitor. The timed wait only covers a
+         * signal missed by a publisher that had not yet counted itself as
+         * blocked.
+         *
+         * @return whether the event was queued
+         */
+        private boolean awaitSpace(GameEvent event) {
+            blockedPublishers.incrementAndGet();
+            try {
+                synchronized (space) {
+                    while (!ring.offer(event)) {
+                        if (!thread.isAlive()) return false; // dispatcher gone, nobody will drain
+                        try {
+                            space.wait(100);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+            } finally {
+                blockedPublishers.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (true) {
+                GameEvent e = poll();
+                if (e != null) {
+                    idle = 0;
+                    try {
+                        listener.onEvent(e);
+                    } catch (RuntimeException ex) {
+                        ex.printStackTrace();
+                    }
+                    delivered++;
+                    if (blockedPublishers.get() > 0 && ring.size() <= ring.capacity() / 2) {
+                        synchronized (space) {
+                            space.notifyAll();
+                        }
+                    }
+                } else if (closed) {
+                    // close() runs after the last publish, so an empty ring now stays empty
+                    if (getQueueDepth() == 0) break;
+                } else if (idle++ < 100) {
+                    Thread.onSpinWait();
+                } else {
+                    // Announce the park before the last look, so a publish after that look sees
+                    // parked and unparks: both sides write, then read, volatile state.
+                    parked = true;
+                    if (getQueueDepth() == 0 && !closed) LockSupport.park(this);
+                    parked = false;
+                }
+            }
+            try {
+                listener.onClose();
+            } catch (RuntimeException ex) {
+                ex.printStackTrace();
+            }
+        }
+
+        private GameEvent poll() {
+            if (ring != null) return ring.poll();
+            GameEvent e = queue.poll();
+            if (e != null) queued.decrementAndGet();
+            return e;
+        }
+    }
+}
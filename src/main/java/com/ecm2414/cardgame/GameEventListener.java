@@ -0,0 +1,17 @@
+package com.ecm2414.cardgame;
+
+/**
+ * Receives the events of a game.
+ * <p>
+ * Each listener is called from its own dispatcher thread, never from a
+ * player thread, and sees the events of any one player in the order they
+ * happened.
+ */
+public interface GameEventListener {
+
+    /** Called once for every event delivered to this listener. */
+    void onEvent(GameEvent event);
+
+    /** Called once after the last event of the game has been delivered. */
+    default void onClose() {}
+}
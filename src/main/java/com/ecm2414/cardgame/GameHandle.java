@@ -0,0 +1,136 @@
+package com.ecm2414.cardgame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A game started with GameController.start, running on its own thread.
+ * <p>
+ * The game ends when a player wins, when cancel is called, or when the turn
+ * or time budget of its GameConfig runs out. However it ends, the players
+ * finish their current turn, log their exit and final hand, and the deck
+ * files are written before the result becomes available, so the output
+ * files are always complete and consistent with each other.
+ */
+public final class GameHandle {
+
+    private final CountDownLatch done = new CountDownLatch(1);
+    private final List<Runnable> stopActions = new ArrayList<>(); // guarded by this
+    private GameResult.Outcome stopReason;                         // guarded by this; null while running
+    private boolean detached;                                      // guarded by this
+    private volatile GameResult result;
+    private volatile Throwable failure;
+
+    GameHandle() {
+    }
+
+    /**
+     * Stops the game. Players waiting on an empty deck are woken at once;
+     * the others stop after their current turn. Returns without waiting;
+     * use awaitCompletion for the result. Has no effect once the game is over.
+     */
+    public void cancel() {
+        stop(GameResult.Outcome.CANCELLED);
+    }
+
+    /** Returns whether the game is over and its files are written. */
+    public boolean isDone() {
+        return done.getCount() == 0;
+    }
+
+    /**
+     * Waits until the game is over and its files are written.
+     *
+     * @return the result of the game
+     * @throws InterruptedException if interrupted while waiting; the game keeps running
+     */
+    public GameResult awaitCompletion() throws InterruptedException {
+        done.await();
+        return resultOrThrow();
+    }
+
+    /**
+     * Waits at most the given time for the game to be over.
+     *
+     * @return the result of the game, or null if it is still running
+     * @throws InterruptedException if interrupted while waiting; the game keeps running
+     */
+    public GameResult awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!done.await(timeout, unit)) return null;
+        return resultOrThrow();
+    }
+
+    /**
+     * Stops the game for the given reason, unless it was already stopped.
+     *
+     * @return true if this call stopped it
+     */
+    synchronized boolean stop(GameResult.Outcome reason) {
+        if (stopReason != null || detached || isDone()) return false;
+        stopReason = reason;
+        // Run under the lock, so detach cannot return while an action still runs.
+        for (Runnable a : stopActions) a.run();
+        return true;
+    }
+
+    /**
+     * Forgets the stop actions, waiting for any that are running, and makes
+     * stop have no effect from now on. Called once the players have finished
+     * and before the game's decks go back to a WarmPool, whose next game
+     * the actions would otherwise close.
+     */
+    synchronized void detach() {
+        detached = true;
+        stopActions.clear();
+    }
+
+    /** Runs the action when the game is stopped, or at once if it already was. */
+    void onStop(Runnable action) {
+        synchronized (this) {
+            if (stopReason == null) {
+                stopActions.add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+
+    /** Returns why the game was stopped, or null if it was not. */
+    synchronized GameResult.Outcome getStopReason() {
+        return stopReason;
+    }
+
+    /** Stops the game with TIME_BUDGET_EXHAUSTED if it is still running after the given time. */
+    void startDeadline(long millis) {
+        Thread watchdog = new Thread(() -> {
+            try {
+                if (!done.await(millis, TimeUnit.MILLISECONDS)) {
+                    stop(GameResult.Outcome.TIME_BUDGET_EXHAUSTED);
+                }
+            } catch (InterruptedException e) {
+                // the game is left to finish on its own
+            }
+        }, "game-deadline");
+        watchdog.setDaemon(true);
+        watchdog.start();
+    }
+
+    void complete(GameResult result) {
+        this.result = result;
+        done.countDown();
+    }
+
+    void fail(Throwable failure) {
+        this.failure = failure;
+        done.countDown();
+    }
+
+    private GameResult resultOrThrow() {
+        if (failure != null) {
+            throw new IllegalStateException("Game failed.", failure);
+        }
+        return result;
+    }
+}
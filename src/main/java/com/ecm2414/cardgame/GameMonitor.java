@@ -0,0 +1,127 @@
+package com.ecm2414.cardgame;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * Periodically dumps every deck and hand of a running game to a text file.
+ * <p>
+ * The monitor watches every deck and hand, so they republish their snapshot
+ * on each change and a dump reads them without locking and never blocks a
+ * player. Each deck and hand is individually consistent; the dump as a whole
+ * is not one atomic cut, so a card moving during a dump may appear in two
+ * places or none. The file is replaced atomically, so a reader always sees a
+ * whole dump.
+ */
+public final class GameMonitor implements Runnable {
+
+    private final Deck[] decks;
+    private final List<Hand> hands;
+    private final Path file;
+    private final long intervalMillis;
+    private final ValueRemap remap; // null: snapshots hold the original card values
+    private final long startNanos = System.nanoTime();
+    private volatile boolean running = true;
+    private Thread thread;
+
+    /**
+     * @param decks          the decks of the game (deck i has id i + 1)
+     * @param hands          the hands of the game (hand i belongs to player i + 1)
+     * @param file           the dashboard file to keep rewriting
+     * @param intervalMillis time between dumps, must be > 0
+     */
+    public GameMonitor(Deck[] decks, List<Hand> hands, Path file, long intervalMillis) {
+        this(decks, hands, file, intervalMillis, null);
+    }
+
+    /**
+     * Creates a monitor for a game playing on dense ids; the dashboard shows
+     * the original values.
+     *
+     * @param remap the game's remap, or null if it plays on the original values
+     */
+    public GameMonitor(Deck[] decks, List<Hand> hands, Path file, long intervalMillis, ValueRemap remap) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Dashboard interval must be positive.");
+        }
+        this.decks = decks;
+        this.hands = hands;
+        for (Deck d : decks) d.watch();
+        for (Hand h : hands) h.watch();
+        this.file = file;
+        this.intervalMillis = intervalMillis;
+        this.remap = remap;
+    }
+
+    /** Starts dumping on a daemon thread. */
+    public void start() {
+        thread = new Thread(this, "game-monitor");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Stops the dump thread and writes one last dump of the final state. */
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        dump();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            dump();
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Renders the current state of all decks and hands, one per line, e.g.
+     * "deck1 [v12]: 1 3 3 7" and "player1 hand [v7]: 1 1 2 4".
+     */
+    public String render() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("dashboard at ").append((System.nanoTime() - startNanos) / 1_000_000).append(" ms")
+                .append(System.lineSeparator());
+        for (Deck d : decks) {
+            CardsSnapshot s = original(d.snapshot());
+            sb.append("deck").append(d.getId()).append(" [v").append(s.getVersion()).append("]: ")
+                    .append(s).append(System.lineSeparator());
+        }
+        for (int i = 0; i < hands.size(); i++) {
+            CardsSnapshot s = original(hands.get(i).snapshot());
+            sb.append("player").append(i + 1).append(" hand [v").append(s.getVersion()).append("]: ")
+                    .append(s).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    private CardsSnapshot original(CardsSnapshot s) {
+        return remap == null ? s : remap.toValues(s);
+    }
+
+    private void dump() {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.writeString(tmp, render(), StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
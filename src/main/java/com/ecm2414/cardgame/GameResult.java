@@ -0,0 +1,110 @@
+package com.ecm2414.cardgame;
+
+import java.util.List;
+
+/**
+ * Outcome of one game, returned by GameController.startGame.
+ */
+public final class GameResult {
+
+    /** How a game ended. */
+    public enum Outcome {
+        /** A player won. */
+        WON,
+        /** GameHandle.cancel was called, or the thread running startGame was interrupted. */
+        CANCELLED,
+        /** The players took as many turns as GameConfig.setTurnBudget allows. */
+        TURN_BUDGET_EXHAUSTED,
+        /** The game ran for as long as GameConfig.setTimeBudget allows. */
+        TIME_BUDGET_EXHAUSTED
+    }
+
+    private final int winnerId;
+    private final long totalTurns;
+    private final long elapsedNanos;
+    private final TurnLatencies latencies;
+    private final List<String> conservationViolations;
+    private final Outcome outcome;
+    private final FinalState finalState;
+    private final boolean cached;
+
+    GameResult(int winnerId, long totalTurns, long elapsedNanos) {
+        this(winnerId, totalTurns, elapsedNanos, null);
+    }
+
+    GameResult(int winnerId, long totalTurns, long elapsedNanos, TurnLatencies latencies) {
+        this(winnerId, totalTurns, elapsedNanos, latencies, List.of());
+    }
+
+    GameResult(int winnerId, long totalTurns, long elapsedNanos, TurnLatencies latencies,
+               List<String> conservationViolations) {
+        this(winnerId, totalTurns, elapsedNanos, latencies, conservationViolations,
+                winnerId != -1 ? Outcome.WON : Outcome.CANCELLED);
+    }
+
+    GameResult(int winnerId, long totalTurns, long elapsedNanos, TurnLatencies latencies,
+               List<String> conservationViolations, Outcome outcome) {
+        this(winnerId, totalTurns, elapsedNanos, latencies, conservationViolations, outcome, null, false);
+    }
+
+    GameResult(int winnerId, long totalTurns, long elapsedNanos, TurnLatencies latencies,
+               List<String> conservationViolations, Outcome outcome, FinalState finalState, boolean cached) {
+        this.finalState = finalState;
+        this.cached = cached;
+        this.winnerId = winnerId;
+        this.outcome = outcome;
+        this.totalTurns = totalTurns;
+        this.elapsedNanos = elapsedNanos;
+        this.latencies = latencies;
+        this.conservationViolations = conservationViolations;
+    }
+
+    /** Returns the 1-based id of the winning player, or -1 if the game ended without one. */
+    public int getWinnerId() {
+        return winnerId;
+    }
+
+    /** Returns how the game ended; WON whenever a player won, even if the game was also stopped. */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /** Returns the number of draw/discard turns taken by all players together. */
+    public long getTotalTurns() {
+        return totalTurns;
+    }
+
+    /** Returns the wall time of the game from setup to the last deck file. */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /** Returns the merged turn latencies of all players, or null if they were not measured. */
+    public TurnLatencies getLatencies() {
+        return latencies;
+    }
+
+    /**
+     * Returns the card conservation violations found while the game ran, at
+     * most ConservationChecker.MAX_LISTED_VIOLATIONS; empty if there were none
+     * or cards were not checked.
+     */
+    public List<String> getConservationViolations() {
+        return conservationViolations;
+    }
+
+    /** Returns the final hands and decks of a deterministic game, or null for other games. */
+    public FinalState getFinalState() {
+        return finalState;
+    }
+
+    /** Returns whether the outcome came from GameConfig's OutcomeCache instead of a played game. */
+    public boolean isCached() {
+        return cached;
+    }
+
+    @Override
+    public String toString() {
+        return "GameResult(" + outcome + ", winner " + winnerId + ", turns " + totalTurns + ", " + elapsedNanos / 1_000_000 + " ms)";
+    }
+}
@@ -0,0 +1,446 @@
+package com.ecm2414.cardgame;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.InetAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A long-running game service on the loopback interface, so many games share
+ * one warmed-up JVM instead of starting one each.
+ * <p>
+ * Endpoints:
+ * <ul>
+ *   <li>{@code POST /games?players=n[&pack=path][&handSize=k][&events=true][&option=value...]}
+ *       plays a game. Without {@code pack} the request body is the pack, one
+ *       value per line; {@code pack=generated:SEED} makes one with
+ *       PackGenerator, and any other {@code pack} is a file under the pack
+ *       root. The options are those of CardGameLauncher without the dashes
+ *       ({@code verbosity=SUMMARY}, {@code turn-budget=1000}, {@code dense}, ...);
+ *       output goes to {@code out}, a directory under the output root, by
+ *       default one per game. The response is streamed as lines: {@code accepted},
+ *       {@code started}, with events=true one {@code event} line per game
+ *       event, then {@code result} or {@code error}; a {@code heartbeat} line
+ *       is sent every second nothing else is. Closing the connection cancels
+ *       the game, noticed at the next line written.</li>
+ *   <li>{@code GET /stats} returns queue depth, running and finished games,
+ *       throughput and pool sizes in the Prometheus text format.</li>
+ * </ul>
+ * A fixed number of games run at once; the others wait in a bounded queue,
+ * and a submission that finds it full gets 503. Games run on a WarmPool:
+ * player threads, decks and hands are reused from earlier games.
+ * <p>
+ * Any local page can POST to the loopback interface, so requests never name
+ * files outside the two roots, a game has at most setMaxPlayers players and
+ * 8 cards per player, no more compact, gzip or log-writer threads than there
+ * are CPUs, and a time budget of at most setMaxTimeBudget, which is also the
+ * budget of a game that names none. The error for a pack file does not
+ * quote it.
+ */
+public final class GameServer implements AutoCloseable {
+
+    /** Events buffered for a slow client; further ones are dropped and counted. */
+    private static final int MAX_BUFFERED_EVENTS = 4096;
+    /** Throughput is averaged over this many seconds. */
+    private static final int THROUGHPUT_WINDOW = 10;
+    /** Players a game may have unless setMaxPlayers says otherwise. */
+    public static final int DEFAULT_MAX_PLAYERS = 1000;
+    /** Longest a game may run unless setMaxTimeBudget says otherwise. */
+    public static final long DEFAULT_MAX_TIME_BUDGET_MILLIS = 60_000;
+    /** Time without a line after which a heartbeat is sent. */
+    static final long HEARTBEAT_MILLIS = 1000;
+    private static final String END = "";
+
+    private final HttpServer http;
+    private final ThreadPoolExecutor games;
+    private final ExecutorService exchanges;
+    private final WarmPool warm;
+    private final Path outputRoot;
+    private final Path packRoot; // null = no pack files
+    private volatile int maxPlayers = DEFAULT_MAX_PLAYERS;
+    private volatile long maxTimeBudgetMillis = DEFAULT_MAX_TIME_BUDGET_MILLIS;
+    private final AtomicLong nextId = new AtomicLong();
+    private final AtomicInteger running = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final long[] finishedPerSecond = new long[THROUGHPUT_WINDOW + 1]; // guarded by itself
+    private long currentSecond = 0;                                            // guarded by finishedPerSecond
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Starts a server that only plays inline and generated packs.
+     *
+     * @see #GameServer(int, int, int, Path, Path)
+     */
+    public GameServer(int port, int maxGames, int queueCapacity, Path outputRoot) throws IOException {
+        this(port, maxGames, queueCapacity, outputRoot, null);
+    }
+
+    /**
+     * Starts the server.
+     *
+     * @param port          loopback port; 0 for any free one (see getPort)
+     * @param maxGames      games played at once
+     * @param queueCapacity games waiting for one of them to finish
+     * @param outputRoot    directory under which every game writes its files
+     * @param packRoot      directory the pack files of requests are read from; null to refuse them
+     */
+    public GameServer(int port, int maxGames, int queueCapacity, Path outputRoot, Path packRoot) throws IOException {
+        if (maxGames <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("maxGames and queueCapacity must be positive.");
+        }
+        this.outputRoot = outputRoot.toAbsolutePath().normalize();
+        this.packRoot = packRoot != null ? packRoot.toAbsolutePath().normalize() : null;
+        Files.createDirectories(outputRoot);
+        this.warm = new WarmPool(2 * maxGames, TimeUnit.MINUTES.toMillis(5));
+        AtomicInteger count = new AtomicInteger();
+        this.games = new ThreadPoolExecutor(maxGames, maxGames, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "game-runner-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.exchanges = Executors.newCachedThreadPool(); // each streaming response waits for its game
+        this.http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        http.setExecutor(exchanges);
+        http.createContext("/games", this::submit);
+        http.createContext("/stats", this::stats);
+        http.start();
+    }
+
+    /**
+     * Sets the most players a submitted game may have; its pack then holds
+     * at most 8 cards per player of that many.
+     *
+     * @param maxPlayers must be > 0
+     */
+    public void setMaxPlayers(int maxPlayers) {
+        if (maxPlayers <= 0) {
+            throw new IllegalArgumentException("Max players must be positive.");
+        }
+        this.maxPlayers = maxPlayers;
+    }
+
+    /**
+     * Sets the longest time budget a submitted game may ask for; a game that
+     * asks for none gets this one.
+     *
+     * @param millis must be > 0
+     */
+    public void setMaxTimeBudget(long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("Max time budget must be positive.");
+        }
+        this.maxTimeBudgetMillis = millis;
+    }
+
+    /** Returns the port the server listens on. */
+    public int getPort() {
+        return http.getAddress().getPort();
+    }
+
+    /** Stops accepting connections and cancels queued and running games. */
+    @Override
+    public void close() {
+        http.stop(0);
+        games.shutdownNow();
+        exchanges.shutdownNow();
+        warm.close();
+    }
+
+    /** One game from submission to result; the exchange thread streams its lines. */
+    private final class Submission implements Runnable {
+        final long id = nextId.incrementAndGet();
+        final GameConfig config;
+        final boolean events;
+        final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        final GameHandle handle = new GameHandle();
+        final LongAdder droppedEvents = new LongAdder();
+        final long submittedNanos = System.nanoTime();
+
+        Submission(GameConfig config, boolean events) {
+            this.config = config;
+            this.events = events;
+        }
+
+        @Override
+        public void run() {
+            long startedNanos = System.nanoTime();
+            running.incrementAndGet();
+            lines.add("started " + id);
+            try {
+                GameController controller = new GameController(warm);
+                if (events) {
+                    controller.addEventListener(e -> {
+                        if (lines.size() < MAX_BUFFERED_EVENTS) {
+                            lines.add("event " + e);
+                        } else {
+                            droppedEvents.increment();
+                        }
+                    }, BackpressurePolicy.DROP);
+                }
+                GameResult r = controller.startGame(config, handle);
+                lines.add("result id=" + id + " outcome=" + r.getOutcome() + " winner=" + r.getWinnerId()
+                        + " turns=" + r.getTotalTurns() + " queued_ms=" + millis(startedNanos - submittedNanos)
+                        + " game_ms=" + millis(r.getElapsedNanos()) + " dropped_events=" + droppedEvents.sum()
+                        + " out=" + config.getOutputDirectory());
+                completed.increment();
+            } catch (RuntimeException e) {
+                lines.add("error " + id + " " + e);
+                failed.increment();
+            } finally {
+                running.decrementAndGet();
+                countFinished();
+                lines.add(END);
+            }
+        }
+    }
+
+    private void submit(HttpExchange ex) throws IOException {
+        try (ex) {
+            if (!ex.getRequestMethod().equals("POST")) {
+                reply(ex, 405, "POST a game to /games\n");
+                return;
+            }
+            Submission s;
+            try {
+                s = parse(ex);
+            } catch (InvalidPackException | IllegalArgumentException e) {
+                reply(ex, 400, "error " + e.getMessage() + "\n");
+                return;
+            } catch (IOException e) {
+                reply(ex, 500, "error cannot set up the game\n"); // the message may name server paths
+                return;
+            }
+            int depth;
+            try {
+                games.execute(s);
+                depth = games.getQueue().size();
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+                reply(ex, 503, "error queue full\n");
+                return;
+            }
+            ex.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            ex.sendResponseHeaders(200, 0); // chunked: lines are sent as the game goes
+            OutputStream out = ex.getResponseBody();
+            try {
+                write(out, "accepted " + s.id + " queued " + depth);
+                while (true) {
+                    // A closed connection is only noticed on a write, so write something every second.
+                    String line = s.lines.poll(HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (line == END) break;
+                    write(out, line != null ? line : "heartbeat");
+                }
+            } catch (IOException e) {
+                s.handle.cancel(); // the client went away
+                games.remove(s);
+            } catch (InterruptedException e) {
+                s.handle.cancel(); // the server is closing
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /** Builds the game of a submission from its query and body. */
+    private Submission parse(HttpExchange ex) throws IOException, InvalidPackException {
+        Map<String, String> query = query(ex.getRequestURI().getRawQuery());
+        String players = query.remove("players");
+        if (players == null) throw new IllegalArgumentException("players is required.");
+        int n = Integer.parseInt(players);
+        String handSize = query.remove("handSize");
+        int k = handSize != null ? Integer.parseInt(handSize) : 4;
+        String packArg = query.remove("pack");
+        String outArg = query.remove("out");
+        PackValidator.validatePlayerCount(n);
+        PackValidator.validateHandSize(k);
+        int max = maxPlayers;
+        if (n > max || (long) k * n > 4L * max) {
+            throw new IllegalArgumentException("A game has at most " + max + " players and " + 8L * max + " cards.");
+        }
+        GameConfig config;
+        if (packArg == null) {
+            config = new GameConfig(n, (pack, n1, k1) -> FilePackSource.fill(
+                    new BufferedReader(new InputStreamReader(ex.getRequestBody(), StandardCharsets.UTF_8)), pack, n1, k1), k);
+        } else if (packArg.startsWith("generated:")) {
+            config = new GameConfig(n, CardGameLauncher.packSource(packArg), k);
+        } else {
+            if (packRoot == null) throw new IllegalArgumentException("This server does not read pack files.");
+            try {
+                config = new GameConfig(n, PackSource.file(inside(packRoot, packArg, "pack")), k);
+            } catch (InvalidPackException e) {
+                throw new InvalidPackException("Invalid pack file " + packArg + "."); // without its lines
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Cannot read pack file " + packArg + ".");
+            }
+        }
+        boolean events = Boolean.parseBoolean(query.remove("events"));
+        for (Map.Entry<String, String> o : query.entrySet()) {
+            String opt = "--" + o.getKey();
+            CardGameLauncher.applyOption(config, opt, CardGameLauncher.takesValue(opt) ? o.getValue() : null);
+        }
+        int cpus = Runtime.getRuntime().availableProcessors();
+        if (config.getCompactWorkers() > cpus || config.getCompressionWorkers() > cpus || config.getLogWriters() > cpus) {
+            throw new IllegalArgumentException("A game has at most " + cpus + " compact, gzip or log-writer threads.");
+        }
+        long maxMillis = maxTimeBudgetMillis;
+        if (config.getTimeBudgetMillis() == 0) {
+            config.setTimeBudget(maxMillis);
+        } else if (config.getTimeBudgetMillis() > maxMillis) {
+            throw new IllegalArgumentException("A game has a time budget of at most " + maxMillis + " ms.");
+        }
+        Submission s = new Submission(config, events);
+        config.setOutputDirectory(outArg != null ? inside(outputRoot, outArg, "out") : outputRoot.resolve("game-" + s.id));
+        Files.createDirectories(config.getOutputDirectory());
+        return s;
+    }
+
+    /**
+     * Resolves a path of a request against one of the roots.
+     *
+     * @throws IllegalArgumentException if the path is absolute or leads out of the root
+     */
+    private static Path inside(Path root, String path, String what) {
+        Path resolved = root.resolve(path).normalize();
+        if (Path.of(path).isAbsolute() || !resolved.startsWith(root) || resolved.equals(root)) {
+            throw new IllegalArgumentException(what + " must be a relative path inside its root.");
+        }
+        return resolved;
+    }
+
+    private void stats(HttpExchange ex) throws IOException {
+        try (ex) {
+            StringBuilder sb = new StringBuilder();
+            gauge(sb, "queue_depth", "Games waiting for a runner.", games.getQueue().size());
+            gauge(sb, "games_running", "Games being played.", running.get());
+            counter(sb, "games_completed_total", "Games played to a result.", completed.sum());
+            counter(sb, "games_failed_total", "Games that ended with an error.", failed.sum());
+            counter(sb, "games_rejected_total", "Submissions refused because the queue was full.", rejected.sum());
+            sb.append("# HELP cardgame_server_throughput_games_per_second Games finished per second over the last ")
+                    .append(THROUGHPUT_WINDOW).append(" seconds.\n")
+                    .append("# TYPE cardgame_server_throughput_games_per_second gauge\n")
+                    .append("cardgame_server_throughput_games_per_second ").append(throughput()).append('\n');
+            gauge(sb, "player_threads", "Pooled player threads.", warm.getThreads());
+            gauge(sb, "player_threads_busy", "Pooled player threads running a game.", warm.getBusyThreads());
+            gauge(sb, "deck_sets_idle", "Deck and hand sets waiting for a game.", warm.getIdleSets());
+            counter(sb, "deck_sets_created_total", "Deck and hand sets allocated.", warm.getCreatedSets());
+            counter(sb, "deck_sets_reused_total", "Games dealt into an earlier game's decks and hands.",
+                    warm.getReusedSets());
+            gauge(sb, "uptime_seconds", "Time since the server started.",
+                    (System.nanoTime() - startNanos) / 1_000_000_000);
+            reply(ex, 200, sb.toString());
+        }
+    }
+
+    private void countFinished() {
+        synchronized (finishedPerSecond) {
+            advance();
+            finishedPerSecond[(int) (currentSecond % finishedPerSecond.length)]++;
+        }
+    }
+
+    /** Returns the games finished per second over the last complete THROUGHPUT_WINDOW seconds. */
+    private double throughput() {
+        synchronized (finishedPerSecond) {
+            advance();
+            long sum = 0;
+            long seconds = Math.min(THROUGHPUT_WINDOW, currentSecond);
+            for (int i = 1; i <= seconds; i++) {
+                sum += finishedPerSecond[(int) ((currentSecond - i) % finishedPerSecond.length)];
+            }
+            return seconds == 0 ? 0 : (double) sum / seconds;
+        }
+    }
+
+    /** Moves the window to the current second, clearing the seconds it skips. Caller holds finishedPerSecond. */
+    private void advance() {
+        long now = (System.nanoTime() - startNanos) / 1_000_000_000;
+        for (long s = currentSecond + 1; s <= now && s <= currentSecond + finishedPerSecond.length; s++) {
+            finishedPerSecond[(int) (s % finishedPerSecond.length)] = 0;
+        }
+        currentSecond = Math.max(currentSecond, now);
+    }
+
+    private static void gauge(StringBuilder sb, String name, String help, long value) {
+        metric(sb, name, help, "gauge", value);
+    }
+
+    private static void counter(StringBuilder sb, String name, String help, long value) {
+        metric(sb, name, help, "counter", value);
+    }
+
+    private static void metric(StringBuilder sb, String name, String help, String type, long value) {
+        String full = "cardgame_server_" + name;
+        sb.append("# HELP ").append(full).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(full).append(' ').append(type).append('\n');
+        sb.append(full).append(' ').append(value).append('\n');
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> params = new LinkedHashMap<>();
+        if (raw == null || raw.isEmpty()) return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(key, value);
+        }
+        return params;
+    }
+
+    private static void reply(HttpExchange ex, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        ex.getResponseBody().write(bytes);
+    }
+
+    private static void write(OutputStream out, String line) throws IOException {
+        out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    /** Formats nanoseconds as milliseconds with one decimal. */
+    private static String millis(long nanos) {
+        long tenths = nanos / 100_000;
+        return tenths / 10 + "." + tenths % 10;
+    }
+
+    /**
+     * Runs the server until the process is stopped.
+     * Usage: GameServer [port [maxGames [queueCapacity [outputRoot [packRoot]]]]]
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8414;
+        int maxGames = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int queue = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        Path root = Path.of(args.length > 3 ? args[3] : "games");
+        Path packs = args.length > 4 ? Path.of(args[4]) : null;
+        GameServer server = new GameServer(port, maxGames, queue, root, packs);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        System.out.println("listening on http://127.0.0.1:" + server.getPort() + "/games");
+    }
+}
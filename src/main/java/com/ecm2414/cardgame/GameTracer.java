@@ -0,0 +1,179 @@
+package com.ecm2414.cardgame;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records a timeline of one game and writes it in the Chrome Trace Event
+ * Format, which chrome://tracing, Perfetto and Speedscope can open.
+ * <p>
+ * Every thread records into its own Buffer, so recording takes no lock and
+ * touches no shared cache line: a span is three longs in a primitive array.
+ * Buffers start small and grow by doubling; growth draws on a budget shared
+ * by the whole game, and spans beyond it are dropped and counted, so a game
+ * with thousands of players cannot run out of memory because of its trace.
+ * The buffers are only read by write, after the recording threads have
+ * finished.
+ */
+final class GameTracer {
+
+    /** Default total number of spans kept per game (24 bytes each). */
+    static final int DEFAULT_MAX_SPANS = 1 << 22;
+
+    private static final int INITIAL_SPANS = 64;
+    private static final int LONGS_PER_SPAN = 3;
+
+    /** What a span measures. */
+    enum Kind {
+        TURN("turn", "turn"),
+        DRAW_WAIT("draw wait", "deck"),
+        LOCK("lock deck", "deck"),
+        LOG_FLUSH("log flush", "player");
+
+        private final String name;
+        private final String argName;
+
+        Kind(String name, String argName) {
+            this.name = name;
+            this.argName = argName;
+        }
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    private final long origin = System.nanoTime();
+    private final AtomicLong budget;              // spans that buffers may still grow into
+    private final List<Buffer> buffers = new ArrayList<>(); // guarded by this
+
+    GameTracer(int maxSpans) {
+        this.budget = new AtomicLong(maxSpans);
+    }
+
+    /**
+     * Creates the buffer of one thread.
+     *
+     * @param tid  the thread id shown in the trace; players use their id
+     * @param name the thread name shown in the trace
+     */
+    Buffer buffer(int tid, String name) {
+        Buffer b = new Buffer(tid, name);
+        synchronized (this) {
+            buffers.add(b);
+        }
+        return b;
+    }
+
+    /** Returns the number of spans dropped because the budget was used up. */
+    long getDropped() {
+        long dropped = 0;
+        synchronized (this) {
+            for (Buffer b : buffers) dropped += b.dropped;
+        }
+        return dropped;
+    }
+
+    /** Spans recorded by one thread. Only that thread may call span. */
+    final class Buffer {
+        private final int tid;
+        private final String name;
+        private long[] spans = new long[0];
+        private int count = 0;
+        private long dropped = 0;
+
+        private Buffer(int tid, String name) {
+            this.tid = tid;
+            this.name = name;
+        }
+
+        /**
+         * Records a span between two System.nanoTime readings.
+         *
+         * @param arg the deck id for DRAW_WAIT and LOCK, the player id for
+         *            LOG_FLUSH and the turn number for TURN
+         */
+        void span(Kind kind, int arg, long startNanos, long endNanos) {
+            int i = count * LONGS_PER_SPAN;
+            if (i == spans.length && !grow()) {
+                dropped++;
+                return;
+            }
+            spans[i] = startNanos - origin;
+            spans[i + 1] = endNanos - startNanos;
+            spans[i + 2] = ((long) kind.ordinal() << 32) | (arg & 0xFFFFFFFFL);
+            count++;
+        }
+
+        private boolean grow() {
+            int more = Math.max(INITIAL_SPANS, count);
+            long left = budget.get();
+            while (true) {
+                if (left <= 0) return false;
+                int take = (int) Math.min(more, left);
+                if (budget.compareAndSet(left, left - take)) {
+                    long[] bigger = new long[(count + take) * LONGS_PER_SPAN];
+                    System.arraycopy(spans, 0, bigger, 0, count * LONGS_PER_SPAN);
+                    spans = bigger;
+                    return true;
+                }
+                left = budget.get();
+            }
+        }
+    }
+
+    /**
+     * Writes the recorded spans as a JSON object trace: thread name metadata
+     * followed by one complete ("X") event per span, times in microseconds.
+     * Within a thread the spans keep their recording order; a turn is
+     * recorded before the spans it contains.
+     */
+    void write(Path file) throws IOException {
+        List<Buffer> all;
+        synchronized (this) {
+            all = new ArrayList<>(buffers);
+        }
+        try (Writer w = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), 1 << 16)) {
+            w.write("{\"displayTimeUnit\":\"ns\",\"traceEvents\":[\n");
+            boolean first = true;
+            for (Buffer b : all) {
+                if (!first) w.write(",\n");
+                first = false;
+                w.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":" + b.tid
+                        + ",\"args\":{\"name\":\"" + b.name + "\"}},\n");
+                w.write("{\"name\":\"thread_sort_index\",\"ph\":\"M\",\"pid\":1,\"tid\":" + b.tid
+                        + ",\"args\":{\"sort_index\":" + b.tid + "}}");
+                StringBuilder sb = new StringBuilder(128);
+                for (int s = 0; s < b.count; s++) {
+                    int i = s * LONGS_PER_SPAN;
+                    Kind kind = KINDS[(int) (b.spans[i + 2] >>> 32)];
+                    int arg = (int) b.spans[i + 2];
+                    sb.setLength(0);
+                    sb.append(",\n{\"name\":\"").append(kind.name);
+                    if (kind == Kind.LOCK) sb.append(' ').append(arg);
+                    sb.append("\",\"ph\":\"X\",\"pid\":1,\"tid\":").append(b.tid).append(",\"ts\":");
+                    micros(sb, b.spans[i]);
+                    sb.append(",\"dur\":");
+                    micros(sb, b.spans[i + 1]);
+                    sb.append(",\"args\":{\"").append(kind.argName).append("\":").append(arg).append("}}");
+                    w.append(sb);
+                }
+            }
+            w.write("\n],\"otherData\":{\"droppedSpans\":\"" + getDropped() + "\"}}\n");
+        }
+    }
+
+    /** Appends nanoseconds as microseconds with three decimals, e.g. 1234 as 1.234. */
+    private static void micros(StringBuilder sb, long nanos) {
+        sb.append(nanos / 1000).append('.');
+        long frac = nanos % 1000;
+        if (frac < 100) sb.append('0');
+        if (frac < 10) sb.append('0');
+        sb.append(frac);
+    }
+}
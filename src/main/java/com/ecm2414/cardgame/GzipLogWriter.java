@@ -0,0 +1,152 @@
+package com.ecm2414.cardgame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes log files gzip-compressed, compressing on its own worker threads.
+ * <p>
+ * Every chunk handed to write becomes one complete gzip member, compressed
+ * on a worker and then appended to "<name>.gz" through a LogFilePool. A file
+ * made of several members is still a valid gzip file: gunzip, zcat and
+ * GZIPInputStream (see LogReader) read it back as the concatenated text.
+ * Chunks of different files are compressed in parallel; the chunks of one
+ * file are appended in the order they were written. At most a few chunks
+ * per worker are in flight, after which write waits, so a slow disk holds
+ * up the log writer rather than filling the heap.
+ */
+public final class GzipLogWriter implements LogSink, AutoCloseable {
+
+    private static final String SUFFIX = ".gz";
+    private static final int IN_FLIGHT_PER_WORKER = 4;
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+    private final LogFilePool files;
+    private final ExecutorService workers;
+    private final Semaphore inFlight;
+    private final Map<Path, CompletableFuture<Void>> tails = new HashMap<>(); // guarded by this; last append per file
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+    private long bytesIn = 0;  // guarded by this
+    private long bytesOut = 0; // guarded by this
+
+    /**
+     * @param files   the pool the compressed files are written through; not closed by this writer
+     * @param workers number of compression threads; must be > 0
+     */
+    public GzipLogWriter(LogFilePool files, int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Number of workers must be positive.");
+        }
+        this.files = files;
+        this.inFlight = new Semaphore(workers * IN_FLIGHT_PER_WORKER);
+        AtomicInteger count = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "log-gzip-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Returns the path the compressed form of a log file is written to. */
+    public static Path compressedPath(Path path) {
+        return path.resolveSibling(path.getFileName() + SUFFIX);
+    }
+
+    /**
+     * Compresses the remaining bytes of buf as one gzip member and appends it
+     * to compressedPath(path). The bytes are copied, so buf may be reused as
+     * soon as this returns. An error shows up in a later write or in close.
+     */
+    @Override
+    public void write(Path path, ByteBuffer buf) throws IOException {
+        IOException failed = failure.get();
+        if (failed != null) throw failed;
+        byte[] chunk = new byte[buf.remaining()];
+        buf.get(chunk);
+        inFlight.acquireUninterruptibly();
+        Path target = compressedPath(path);
+        CompletableFuture<byte[]> compressed = CompletableFuture.supplyAsync(() -> gzip(chunk), workers);
+        synchronized (this) {
+            bytesIn += chunk.length;
+            CompletableFuture<Void> previous = tails.getOrDefault(target, DONE);
+            CompletableFuture<Void> appended = previous.thenCombineAsync(compressed, (ignored, bytes) -> {
+                append(target, bytes);
+                return null;
+            }, workers);
+            appended.whenComplete((ignored, error) -> {
+                inFlight.release();
+                if (error != null) failure.compareAndSet(null, unwrap(error));
+            });
+            tails.put(target, appended);
+        }
+    }
+
+    /** Returns the uncompressed bytes written so far. */
+    public synchronized long getBytesIn() {
+        return bytesIn;
+    }
+
+    /** Returns the compressed bytes appended to files so far. */
+    public synchronized long getBytesOut() {
+        return bytesOut;
+    }
+
+    /** Waits until every chunk is compressed and appended, then stops the workers. */
+    @Override
+    public void close() throws IOException {
+        CompletableFuture<?>[] pending;
+        synchronized (this) {
+            pending = tails.values().toArray(new CompletableFuture<?>[0]);
+        }
+        try {
+            CompletableFuture.allOf(pending).join();
+        } catch (CompletionException e) {
+            failure.compareAndSet(null, unwrap(e)); // reported below
+        } finally {
+            workers.shutdown();
+        }
+        IOException failed = failure.get();
+        if (failed != null) throw failed;
+    }
+
+    private void append(Path target, byte[] bytes) {
+        try {
+            files.write(target, ByteBuffer.wrap(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        synchronized (this) {
+            bytesOut += bytes.length;
+        }
+    }
+
+    private static byte[] gzip(byte[] chunk) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(chunk.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out, 8192)) {
+            gz.write(chunk);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // a ByteArrayOutputStream does not fail
+        }
+        return out.toByteArray();
+    }
+
+    private static IOException unwrap(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof UncheckedIOException) return ((UncheckedIOException) cause).getCause();
+        if (cause instanceof IOException) return (IOException) cause;
+        return new IOException(cause);
+    }
+}
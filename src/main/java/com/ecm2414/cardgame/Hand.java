@@ -5,34 +5,140 @@ import java.util.*;
 /**
  * Represents a player's hand of cards in the card game.
  * <p>
- * A hand normally contains 4 cards, but may temporarily hold 5 during
- * a player's draw-discard turn. All methods are synchronized to ensure
- * thread-safety in a concurrent game environment.
+ * A hand normally contains k cards (4 unless configured), but may
+ * temporarily hold k + 1 during a player's draw-discard turn. All methods
+ * are synchronized to ensure thread-safety in a concurrent game environment.
+ * Card values are kept in an int array rather than Card objects.
+ * <p>
+ * The hand keeps the sum and the sum of squares of its values up to date on
+ * every change. k values are all equal exactly when k * sumSq == sum * sum,
+ * so hasWinningHand needs O(1) work per turn; the identity still holds when
+ * the sums wrap around, so only a match, i.e. almost always a real win, is
+ * confirmed by looking at the cards.
  */
 public class Hand {
-    private final List<Card> cards = new ArrayList<>(4);
+    private static final int DEFAULT_HAND_SIZE = 4;
+
+    private final int handSize;  // k
+    private int[] values;        // guarded by this; values[0..size) in hand order
+    private int size = 0;        // guarded by this
+    private long sum = 0;        // guarded by this; sum of values, wrapping
+    private long sumSq = 0;      // guarded by this; sum of squared values, wrapping
+    private long fingerprint = 0; // guarded by this; see ConservationChecker.fingerprint
+    private long version = 0;                                   // guarded by this; counts changes
+    private volatile CardsSnapshot snapshot = CardsSnapshot.EMPTY; // latest copy; see snapshot()
+    private volatile boolean watched = false; // republish the snapshot on every change
 
     /**
-     * Creates a new Hand with the given initial cards.
+     * Creates a new Hand of the usual four cards with the given initial cards.
      *
      * @param initialCards the cards to initialize the hand with
      */
     public Hand(List<Card> initialCards) {
-        cards.addAll(initialCards);
+        this(initialCards, DEFAULT_HAND_SIZE);
+    }
+
+    /**
+     * Creates a new Hand for k-card hands with the given initial cards.
+     *
+     * @param initialCards the cards to initialize the hand with
+     * @param handSize     k, the number of cards of a full hand (must be > 0)
+     */
+    public Hand(List<Card> initialCards, int handSize) {
+        if (handSize <= 0) {
+            throw new IllegalArgumentException("Hand size must be positive.");
+        }
+        this.handSize = handSize;
+        values = new int[Math.max(handSize + 1, initialCards.size())];
+        for (Card c : initialCards) {
+            values[size++] = c.getValue();
+            count(c.getValue());
+        }
+        changed();
+    }
+
+    /**
+     * Creates a hand that takes ownership of the given array, whose first
+     * count slots are the initial values. The array is used as is, without
+     * copying or locking; it must have at least k + 1 slots and the caller
+     * must not touch it afterwards.
+     */
+    Hand(int[] values, int count, int handSize) {
+        if (handSize <= 0 || values.length < handSize + 1 || count > values.length) {
+            throw new IllegalArgumentException("Hand needs a backing array of " + (handSize + 1) + " slots");
+        }
+        this.handSize = handSize;
+        this.values = values;
+        this.size = count;
+        for (int i = 0; i < count; i++) {
+            count(values[i]);
+        }
+        changed();
+    }
+
+    /**
+     * Refills the hand of a finished game for a new one, keeping its array:
+     * k values pack[first], pack[first + stride], ... Used by WarmPool; no
+     * other thread may use the hand meanwhile.
+     */
+    synchronized void reset(int[] pack, int first, int stride) {
+        size = 0;
+        sum = 0;
+        sumSq = 0;
+        fingerprint = 0;
+        for (int i = 0; i < handSize; i++) {
+            values[size++] = pack[first + i * stride];
+            count(values[i]);
+        }
+        watched = false;
+        changed();
+    }
+
+    /** Returns k, the number of cards of a full hand. */
+    public int getHandSize() {
+        return handSize;
     }
 
     /**
-     * Adds a card to the hand. Can hold up to 5 cards temporarily during a turn.
+     * Returns a view of the hand's current cards. A watched hand republishes it
+     * on every change, so this never waits for the hand's lock; otherwise it is
+     * copied under the lock when asked for, at most once per change.
+     *
+     * @return the current snapshot
+     */
+    public CardsSnapshot snapshot() {
+        if (watched) return snapshot;
+        synchronized (this) {
+            if (snapshot.getVersion() != version) snapshot = copy();
+            return snapshot;
+        }
+    }
+
+    /**
+     * Makes every later change republish the snapshot, so that snapshot()
+     * never takes the lock. Used by GameMonitor; the next reset stops it.
+     */
+    synchronized void watch() {
+        snapshot = copy();
+        watched = true;
+    }
+
+    /**
+     * Adds a card to the hand. Can hold up to k + 1 cards temporarily during a turn.
      *
      * @param card the card to add
-     * @throws IllegalStateException if the hand already has 5 cards
+     * @throws IllegalStateException if the hand already has k + 1 cards
      */
     public synchronized void addCard(Card card) {
-        int length = cards.size();
-        if (length >= 5) {
-            throw new IllegalStateException("Hand already has 4 cards");
+        if (size >= handSize + 1) {
+            throw new IllegalStateException("Hand already has " + size + " cards");
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + 1); // only after a larger initial hand shrank
         }
-        cards.add(card);
+        values[size++] = card.getValue();
+        count(card.getValue());
+        changed();
     }
 
     /**
@@ -43,17 +149,20 @@ public class Hand {
      * @throws IllegalStateException if the hand is empty or index is out of range
      */
     public synchronized Card removeCard(int index) {
-        if (cards.isEmpty()) {
+        if (size == 0) {
             throw new IllegalStateException("Hand is empty");
         }
 
-        if (index < 0 || index >= cards.size()) {
+        if (index < 0 || index >= size) {
             throw new IllegalStateException("Index is out of range");
         }
 
-        Card removedCard = cards.get(index);
-        cards.remove(index);
-        return removedCard;
+        int removed = values[index];
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        uncount(removed);
+        changed();
+        return new Card(removed);
     }
 
     /**
@@ -66,32 +175,63 @@ public class Hand {
      * @throws IllegalStateException if the hand is empty
      */
     public synchronized Card chooseDiscard(int preferredValue) {
-        if (cards.isEmpty()) {
+        return chooseDiscard(StandardDiscard.FIRST_NON_PREFERRED, preferredValue, -1);
+    }
+
+    /**
+     * Chooses a card to discard with the given strategy.
+     *
+     * @param strategy       the discard strategy
+     * @param preferredValue the preferred denomination for the player
+     * @param neighbourValue the preferred denomination of the right neighbour
+     * @return the card chosen to discard
+     * @throws IllegalStateException if the hand is empty or the strategy picks no card
+     */
+    public synchronized Card chooseDiscard(DiscardStrategy strategy, int preferredValue, int neighbourValue) {
+        if (size == 0) {
             throw new IllegalStateException("Hand is empty, cannot choose a discard");
         }
+        int i = strategy.chooseDiscard(values, size, preferredValue, neighbourValue);
+        if (i < 0 || i >= size) {
+            throw new IllegalStateException("Discard strategy chose card " + i + " of " + size);
+        }
+        return new Card(values[i]);
+    }
 
-        for (int i = 0; i < cards.size(); i++) {
-            Card card = cards.get(i);
-            if (card.getValue() != preferredValue) {
-                return card;
-            }
+    /**
+     * Chooses a card to discard with the given strategy and removes it, in
+     * one step, so the card removed is the one chosen.
+     *
+     * @param strategy       the discard strategy
+     * @param preferredValue the preferred denomination for the player
+     * @param neighbourValue the preferred denomination of the right neighbour
+     * @return the value of the removed card
+     * @throws IllegalStateException if the hand is empty or the strategy picks no card
+     */
+    public synchronized int discard(DiscardStrategy strategy, int preferredValue, int neighbourValue) {
+        if (size == 0) {
+            throw new IllegalStateException("Hand is empty, cannot choose a discard");
         }
-        return cards.get(0);
+        int i = strategy.chooseDiscard(values, size, preferredValue, neighbourValue);
+        if (i < 0 || i >= size) {
+            throw new IllegalStateException("Discard strategy chose card " + i + " of " + size);
+        }
+        return removeCard(i).getValue();
     }
 
     /**
-     * Checks if this hand contains four cards of the same value.
+     * Checks if this hand holds exactly k cards of the same value.
      *
-     * @return true if all four cards are equal in value, false otherwise
+     * @return true if all k cards are equal in value, false otherwise
      */
     public synchronized boolean hasWinningHand() {
-        if (cards.size() != 4) {
+        if (size != handSize || handSize * sumSq != sum * sum) {
             return false;
         }
-        int target = cards.get(0).getValue();
+        int target = values[0];
 
-        for (int i = 1; i < 4; i++) {
-            if (cards.get(i).getValue() != target) {
+        for (int i = 1; i < size; i++) { // the sums matched: almost surely a win, confirm it
+            if (values[i] != target) {
                 return false;
             }
         }
@@ -105,7 +245,11 @@ public class Hand {
      * @return a list containing the current cards
      */
     public synchronized List<Card> getCards() {
-        return new ArrayList<>(cards);
+        List<Card> cards = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            cards.add(new Card(values[i]));
+        }
+        return cards;
     }
 
     /**
@@ -114,7 +258,7 @@ public class Hand {
      * @return current hand size
      */
     public synchronized int size() {
-        return cards.size();
+        return size;
     }
 
     /**
@@ -124,14 +268,21 @@ public class Hand {
      * @return true if the card is in the hand, false otherwise
      */
     public synchronized boolean contains(Card card) {
-        return cards.contains(card);
+        for (int i = 0; i < size; i++) {
+            if (values[i] == card.getValue()) return true;
+        }
+        return false;
     }
 
     /**
      * Clears all cards from the hand.
      */
     public synchronized void clear() {
-        cards.clear();
+        size = 0;
+        sum = 0;
+        sumSq = 0;
+        fingerprint = 0;
+        changed();
     }
 
     /**
@@ -143,9 +294,9 @@ public class Hand {
     @Override
     public synchronized String toString() {
         StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < cards.size(); i++) {
-            sb.append(cards.get(i).getValue());
-            if (i < cards.size() - 1) {
+        for (int i = 0; i < size; i++) {
+            sb.append(values[i]);
+            if (i < size - 1) {
                 sb.append(" ");
             }
         }
@@ -158,11 +309,11 @@ public class Hand {
      * @return list of integer values
      */
     public synchronized List<Integer> getCardValues() {
-        List<Integer> values = new ArrayList<>(cards.size());
-        for (Card c : cards) {
-            values.add(c.getValue());
+        List<Integer> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(values[i]);
         }
-        return values;
+        return list;
     }
 
     /**
@@ -171,16 +322,62 @@ public class Hand {
      * @param newCards the new set of cards
      */
     public synchronized void setCards(List<Card> newCards) {
-        cards.clear();
-        cards.addAll(newCards);
+        if (newCards.size() > values.length) {
+            values = new int[newCards.size()];
+        }
+        size = 0;
+        sum = 0;
+        sumSq = 0;
+        fingerprint = 0;
+        for (Card c : newCards) {
+            values[size++] = c.getValue();
+            count(c.getValue());
+        }
+        changed();
     }
 
     /**
-     * Checks if the hand currently holds exactly 4 cards.
+     * Checks if the hand currently holds exactly k cards.
      *
      * @return true if valid, false otherwise
      */
     public synchronized boolean isValidHand() {
-        return cards.size() == 4;
+        return size == handSize;
+    }
+
+    /**
+     * Returns the fingerprint of the cards, read without the lock: the caller
+     * is the only thread changing the hand or validates the read as
+     * ConservationChecker does.
+     */
+    long fingerprintUnlocked() {
+        return fingerprint;
+    }
+
+    /** Returns the number of cards, read without the lock; see fingerprintUnlocked. */
+    int sizeUnlocked() {
+        return size;
+    }
+
+    private void count(int value) {
+        sum += value;
+        sumSq += (long) value * value;
+        fingerprint += ConservationChecker.fingerprint(value);
+    }
+
+    private void uncount(int value) {
+        sum -= value;
+        sumSq -= (long) value * value;
+        fingerprint -= ConservationChecker.fingerprint(value);
+    }
+
+    /** Counts a change and republishes the snapshot if the hand is watched. Caller must hold this hand's lock. */
+    private void changed() {
+        version++;
+        if (watched) snapshot = copy();
+    }
+
+    private CardsSnapshot copy() {
+        return new CardsSnapshot(version, Arrays.copyOf(values, size));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,93 @@
+package com.ecm2414.cardgame;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events emitted by the game.
+ * <p>
+ * All are disabled by default, so a recording only contains them when asked
+ * for: enable them by name in a .jfc settings file passed to
+ * -XX:StartFlightRecording, or with Recording.enable("com.ecm2414.cardgame.Turn").
+ * While disabled, begin, end and shouldCommit are no-ops that the JIT removes
+ * together with the event object; fields are only set after shouldCommit.
+ * <p>
+ * Events are only created once active() is true. Loading the first event
+ * class initialises the JFR machinery, hundreds of classes and most of the
+ * startup time of a short game, which is wasted when nothing records.
+ */
+final class JfrEvents {
+
+    private JfrEvents() {} // holder for the event classes
+
+    /**
+     * Returns whether Flight Recorder has been initialised, by
+     * -XX:StartFlightRecording, jcmd JFR.start or a Recording; until then no
+     * recording can be running and callers skip their events.
+     */
+    static boolean active() {
+        return FlightRecorder.isInitialized();
+    }
+
+    @Name("com.ecm2414.cardgame.Turn")
+    @Label("Player Turn")
+    @Description("One draw and discard by a player, from waiting for a card to publishing the turn's events")
+    @Category("Card Game")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class Turn extends Event {
+        @Label("Player") int playerId;
+        @Label("Turn") int turn;
+        @Label("Drawn") int drawn;
+        @Label("Discarded") int discarded;
+    }
+
+    @Name("com.ecm2414.cardgame.DeckWait")
+    @Label("Deck Wait")
+    @Description("Time a player waited on an empty deck")
+    @Category("Card Game")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class DeckWait extends Event {
+        @Label("Deck") int deckId;
+        @Label("Got Card") boolean gotCard;
+    }
+
+    @Name("com.ecm2414.cardgame.LogFlush")
+    @Label("Player Log Flush")
+    @Description("Writing buffered player log lines to their file")
+    @Category("Card Game")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class LogFlush extends Event {
+        @Label("Player") int playerId;
+        @Label("Bytes") int bytes;
+        @Label("Pooled") boolean pooled;
+    }
+
+    @Name("com.ecm2414.cardgame.Win")
+    @Label("Player Wins")
+    @Category("Card Game")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class Win extends Event {
+        @Label("Player") int playerId;
+        @Label("Turn") int turn;
+    }
+
+    @Name("com.ecm2414.cardgame.Exit")
+    @Label("Player Exits")
+    @Category("Card Game")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class Exit extends Event {
+        @Label("Player") int playerId;
+        @Label("Turns Taken") int turns;
+    }
+}
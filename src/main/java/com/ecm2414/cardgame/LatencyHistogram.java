@@ -0,0 +1,103 @@
+package com.ecm2414.cardgame;
+
+/**
+ * Fixed-size histogram of durations in nanoseconds with log-spaced buckets.
+ * <p>
+ * Values below 8 ns get a bucket each; above that every power of two is
+ * split into 8 equal buckets, so a bucket is at most 12.5% wide. Values of
+ * 2^36 ns (about 69 s) and more share the last bucket. The counts take
+ * about 1 KB whatever is recorded. Not thread-safe: each player records into
+ * its own histogram and they are merged once the players have finished.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 35; // values >= 2^36 are clamped
+    static final int BUCKETS = SUB_BUCKETS + (MAX_EXPONENT - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final int[] counts = new int[BUCKETS];
+    private long count;
+    private long sum;
+    private long max;
+
+    /** Records one duration; negative values count as 0. */
+    public void record(long nanos) {
+        long v = Math.max(0, nanos);
+        counts[bucket(v)]++;
+        count++;
+        sum += v;
+        if (v > max) max = v;
+    }
+
+    /** Adds all values recorded by another histogram to this one. */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    /** Returns the number of recorded values. */
+    public long getCount() {
+        return count;
+    }
+
+    /** Returns the sum of the recorded values in nanoseconds. */
+    public long getSum() {
+        return sum;
+    }
+
+    /** Returns the largest recorded value in nanoseconds, or 0 if none. */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns an upper bound for the given quantile: the top of the bucket
+     * holding the value of that rank, never above the largest value seen.
+     *
+     * @param q quantile between 0 and 1, e.g. 0.99
+     * @return the value in nanoseconds, or 0 if nothing was recorded
+     */
+    public long percentile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1.");
+        }
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    /** Returns the number of values in bucket i. */
+    int countAt(int i) {
+        return counts[i];
+    }
+
+    /** Returns the largest value that falls into bucket i. */
+    static long upperBound(int i) {
+        if (i < SUB_BUCKETS) return i;
+        int exponent = (i - SUB_BUCKETS) / SUB_BUCKETS + SUB_BITS;
+        long sub = (i - SUB_BUCKETS) % SUB_BUCKETS;
+        if (exponent == MAX_EXPONENT && sub == SUB_BUCKETS - 1) return Long.MAX_VALUE;
+        long width = 1L << (exponent - SUB_BITS);
+        return (1L << exponent) + (sub + 1) * width - 1;
+    }
+
+    static int bucket(long v) {
+        if (v < SUB_BUCKETS) return (int) v;
+        int exponent = 63 - Long.numberOfLeadingZeros(v);
+        if (exponent > MAX_EXPONENT) return BUCKETS - 1;
+        int sub = (int) (v >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BITS) * SUB_BUCKETS + sub;
+    }
+}
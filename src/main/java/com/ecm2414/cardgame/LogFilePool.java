@@ -0,0 +1,104 @@
+package com.ecm2414.cardgame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shares a bounded number of open output files between many writers.
+ * <p>
+ * Channels are kept in least-recently-used order; opening one more than
+ * maxOpen closes the eldest. The first open of a path truncates it, later
+ * opens append, so a file evicted and reopened ends up with exactly the bytes
+ * written to it in order. The number of open descriptors therefore stays at
+ * maxOpen no matter how many player and deck files a game writes.
+ */
+public final class LogFilePool implements LogSink, AutoCloseable {
+
+    /** Open files kept by default; well below a typical ulimit -n of 1024. */
+    public static final int DEFAULT_MAX_OPEN = 64;
+
+    private final int maxOpen;
+    private final Map<Path, FileChannel> open;
+    private final Set<Path> created = new HashSet<>(); // paths already truncated by this pool
+    private long opens = 0;
+
+    /**
+     * @param maxOpen most files open at once; must be > 0
+     */
+    public LogFilePool(int maxOpen) {
+        if (maxOpen <= 0) {
+            throw new IllegalArgumentException("maxOpen must be positive.");
+        }
+        this.maxOpen = maxOpen;
+        this.open = new LinkedHashMap<>(16, 0.75f, true); // access order = LRU
+    }
+
+    /**
+     * Appends the remaining bytes of buf to the file, creating or truncating
+     * it if this pool has not written to it before. An empty buffer still
+     * creates the file.
+     */
+    @Override
+    public synchronized void write(Path path, ByteBuffer buf) throws IOException {
+        FileChannel ch = open.get(path);
+        if (ch == null) {
+            ch = openChannel(path);
+        }
+        while (buf.hasRemaining()) {
+            ch.write(buf);
+        }
+    }
+
+    /** Returns the number of files currently open. */
+    public synchronized int openCount() {
+        return open.size();
+    }
+
+    /** Returns how many times a file was opened, including reopens after eviction. */
+    public synchronized long getOpens() {
+        return opens;
+    }
+
+    /** Closes every open file. The pool may still be written to afterwards. */
+    @Override
+    public synchronized void close() throws IOException {
+        IOException first = null;
+        for (Iterator<FileChannel> it = open.values().iterator(); it.hasNext(); ) {
+            try {
+                it.next().close();
+            } catch (IOException e) {
+                if (first == null) first = e;
+            }
+            it.remove();
+        }
+        if (first != null) throw first;
+    }
+
+    private FileChannel openChannel(Path path) throws IOException {
+        if (open.size() >= maxOpen) {
+            Iterator<FileChannel> eldest = open.values().iterator();
+            FileChannel victim = eldest.next();
+            eldest.remove();
+            victim.close();
+        }
+        FileChannel ch;
+        if (!created.contains(path)) {
+            ch = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            created.add(path);
+        } else {
+            ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        opens++;
+        open.put(path, ch);
+        return ch;
+    }
+}
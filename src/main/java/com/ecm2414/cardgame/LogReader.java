@@ -0,0 +1,77 @@
+package com.ecm2414.cardgame;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads game output files back as their plain text, whether they were
+ * written compressed (see GzipLogWriter) or not.
+ * <p>
+ * Files are streamed, so a log of any size needs only a small buffer.
+ * Run as a program it prints each named file to standard output, e.g.
+ * {@code java com.ecm2414.cardgame.LogReader player1_output.txt.gz}.
+ */
+public final class LogReader {
+
+    private LogReader() {} // utility class, no instances
+
+    /**
+     * Opens a log file for reading. A file whose name ends in ".gz" is
+     * decompressed, including files made of several gzip members.
+     */
+    public static InputStream open(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        if (!file.getFileName().toString().endsWith(".gz")) {
+            return in;
+        }
+        try {
+            return new GZIPInputStream(in, 1 << 16);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the lines of a log file, read lazily. Close the stream when
+     * done, e.g. in a try-with-resources.
+     */
+    public static Stream<String> lines(Path file) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(open(file), StandardCharsets.UTF_8));
+        return reader.lines().onClose(() -> {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /** Copies the plain text of a log file to out and returns the number of bytes copied. */
+    public static long copy(Path file, OutputStream out) throws IOException {
+        try (InputStream in = open(file)) {
+            return in.transferTo(out);
+        }
+    }
+
+    /** Prints the plain text of every file named on the command line. */
+    public static void main(String[] args) {
+        for (String name : args) {
+            try {
+                copy(Path.of(name), System.out);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        System.out.flush();
+    }
+}
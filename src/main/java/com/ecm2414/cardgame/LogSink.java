@@ -0,0 +1,14 @@
+package com.ecm2414.cardgame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * Somewhere buffered loggers hand their collected bytes to, a chunk at a time.
+ */
+interface LogSink {
+
+    /** Appends the remaining bytes of buf to the file at path; an empty buffer still creates the file. */
+    void write(Path path, ByteBuffer buf) throws IOException;
+}
@@ -0,0 +1,270 @@
+package com.ecm2414.cardgame;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the outcome of deterministic games (GameConfig.setDeterministic),
+ * so a pack that was played before is not played again.
+ * <p>
+ * A deterministic game is a function of its pack, player count, schedule
+ * seed and turn budget; the key is a 128-bit hash of those, computed in one
+ * pass over the pack. Entries are kept in two tiers:
+ * <ul>
+ *   <li>memory: an LRU map bounded by the approximate bytes of its entries,
+ *       which are dropped least recently used first;</li>
+ *   <li>disk (optional): one file per key in a directory, written to a
+ *       temporary file and moved into place, so a crashed run never leaves a
+ *       half-written entry. Disk hits are promoted to memory. Files that
+ *       cannot be read are ignored and replaced on the next put.</li>
+ * </ul>
+ * Only games that ended with a winner or an exhausted turn budget are stored;
+ * a cancelled or timed-out game depends on when it was stopped. The cache is
+ * safe to share between games running at the same time.
+ */
+public final class OutcomeCache {
+
+    /** Changes whenever the rules or schedule change the outcome of a key, or the file format changes. */
+    private static final int VERSION = 1;
+    private static final int MAGIC = 0x4F430000 | VERSION; // "OC" + version
+    private static final String SUFFIX = ".outcome";
+    /** Bytes of a file before its cards: magic, key, outcome, winner, turns, immediate win, n and k. */
+    private static final int HEADER_BYTES = 4 + 16 + 1 + 4 + 8 + 1 + 4 + 4;
+    /** Bytes counted per entry on top of its cards: key, map node, arrays and FinalState. */
+    private static final long ENTRY_OVERHEAD = 128;
+
+    private final long maxMemoryBytes;
+    private final Path directory;
+    private final Map<Key, FinalState> memory = new LinkedHashMap<>(16, 0.75f, true); // access order = LRU
+    private long memoryBytes = 0;
+    private long memoryHits = 0;
+    private long diskHits = 0;
+    private long misses = 0;
+
+    /**
+     * @param maxMemoryBytes approximate bytes the memory tier may hold; 0 to keep nothing in memory
+     * @param directory      directory of the disk tier, created if missing; null for memory only
+     */
+    public OutcomeCache(long maxMemoryBytes, Path directory) throws IOException {
+        if (maxMemoryBytes < 0) {
+            throw new IllegalArgumentException("maxMemoryBytes must not be negative.");
+        }
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.directory = directory;
+        if (directory != null) Files.createDirectories(directory);
+    }
+
+    /** A 128-bit fingerprint of a deterministic game. */
+    static final class Key {
+        final long hi;
+        final long lo;
+
+        Key(long hi, long lo) {
+            this.hi = hi;
+            this.lo = lo;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).hi == hi && ((Key) o).lo == lo;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (lo ^ (lo >>> 32));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%016x%016x", hi, lo);
+        }
+    }
+
+    /**
+     * Hashes the original pack values, player count, schedule seed and turn
+     * budget of a deterministic game. Two independent 64-bit lanes are fed
+     * one card at a time, so the pack is read once and never copied.
+     */
+    static Key key(GameConfig config) {
+        long a = 0x243F6A8885A308D3L ^ VERSION;
+        long b = 0x13198A2E03707344L;
+        int size = config.getPackSize();
+        for (int i = 0; i < size; i++) {
+            long v = config.originalValue(config.getPackValue(i)) & 0xFFFFFFFFL;
+            a = Long.rotateLeft(a ^ (v * 0x87C37B91114253D5L), 31) * 0x4CF5AD432745937FL;
+            b = Long.rotateLeft(b + (v * 0x9E3779B97F4A7C15L), 27) * 0xC2B2AE3D27D4EB4FL + a;
+        }
+        long[] tail = {config.getNumPlayers(), size, config.getScheduleSeed(), config.getTurnBudget()};
+        for (long v : tail) {
+            a = Long.rotateLeft(a ^ (v * 0x87C37B91114253D5L), 31) * 0x4CF5AD432745937FL;
+            b = Long.rotateLeft(b + (v * 0x9E3779B97F4A7C15L), 27) * 0xC2B2AE3D27D4EB4FL + a;
+        }
+        return new Key(fmix(a + b), fmix(b ^ Long.rotateLeft(a, 17)));
+    }
+
+    /** Returns the stored outcome of the given game, or null if it was never stored. */
+    FinalState get(Key key) {
+        synchronized (this) {
+            FinalState s = memory.get(key);
+            if (s != null) {
+                memoryHits++;
+                return s;
+            }
+        }
+        FinalState s = directory != null ? read(key) : null;
+        synchronized (this) {
+            if (s == null) {
+                misses++;
+            } else {
+                diskHits++;
+                remember(key, s);
+            }
+        }
+        return s;
+    }
+
+    /** Stores the outcome of a finished game in both tiers. */
+    void put(Key key, FinalState state) {
+        synchronized (this) {
+            remember(key, state);
+        }
+        if (directory != null) write(key, state);
+    }
+
+    /** Returns the number of lookups answered from memory. */
+    public synchronized long getMemoryHits() {
+        return memoryHits;
+    }
+
+    /** Returns the number of lookups answered from disk. */
+    public synchronized long getDiskHits() {
+        return diskHits;
+    }
+
+    /** Returns the number of lookups that found nothing. */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /** Returns the approximate bytes held by the memory tier. */
+    public synchronized long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    /** Adds an entry to the memory tier and drops least recently used ones beyond the bound. */
+    private void remember(Key key, FinalState state) {
+        long bytes = weight(state);
+        if (bytes > maxMemoryBytes) return; // would evict everything else and still not fit
+        FinalState old = memory.put(key, state);
+        if (old != null) memoryBytes -= weight(old);
+        memoryBytes += bytes;
+        Iterator<FinalState> it = memory.values().iterator();
+        while (memoryBytes > maxMemoryBytes) {
+            memoryBytes -= weight(it.next());
+            it.remove();
+        }
+    }
+
+    private static long weight(FinalState s) {
+        return ENTRY_OVERHEAD + 4 * s.cardCount() + 16L * s.getNumPlayers();
+    }
+
+    private Path file(Key key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private FinalState read(Key key) {
+        Path file = file(key);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            long size = Files.size(file);
+            if (in.readInt() != MAGIC || in.readLong() != key.hi || in.readLong() != key.lo) return null;
+            GameResult.Outcome outcome = GameResult.Outcome.values()[in.readByte()];
+            int winner = in.readInt();
+            long turns = in.readLong();
+            boolean immediate = in.readBoolean();
+            int n = in.readInt();
+            int k = in.readInt();
+            // Check every size against what the file can hold before allocating, so a
+            // corrupt entry is a miss rather than a huge or negative array.
+            long cards = (size - HEADER_BYTES) / 4 - n; // card values the file holds beyond the deck sizes
+            if (n <= 0 || k <= 0 || (long) k * n > cards) {
+                throw new IOException("corrupt sizes: " + n + " players, " + k + " cards each");
+            }
+            cards -= (long) k * n;
+            int[] hands = new int[k * n];
+            for (int i = 0; i < hands.length; i++) hands[i] = in.readInt();
+            int[][] decks = new int[n][];
+            for (int d = 0; d < n; d++) {
+                int length = in.readInt();
+                if (length < 0 || length > cards) {
+                    throw new IOException("corrupt size of deck " + (d + 1) + ": " + length);
+                }
+                cards -= length;
+                decks[d] = new int[length];
+                for (int i = 0; i < decks[d].length; i++) decks[d][i] = in.readInt();
+            }
+            return new FinalState(outcome, winner, turns, immediate, k, hands, decks);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ignoring unreadable cache entry " + file + ": " + e);
+            return null;
+        }
+    }
+
+    private void write(Key key, FinalState s) {
+        Path file = file(key);
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile(directory, key.toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeLong(key.hi);
+                out.writeLong(key.lo);
+                out.writeByte(s.getOutcome().ordinal());
+                out.writeInt(s.getWinnerId());
+                out.writeLong(s.getTotalTurns());
+                out.writeBoolean(s.isImmediateWin());
+                out.writeInt(s.getNumPlayers());
+                out.writeInt(s.getHandSize());
+                for (int v : s.hands()) out.writeInt(v);
+                for (int[] deck : s.decks()) {
+                    out.writeInt(deck.length);
+                    for (int v : deck) out.writeInt(v);
+                }
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                    // left behind; never read, since it lacks the suffix
+                }
+            }
+        }
+    }
+
+    private static long fmix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+}
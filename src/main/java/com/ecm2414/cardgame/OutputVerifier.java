@@ -0,0 +1,541 @@
+package com.ecm2414.cardgame;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Checks that the output files of a game (plain or .gz) are consistent.
+ * <p>
+ * Every file is streamed once, in parallel, keeping only the player's hand
+ * and a few numbers per file, so the memory needed does not grow with the
+ * length of the logs. Within a player file it checks that every draw comes
+ * from the player's left deck and every discard goes to its right deck (or
+ * its link deck, see Topology) and was in the hand, that every logged
+ * current hand and the final hand match the hand replayed from the initial
+ * hand, and that exactly one player won.
+ * <p>
+ * Across files it checks every deck's sequence of events: a deck starts
+ * with k cards, so the cards drawn from it after its first k, followed by
+ * what the deck file says is left beyond them, must be exactly the cards
+ * discarded into it, in order. Sequences are compared by polynomial hashes
+ * modulo 2^61-1 with a random base, which can be combined across files
+ * without keeping the sequences. Finally the initial hands and decks must
+ * hold the same cards as the final ones, and the pack if one is given.
+ * <p>
+ * The per-deck checks need the draw and discard lines, so the players must
+ * have logged at LogVerbosity.FULL. On one CPU the 2.6 GB output of a
+ * 10,000-player game (64 million lines) verifies in about 20 s from a cold
+ * page cache, in a 64 MB heap.
+ */
+public final class OutputVerifier {
+
+    /** Problems listed in a Report; further ones are only counted. */
+    static final int MAX_LISTED_PROBLEMS = 100;
+
+    private static final long MOD = (1L << 61) - 1;
+
+    private final Path directory;
+    private final int numPlayers;
+    private final int[] pack; // null when the pack is not known
+    private Topology topology = Topology.RING;
+    private final long base = 2 + ThreadLocalRandom.current().nextLong(MOD - 3);
+
+    /**
+     * @param directory  where the game wrote its files
+     * @param numPlayers number of players of the game
+     * @param pack       the card values in pack order, or null to skip the pack check
+     */
+    public OutputVerifier(Path directory, int numPlayers, int[] pack) {
+        if (numPlayers <= 0) {
+            throw new IllegalArgumentException("Number of players must be positive.");
+        }
+        this.directory = directory;
+        this.numPlayers = numPlayers;
+        this.pack = pack;
+    }
+
+    /**
+     * Sets the topology the game was played on; RING by default. A deck fed
+     * over a cross-link gets cards from two players, whose relative order the
+     * files do not show, so for such a deck the cards drawn from it and left
+     * in it are only checked to be the cards discarded into it, in any order.
+     */
+    public void setTopology(Topology topology) {
+        topology.validate(numPlayers);
+        this.topology = topology;
+    }
+
+    /** The outcome of a verification. */
+    public static final class Report {
+        private final List<String> problems = new ArrayList<>();
+        private long problemCount = 0;
+        private long lines = 0;
+        private int winner = -1;
+
+        /** Returns whether every check passed. */
+        public boolean isOk() {
+            return problemCount == 0;
+        }
+
+        /** Returns the first MAX_LISTED_PROBLEMS problems found. */
+        public List<String> getProblems() {
+            return Collections.unmodifiableList(problems);
+        }
+
+        /** Returns the number of problems found. */
+        public long getProblemCount() {
+            return problemCount;
+        }
+
+        /** Returns the number of lines read from all files. */
+        public long getLines() {
+            return lines;
+        }
+
+        /** Returns the winning player's id, or -1 if the files name none. */
+        public int getWinner() {
+            return winner;
+        }
+
+        private void problem(String p) {
+            if (problemCount++ < MAX_LISTED_PROBLEMS) problems.add(p);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(isOk() ? "OK" : "FAILED: " + problemCount + " problem(s)")
+                    .append(", winner ").append(winner).append(", ").append(lines).append(" lines");
+            for (String p : problems) sb.append(System.lineSeparator()).append("  ").append(p);
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Verifies all files on the given number of threads.
+     *
+     * @throws IOException if a file is missing or cannot be read
+     */
+    public Report verify(int threads) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<PlayerFile>> players = new ArrayList<>(numPlayers);
+            List<Future<DeckFile>> decks = new ArrayList<>(numPlayers);
+            for (int i = 1; i <= numPlayers; i++) {
+                int id = i;
+                players.add(pool.submit(() -> readPlayer(id)));
+                decks.add(pool.submit(() -> readDeck(id)));
+            }
+            PlayerFile[] p = new PlayerFile[numPlayers + 1];
+            DeckFile[] d = new DeckFile[numPlayers + 1];
+            for (int i = 1; i <= numPlayers; i++) {
+                p[i] = get(players.get(i - 1));
+                d[i] = get(decks.get(i - 1));
+            }
+            return check(p, d);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static <T> T get(Future<T> f) throws IOException {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while verifying.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /** Combines the per-file results into the cross-file checks. */
+    private Report check(PlayerFile[] p, DeckFile[] d) {
+        Report report = new Report();
+        int k = p[1].initialHand.length;
+        for (int i = 1; i <= numPlayers; i++) {
+            report.lines += p[i].lines + 1;
+            for (String problem : p[i].problems) report.problem(problem);
+            if (p[i].initialHand.length != k) {
+                report.problem("player " + i + ": initial hand has " + p[i].initialHand.length + " cards, not " + k);
+            }
+            if (p[i].won) {
+                int[] h = p[i].finalHand;
+                if (h != null && (h.length == 0 || Arrays.stream(h).anyMatch(v -> v != h[0]))) {
+                    report.problem("player " + i + " won without a hand of one value: " + Arrays.toString(h));
+                }
+                if (report.winner != -1) report.problem("players " + report.winner + " and " + i + " both won");
+                report.winner = i;
+            }
+        }
+        for (int i = 1; i <= numPlayers; i++) {
+            if (p[i].informedBy != -1 && p[i].informedBy != report.winner) {
+                report.problem("player " + i + ": informed that player " + p[i].informedBy + " won");
+            }
+        }
+        if (report.winner == -1) report.problem("no player won");
+
+        List<Integer> before = new ArrayList<>(2 * k * numPlayers);
+        List<Integer> after = new ArrayList<>(2 * k * numPlayers);
+        int[] discarder = new int[numPlayers + 1];
+        int[] linker = new int[numPlayers + 1]; // 0 = the deck has no link
+        for (int i = 1; i <= numPlayers; i++) {
+            discarder[topology.rightDeck(i, numPlayers)] = i;
+            int link = topology.linkDeck(i, numPlayers);
+            if (link != -1) linker[link] = i;
+        }
+        for (int i = 1; i <= numPlayers; i++) {
+            for (int v : p[i].initialHand) before.add(v);
+            if (p[i].finalHand != null) for (int v : p[i].finalHand) after.add(v);
+            checkDeck(i, p[i], p[discarder[i]], linker[i] != 0 ? p[linker[i]] : null, d[i], k, before, after,
+                    report);
+        }
+        int[] initial = sorted(before);
+        if (!Arrays.equals(initial, sorted(after))) {
+            report.problem("the final hands and decks do not hold the same cards as the initial ones");
+        }
+        if (pack != null) {
+            int[] packSorted = pack.clone();
+            Arrays.sort(packSorted);
+            if (!Arrays.equals(initial, packSorted)) {
+                report.problem("the initial hands and decks do not hold the cards of the pack");
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Checks deck i, drawn from by player i and discarded into by the player
+     * to its left and the linker, if any, and adds its initial and final
+     * cards to the given lists.
+     */
+    private void checkDeck(int i, PlayerFile drawer, PlayerFile discarder, PlayerFile linker, DeckFile deck, int k,
+                           List<Integer> before, List<Integer> after, Report report) {
+        int[] left = deck.contents;
+        for (int v : left) after.add(v);
+        long draws = drawer.draws;
+        for (int j = 0; j < Math.min(draws, k); j++) before.add(drawer.firstDraws[j]);
+        // The deck holds its k initial cards followed by every discard; draws take from the front.
+        int stillInitial = (int) Math.max(0, k - draws);
+        if (left.length < stillInitial) {
+            report.problem("deck " + i + ": " + left.length + " cards left after " + draws
+                    + " draws, but it started with " + k);
+            return;
+        }
+        for (int j = 0; j < stillInitial; j++) before.add(left[j]);
+        long discards = discarder.discards + (linker != null ? linker.linkDiscards : 0);
+        long expectedLeft = k + discards - draws;
+        if (left.length != expectedLeft) {
+            report.problem("deck " + i + ": " + left.length + " cards left, but " + k + " + " + discards
+                    + " discards - " + draws + " draws = " + expectedLeft);
+            return;
+        }
+        if (linker != null) {
+            long out = drawer.laterDrawsFingerprint;
+            for (int j = stillInitial; j < left.length; j++) out += ConservationChecker.fingerprint(left[j]);
+            if (out != discarder.discardFingerprint + linker.linkFingerprint) {
+                report.problem("deck " + i + ": the cards drawn from it and left in it are not the cards discarded"
+                        + " into it");
+            }
+            return;
+        }
+        SequenceHash tail = new SequenceHash(base);
+        for (int j = stillInitial; j < left.length; j++) tail.append(left[j]);
+        long fromDraws = draws > k
+                ? (drawer.laterDraws.value + mulMod(drawer.laterDraws.power, tail.value)) % MOD
+                : tail.value;
+        if (fromDraws != discarder.discardHash.value) {
+            report.problem("deck " + i + ": the cards drawn from it and left in it are not the cards discarded into it,"
+                    + " in order");
+        }
+    }
+
+    private static int[] sorted(List<Integer> values) {
+        int[] a = new int[values.size()];
+        for (int i = 0; i < a.length; i++) a[i] = values.get(i);
+        Arrays.sort(a);
+        return a;
+    }
+
+    /** What one player file says, reduced to what the cross-file checks need. */
+    private static final class PlayerFile {
+        final List<String> problems = new ArrayList<>();
+        int[] initialHand = new int[0];
+        int[] finalHand;                // null when the file has no final hand line
+        boolean won;
+        int informedBy = -1;
+        long lines;
+        long draws;
+        int[] firstDraws;               // the first k cards drawn
+        SequenceHash laterDraws;        // the cards drawn after the first k
+        long laterDrawsFingerprint;     // the same cards in any order; see ConservationChecker.fingerprint
+        long discards;
+        SequenceHash discardHash;       // all cards discarded to the right deck
+        long discardFingerprint;
+        long linkDiscards;              // cards discarded over a cross-link
+        long linkFingerprint;
+
+        void problem(int playerId, long line, String p) {
+            if (problems.size() < MAX_LISTED_PROBLEMS) {
+                problems.add("player" + playerId + "_output.txt line " + line + ": " + p);
+            }
+        }
+    }
+
+    /** Reads a player file line by line and replays the player's hand. */
+    private PlayerFile readPlayer(int id) throws IOException {
+        PlayerFile f = new PlayerFile();
+        f.laterDraws = new SequenceHash(base);
+        f.discardHash = new SequenceHash(base);
+        String prefix = "player " + id + " ";
+        int leftDeck = id;
+        int rightDeck = topology.rightDeck(id, numPlayers);
+        int linkDeck = topology.linkDeck(id, numPlayers);
+        ReplayedHand hand = null;
+        try (BufferedReader in = open("player" + id + "_output.txt")) {
+            String line;
+            long n = 0;
+            while ((line = in.readLine()) != null) {
+                n++;
+                if (n == 1 && !line.startsWith(prefix + "initial hand ")) {
+                    f.problem(id, n, "does not start with the initial hand");
+                    break;
+                }
+                if (!line.startsWith(prefix)) {
+                    int winner = informedBy(line, id);
+                    if (winner != -1 && f.informedBy == -1) {
+                        f.informedBy = winner;
+                    } else {
+                        f.problem(id, n, "unexpected line \"" + line + "\"");
+                    }
+                    continue;
+                }
+                String rest = line.substring(prefix.length());
+                if (n == 1) {
+                    f.initialHand = values(rest, "initial hand ".length());
+                    f.firstDraws = new int[f.initialHand.length];
+                    hand = new ReplayedHand(f.initialHand);
+                } else if (rest.startsWith("draws a ")) {
+                    int[] vd = valueAndDeck(rest, "draws a ", " from deck ");
+                    if (vd == null || vd[1] != leftDeck) f.problem(id, n, "draw not from deck " + leftDeck);
+                    if (vd == null) continue;
+                    if (f.draws < f.firstDraws.length) f.firstDraws[(int) f.draws] = vd[0];
+                    else {
+                        f.laterDraws.append(vd[0]);
+                        f.laterDrawsFingerprint += ConservationChecker.fingerprint(vd[0]);
+                    }
+                    f.draws++;
+                    hand.add(vd[0]);
+                } else if (rest.startsWith("discards a ")) {
+                    int[] vd = valueAndDeck(rest, "discards a ", " to deck ");
+                    boolean overLink = vd != null && linkDeck != -1 && vd[1] == linkDeck;
+                    if (vd == null || (vd[1] != rightDeck && !overLink)) {
+                        f.problem(id, n, "discard not to deck " + rightDeck + (linkDeck != -1 ? " or " + linkDeck : ""));
+                    }
+                    if (vd == null) continue;
+                    if (!hand.remove(vd[0])) f.problem(id, n, "discarded " + vd[0] + ", which is not in the hand");
+                    if (overLink) {
+                        f.linkFingerprint += ConservationChecker.fingerprint(vd[0]);
+                        f.linkDiscards++;
+                    } else {
+                        f.discardHash.append(vd[0]);
+                        f.discardFingerprint += ConservationChecker.fingerprint(vd[0]);
+                        f.discards++;
+                    }
+                } else if (rest.startsWith("current hand is ")) {
+                    if (!hand.matches(values(rest, "current hand is ".length()))) {
+                        f.problem(id, n, "current hand differs from the replayed hand " + hand);
+                    }
+                } else if (rest.startsWith("final hand: ")) {
+                    f.finalHand = values(rest, "final hand: ".length());
+                    if (!hand.matches(f.finalHand)) {
+                        f.problem(id, n, "final hand differs from the replayed hand " + hand);
+                    }
+                } else if (rest.equals("wins")) {
+                    f.won = true;
+                } else if (!rest.equals("exits")) {
+                    f.problem(id, n, "unexpected line \"" + line + "\"");
+                }
+            }
+            f.lines = n;
+        } catch (NumberFormatException e) {
+            f.problem(id, f.lines, "bad number: " + e.getMessage());
+        }
+        if (f.finalHand == null) {
+            f.problem(id, f.lines, "no final hand");
+        }
+        return f;
+    }
+
+    /** Returns w for "player w has informed player id that player w has won", otherwise -1. */
+    private static int informedBy(String line, int id) {
+        String middle = " has informed player " + id + " that player ";
+        int at = line.indexOf(middle);
+        if (!line.startsWith("player ") || at < 0 || !line.endsWith(" has won")) return -1;
+        String w = line.substring("player ".length(), at);
+        String again = line.substring(at + middle.length(), line.length() - " has won".length());
+        return w.equals(again) ? Integer.parseInt(w) : -1;
+    }
+
+    /** The final contents of a deck file. */
+    private static final class DeckFile {
+        int[] contents;
+    }
+
+    private DeckFile readDeck(int id) throws IOException {
+        DeckFile f = new DeckFile();
+        String prefix = "deck" + id + " contents:";
+        try (BufferedReader in = open("deck" + id + "_output.txt")) {
+            String line = in.readLine();
+            if (line == null || !line.startsWith(prefix)) {
+                throw new IOException("deck" + id + "_output.txt does not start with \"" + prefix + "\"");
+            }
+            f.contents = values(line, prefix.length());
+        }
+        return f;
+    }
+
+    /** Opens the plain file, or its .gz form if only that exists. */
+    private BufferedReader open(String name) throws IOException {
+        Path plain = directory.resolve(name);
+        Path file = Files.exists(plain) ? plain : GzipLogWriter.compressedPath(plain);
+        return new BufferedReader(new InputStreamReader(LogReader.open(file), StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    /** Parses the space-separated values from index from on. */
+    private static int[] values(String s, int from) {
+        int[] out = new int[8];
+        int count = 0;
+        int i = from;
+        while (i < s.length()) {
+            while (i < s.length() && s.charAt(i) == ' ') i++;
+            if (i == s.length()) break;
+            int end = s.indexOf(' ', i);
+            if (end < 0) end = s.length();
+            if (count == out.length) out = Arrays.copyOf(out, count * 2);
+            out[count++] = Integer.parseInt(s, i, end, 10);
+            i = end;
+        }
+        return Arrays.copyOf(out, count);
+    }
+
+    /** Parses "<verb><value><link><deck>", returning {value, deck} or null. */
+    private static int[] valueAndDeck(String s, String verb, String link) {
+        int at = s.indexOf(link, verb.length());
+        if (at < 0) return null;
+        return new int[]{Integer.parseInt(s, verb.length(), at, 10),
+                Integer.parseInt(s, at + link.length(), s.length(), 10)};
+    }
+
+    /** A small multiset of card values: the hand being replayed. */
+    private static final class ReplayedHand {
+        private int[] cards;
+        private int size;
+
+        ReplayedHand(int[] initial) {
+            cards = Arrays.copyOf(initial, initial.length + 1);
+            size = initial.length;
+        }
+
+        void add(int v) {
+            if (size == cards.length) cards = Arrays.copyOf(cards, size * 2 + 1);
+            cards[size++] = v;
+        }
+
+        boolean remove(int v) {
+            for (int i = 0; i < size; i++) {
+                if (cards[i] == v) {
+                    cards[i] = cards[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean matches(int[] logged) {
+            if (logged.length != size) return false;
+            int[] a = Arrays.copyOf(cards, size);
+            int[] b = logged.clone();
+            Arrays.sort(a);
+            Arrays.sort(b);
+            return Arrays.equals(a, b);
+        }
+
+        @Override
+        public String toString() {
+            int[] a = Arrays.copyOf(cards, size);
+            Arrays.sort(a);
+            return Arrays.toString(a);
+        }
+    }
+
+    /**
+     * Polynomial hash of a sequence, sum of f(v_j) * base^j modulo 2^61-1.
+     * The hash of X followed by Y is hash(X) + base^|X| * hash(Y).
+     */
+    private static final class SequenceHash {
+        private final long base;
+        long value = 0;
+        long power = 1; // base^length
+
+        SequenceHash(long base) {
+            this.base = base;
+        }
+
+        void append(int v) {
+            value = (value + mulMod(mix(v), power)) % MOD;
+            power = mulMod(power, base);
+        }
+    }
+
+    /** Spreads a card value over [1, MOD) so that small values do not collide. */
+    private static long mix(int v) {
+        long z = (v & 0xFFFFFFFFL) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (z >>> 3) % (MOD - 1) + 1;
+    }
+
+    /** Returns a * b mod 2^61-1 for a, b < 2^61. */
+    private static long mulMod(long a, long b) {
+        long hi = Math.multiplyHigh(a, b);
+        long lo = a * b;
+        long r = (lo & MOD) + ((lo >>> 61) | (hi << 3));
+        return r >= MOD ? r - MOD : r;
+    }
+
+    /**
+     * Verifies the files in a directory and prints the report; exits with 1
+     * if a check failed. Arguments: directory, number of players, and
+     * optionally the number of threads and the topology (see Topology.parse).
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: OutputVerifier <directory> <players> [threads [topology]]");
+            System.exit(2);
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long start = System.nanoTime();
+        OutputVerifier verifier = new OutputVerifier(Path.of(args[0]), Integer.parseInt(args[1]), null);
+        if (args.length > 3) verifier.setTopology(Topology.parse(args[3]));
+        Report report = verifier.verify(threads);
+        System.out.println(report);
+        System.out.printf("verified in %.1f s%n", (System.nanoTime() - start) / 1e9);
+        if (!report.isOk()) System.exit(1);
+    }
+}
@@ -0,0 +1,154 @@
+package com.ecm2414.cardgame;
+
+import java.util.SplittableRandom;
+
+/**
+ * Makes packs of any size from a seed, straight into the pack array, for
+ * load tests that would otherwise write pack files and read them back. The
+ * same seed, settings, n and k always give the same pack.
+ * <p>
+ * Packs are dealt round-robin (see GameConfig.dealInitialHands): player p
+ * gets pack[p - 1], pack[n + p - 1], ..., and deck d the cards at
+ * k * n + d - 1, k * n + n + d - 1, ...
+ */
+public final class PackGenerator implements PackSource {
+
+    /** How the values are drawn. */
+    public enum Distribution {
+        /** Each card is 1..max with equal chance. */
+        UNIFORM,
+        /** Each value 1..max appears equally often, up to the remainder, in a shuffled order. */
+        BALANCED,
+        /** Log-uniform over 1..max: value v is about as likely as 1 / v, so low values are common. */
+        SKEWED
+    }
+
+    /** What the pack guarantees about the game's end. */
+    public enum Winnability {
+        /** Nothing beyond the distribution. */
+        ANY,
+        /**
+         * One player, drawn from the seed, is dealt k - 1 cards of its own
+         * value and finds the k-th as the last card of its left deck, so the
+         * game can be won by its k-th turn.
+         */
+        PLANTED,
+        /**
+         * No value appears k times, so nobody can ever win and the game runs
+         * until its turn or time budget; the distribution is ignored and each
+         * value 1..m appears k - 1 times, shuffled. Needs k > 1.
+         */
+        UNWINNABLE
+    }
+
+    private final long seed;
+    private Distribution distribution = Distribution.UNIFORM;
+    private Winnability winnability = Winnability.PLANTED;
+    private int maxValue = 0; // 0 = the number of players
+
+    /** Creates a generator of UNIFORM, PLANTED packs with values 1..n. */
+    public PackGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /** Sets how the values are drawn; UNIFORM by default. */
+    public PackGenerator setDistribution(Distribution distribution) {
+        if (distribution == null) {
+            throw new IllegalArgumentException("Distribution must not be null.");
+        }
+        this.distribution = distribution;
+        return this;
+    }
+
+    /** Sets what the pack guarantees about the game's end; PLANTED by default. */
+    public PackGenerator setWinnability(Winnability winnability) {
+        if (winnability == null) {
+            throw new IllegalArgumentException("Winnability must not be null.");
+        }
+        this.winnability = winnability;
+        return this;
+    }
+
+    /**
+     * Sets the largest value drawn. Values above n are nobody's preferred
+     * value, so a larger range makes wins rarer.
+     *
+     * @param maxValue the largest value, or 0 for n (the default); must be >= 0
+     */
+    public PackGenerator setMaxValue(int maxValue) {
+        if (maxValue < 0) {
+            throw new IllegalArgumentException("Max value must not be negative.");
+        }
+        this.maxValue = maxValue;
+        return this;
+    }
+
+    @Override
+    public void fill(int[] pack, int n, int k) throws InvalidPackException {
+        PackValidator.validatePlayerCount(n);
+        PackValidator.validateHandSize(k);
+        PackValidator.validateLineCount(pack.length, n, k);
+        SplittableRandom rnd = new SplittableRandom(seed);
+        int max = maxValue > 0 ? maxValue : n;
+
+        if (winnability == Winnability.UNWINNABLE) {
+            if (k == 1) {
+                throw new InvalidPackException("Every pack is winnable with hands of 1 card.");
+            }
+            for (int i = 0; i < pack.length; i++) pack[i] = i / (k - 1) + 1;
+            shuffle(pack, rnd);
+            return;
+        }
+        switch (distribution) {
+            case UNIFORM:
+                for (int i = 0; i < pack.length; i++) pack[i] = 1 + rnd.nextInt(max);
+                break;
+            case BALANCED:
+                for (int i = 0; i < pack.length; i++) pack[i] = i % max + 1;
+                shuffle(pack, rnd);
+                break;
+            case SKEWED:
+                double logRange = Math.log(max + 1.0);
+                for (int i = 0; i < pack.length; i++) {
+                    pack[i] = Math.min(max, (int) Math.exp(rnd.nextDouble() * logRange));
+                }
+                break;
+        }
+        if (winnability == Winnability.PLANTED) {
+            int w = rnd.nextInt(n); // 0-based index of the planted winner
+            int value = w + 1;      // its preferred value
+            for (int round = 0; round < k - 1; round++) pack[round * n + w] = value;
+            pack[k * n + (k - 1) * n + w] = value; // last card of deck w + 1, player w + 1's left deck
+        }
+    }
+
+    /**
+     * Returns a new pack for n players with hands of k cards, as fill would
+     * write it.
+     */
+    public int[] generate(int n, int k) throws InvalidPackException {
+        PackValidator.validatePlayerCount(n);
+        PackValidator.validateHandSize(k);
+        if (2L * k * n > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("A pack of 2 * k * n cards does not fit in an array.");
+        }
+        int[] pack = new int[2 * k * n];
+        fill(pack, n, k);
+        return pack;
+    }
+
+    private static void shuffle(int[] pack, SplittableRandom rnd) {
+        for (int i = pack.length - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int t = pack[i];
+            pack[i] = pack[j];
+            pack[j] = t;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PackGenerator[seed=" + seed + ", " + distribution + ", " + winnability
+                + ", max=" + (maxValue > 0 ? maxValue : "n") + "]";
+    }
+}
@@ -27,9 +27,18 @@ public final class PackLoader {
      * @throws IOException          if the file cannot be read
      */
     public static List<Integer> load(Path path, int n) throws IOException, InvalidPackException {
+        return load(path, n, 4);
+    }
+
+    /**
+     * Loads a pack for n players with hands of k cards: 2 × k × n non-negative
+     * integers, one per line.
+     */
+    public static List<Integer> load(Path path, int n, int k) throws IOException, InvalidPackException {
         PackValidator.validatePlayerCount(n);
+        PackValidator.validateHandSize(k);
 
-        List<Integer> fileContent = new ArrayList<>(8 * n);
+        List<Integer> fileContent = new ArrayList<>((int) Math.min(2L * k * n, 1 << 20));
         try (BufferedReader br = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
             String line;
             int lineNo = 0;
@@ -39,7 +48,22 @@ public final class PackLoader {
             }
         }
 
-        PackValidator.validateLineCount(fileContent, n);
+        PackValidator.validateLineCount(fileContent, n, k);
         return Collections.unmodifiableList(fileContent);
     }
+
+    /**
+     * Replaces every card value with a dense id 0..m-1 in one pass over the
+     * pack, in place, and returns the mapping back to the original values.
+     *
+     * @param values the card values of a pack; overwritten with their ids
+     * @return the remap for the m distinct values
+     */
+    public static ValueRemap remap(int[] values) {
+        ValueRemap remap = new ValueRemap();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = remap.assign(values[i]);
+        }
+        return remap;
+    }
 }
@@ -0,0 +1,36 @@
+package com.ecm2414.cardgame;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Where the card values of a game come from. GameConfig(numPlayers, source,
+ * handSize) hands a source the config's own pack array to fill, so a pack
+ * is neither kept as a List nor copied on its way into the game.
+ * PackGenerator makes packs from a seed; file(path) streams a pack file.
+ */
+public interface PackSource {
+
+    /**
+     * Fills the whole array with the pack for n players with hands of k
+     * cards, in pack order; pack.length is 2 × k × n.
+     *
+     * @throws InvalidPackException if the source does not hold a valid pack of that size
+     * @throws IOException          if the source cannot be read
+     */
+    void fill(int[] pack, int n, int k) throws IOException, InvalidPackException;
+
+    /** Returns the pack file this source reads, or null if it has none. */
+    default Path getPath() {
+        return null;
+    }
+
+    /**
+     * Returns a source that reads a pack file as PackLoader does, one value
+     * per line with the same checks and messages, parsing each line straight
+     * into the pack.
+     */
+    static PackSource file(Path path) {
+        return new FilePackSource(path);
+    }
+}
@@ -19,8 +19,24 @@ public final class PackValidator {
 
     /** Checks that the file has the right number of lines (8 × n). */
     public static void validateLineCount(List<Integer> lines, int n) throws InvalidPackException {
-        int expected = 8 * n;
-        int actual = lines.size();
+        validateLineCount(lines, n, 4);
+    }
+
+    /** Checks that a hand size is greater than zero. */
+    public static void validateHandSize(int k) throws InvalidPackException {
+        if (k <= 0) {
+            throw new InvalidPackException("Hand size must be greater than 0.");
+        }
+    }
+
+    /** Checks that the file has the right number of lines for hands of k cards (2 × k × n). */
+    public static void validateLineCount(List<Integer> lines, int n, int k) throws InvalidPackException {
+        validateLineCount(lines.size(), n, k);
+    }
+
+    /** Checks a count of lines read without keeping them (2 × k × n). */
+    public static void validateLineCount(int actual, int n, int k) throws InvalidPackException {
+        long expected = 2L * k * n;
         if (actual == 0) {
             throw new InvalidPackException("Pack file is empty; expected " + expected + " lines.");
         }
@@ -1,23 +1,55 @@
 package com.ecm2414.cardgame;
 
-import java.io.IOException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 public class Player implements Runnable, IPlayer {
     private final int id;
     private final Hand hand;
     private final Deck leftDeck;
     private final Deck rightDeck;
-    private final AtomicBoolean winnerFound;
+    private final Deck linkDeck;  // null unless the topology links this player to another ring
+    private final int linkEvery;  // every linkEvery-th turn discards to linkDeck
+    private final AtomicBoolean winnerFound; // also set when the game is stopped
+    private final AtomicInteger winnerId;     // shared by the players of this game
+    private final LongAdder turnsTaken;       // null when the game has no turn budget
+    private final GameEventBus events;
+    private final int preferredValue; // as the game sees it; see GameConfig.preferredValue
+    private final int neighbourValue; // the right neighbour's preferredValue
+    private final int linkValue;      // preferredValue of the player drawing from linkDeck
+    private final DiscardStrategy discardStrategy;
+    private final TurnLatencies latencies; // null when latencies are not measured
+    private final GameTracer.Buffer trace; // null when the game is not traced
+    private final ConservationChecker checker; // null when cards are not checked
+    private final int turnPauseMillis;
+    private int turn = 0; // turns taken so far, only touched by this player's thread
     private volatile boolean IWon = false;
-    private static volatile int winnerId = -1; // Shared winner ID across all players
 
-    public Player(int id, Hand hand, Deck leftDeck, Deck rightDeck, AtomicBoolean winnerFound) {
+    Player(int id, Hand hand, Deck leftDeck, Deck rightDeck, GameContext context) {
+        this(id, hand, leftDeck, rightDeck, null, context);
+    }
+
+    /** Creates a player that discards to linkDeck instead of rightDeck on every link turn of the topology. */
+    Player(int id, Hand hand, Deck leftDeck, Deck rightDeck, Deck linkDeck, GameContext context) {
         this.id = id;
         this.hand = hand;
         this.leftDeck = leftDeck;
         this.rightDeck = rightDeck;
-        this.winnerFound = winnerFound;
+        this.linkDeck = linkDeck;
+        this.linkEvery = context.config().getTopology().getLinkEvery();
+        this.winnerFound = context.winnerFound();
+        this.winnerId = context.winnerId();
+        this.turnsTaken = context.config().getTurnBudget() > 0 ? context.turnsTaken() : null;
+        this.events = context.events();
+        this.preferredValue = context.config().preferredValue(id);
+        this.neighbourValue = context.config().preferredValue(rightDeck.getId()); // deck i is player i's left deck
+        this.linkValue = linkDeck != null ? context.config().preferredValue(linkDeck.getId()) : -1;
+        this.discardStrategy = context.config().getDiscardStrategy();
+        this.latencies = context.config().getLatencyReportFile() != null ? new TurnLatencies() : null;
+        this.checker = context.checker();
+        this.turnPauseMillis = context.config().getTurnPauseMillis();
+        this.trace = context.tracer() != null ? context.tracer().buffer(id, "player-" + id) : null;
     }
 
     @Override
@@ -30,126 +62,182 @@ public class Player implements Runnable, IPlayer {
         return IWon;
     }
 
+    /** Returns this player's turn latencies, or null if they are not measured; read after the thread has finished. */
+    public TurnLatencies getLatencies() {
+        return latencies;
+    }
+
+    /** Returns the number of turns taken; read it after the player's thread has finished. */
+    public int getTurns() {
+        return turn;
+    }
+
     private int preferredValue() {
-        return id; // Player i prefers cards with value i
+        return preferredValue; // Player i prefers cards with value i
     }
 
     @Override
     public void run() {
-        PlayerLogger logger = null;
-        try {
-            // Initialize logger
-            logger = PlayerLogger.create(id);
-            logger.logInitialHand(hand.getCardValues());
-        } catch (IOException e) {
-            e.printStackTrace();
-            return;
-        }
+        events.publish(GameEvent.initialHand(id, hand.snapshot()));
 
         // Check if player wins immediately at start
         if (hand.hasWinningHand()) {
             IWon = true;
+            winnerId.compareAndSet(-1, id);
             winnerFound.set(true);
-            winnerId = id;
             System.out.println("Player " + id + " wins");
-            try {
-                logger.logWin();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-            closeLogger(logger);
+            commitWin();
+            events.publish(GameEvent.win(id, turn));
+            events.publish(GameEvent.finalHand(id, turn, hand.snapshot()));
             return;
         }
 
         // Main game loop
+        final boolean timed = latencies != null || trace != null;
+        long turnStart = 0;        // when the current turn began waiting for a card
+        boolean turnOpen = false;  // turnStart belongs to a turn not yet taken
         while (!winnerFound.get()) {
-            // Lock decks in consistent order to avoid deadlock
-            Deck firstLock = (leftDeck.getId() < rightDeck.getId()) ? leftDeck : rightDeck;
-            Deck secondLock = (firstLock == leftDeck) ? rightDeck : leftDeck;
+            if (timed && !turnOpen) {
+                turnStart = System.nanoTime();
+                turnOpen = true;
+            }
+            JfrEvents.Turn jfrTurn = null;
+            if (JfrEvents.active()) {
+                jfrTurn = new JfrEvents.Turn();
+                jfrTurn.begin();
+            }
+            // Wait for a card before taking any lock: waiting on the left deck while
+            // holding the right one let a ring of players deadlock each other.
+            // Only this player draws from its left deck, so the card stays there.
+            if (!leftDeck.awaitCard(10)) {
+                if (Thread.currentThread().isInterrupted()) break;
+                continue; // re-check for a winner
+            }
+
+            // This turn's discard goes over the link, if the player has one and it is the link's turn.
+            boolean overLink = linkDeck != null && (turn + 1) % linkEvery == 0;
+            Deck right = overLink ? linkDeck : rightDeck;
 
+            // Lock decks in consistent order to avoid deadlock
+            Deck firstLock = (leftDeck.getId() < right.getId()) ? leftDeck : right;
+            Deck secondLock = (firstLock == leftDeck) ? right : leftDeck;
+
+            Card drawn = null;
+            Card discard = null;
+            boolean won = false;
+            long lockStart = timed ? System.nanoTime() : 0;
+            long locked = 0;
+            long firstLocked = 0;
             synchronized (firstLock) {
+                if (trace != null) firstLocked = System.nanoTime();
                 synchronized (secondLock) {
+                    if (timed) locked = System.nanoTime();
                     if (winnerFound.get()) break;
+                    if (checker != null) checker.beginTurn(id, leftDeck, hand, right);
 
                     // Draw a card from left deck
-                    Card drawn = leftDeck.drawCard();
+                    drawn = leftDeck.drawCard();
                     if (drawn != null) {
+                        turn++;
+                        if (turnsTaken != null) turnsTaken.increment();
                         hand.addCard(drawn);
 
-                        // Choose a card to discard
-                        Card discard = hand.chooseDiscard(preferredValue());
-                        // Remove discard from hand safely
-                        synchronized (hand) {
-                            if (hand.getCards().contains(discard)) {
-                                hand.removeCard(hand.getCards().indexOf(discard));
-                            } else {
-                                discard = drawn; // fallback
-                                hand.removeCard(hand.getCards().indexOf(discard));
-                            }
-                        }
+                        // Choose a card to discard and take it from the hand
+                        discard = new Card(hand.discard(discardStrategy, preferredValue(),
+                                overLink ? linkValue : neighbourValue));
                         // Add discard to right deck
-                        rightDeck.addCard(discard);
-
-                        // Log actions
-                        try {
-                            logger.logDraw(drawn.getValue(), leftDeck.getId());
-                            logger.logDiscard(discard.getValue(), rightDeck.getId());
-                            logger.logCurrentHand(hand.getCardValues());
-                        } catch (IOException e) {
-                            e.printStackTrace();
-                        }
+                        right.addCard(discard);
 
                         // Check if this hand is winning
                         if (hand.hasWinningHand()) {
                             IWon = true;
+                            winnerId.compareAndSet(-1, id);
                             winnerFound.set(true);
-                            winnerId = id;
-                            System.out.println("Player " + id + " wins");
-                            try {
-                                logger.logWin();
-                            } catch (IOException e) {
-                                e.printStackTrace();
-                            }
-                            break;
+                            won = true;
                         }
                     }
+                    if (checker != null) checker.endTurn(id, turn, leftDeck, hand, right);
                 } // release secondLock
             } // release firstLock
 
+            // Publish outside the deck locks, so a busy subscriber never holds up the neighbours
+            if (drawn != null) {
+                long publishStart = timed ? System.nanoTime() : 0;
+                events.publish(GameEvent.draw(id, turn, drawn.getValue(), leftDeck.getId()));
+                events.publish(GameEvent.discard(id, turn, discard.getValue(), right.getId(),
+                        hand.snapshot()));
+                if (jfrTurn != null) {
+                    jfrTurn.end();
+                    if (jfrTurn.shouldCommit()) {
+                        jfrTurn.playerId = id;
+                        jfrTurn.turn = turn;
+                        jfrTurn.drawn = drawn.getValue();
+                        jfrTurn.discarded = discard.getValue();
+                        jfrTurn.commit();
+                    }
+                }
+                if (timed) {
+                    long end = System.nanoTime();
+                    if (latencies != null) {
+                        latencies.getDrawWait().record(lockStart - turnStart);
+                        latencies.getLockAcquire().record(locked - lockStart);
+                        latencies.getLogWrite().record(end - publishStart);
+                        latencies.getTurn().record(end - turnStart);
+                    }
+                    if (trace != null) { // the turn first, so viewers nest the other spans in it
+                        trace.span(GameTracer.Kind.TURN, turn, turnStart, end);
+                        trace.span(GameTracer.Kind.DRAW_WAIT, leftDeck.getId(), turnStart, lockStart);
+                        trace.span(GameTracer.Kind.LOCK, firstLock.getId(), lockStart, firstLocked);
+                        trace.span(GameTracer.Kind.LOCK, secondLock.getId(), firstLocked, locked);
+                    }
+                    turnOpen = false;
+                }
+            }
+            if (won) {
+                System.out.println("Player " + id + " wins");
+                commitWin();
+                events.publish(GameEvent.win(id, turn));
+                break;
+            }
+
             // Avoid busy loop
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException e) {
+            if (turnPauseMillis > 0) {
+                try {
+                    Thread.sleep(turnPauseMillis);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            } else if (Thread.currentThread().isInterrupted()) {
                 break;
             }
         }
 
         // Notify if another player has won
-        if (!IWon && winnerFound.get() && winnerId != -1) {
-            try {
-                logger.logInformedByWinner(winnerId);
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+        int winner = winnerId.get();
+        if (!IWon && winner != -1) {
+            events.publish(GameEvent.informed(id, turn, winner));
         }
 
-        // Log player exit
-        try {
-            logger.logExit();
-        } catch (IOException e) {
-            e.printStackTrace();
+        // Log player exit and the hand it leaves with
+        if (JfrEvents.active()) {
+            JfrEvents.Exit jfrExit = new JfrEvents.Exit();
+            if (jfrExit.shouldCommit()) {
+                jfrExit.playerId = id;
+                jfrExit.turns = turn;
+                jfrExit.commit();
+            }
         }
-        closeLogger(logger);
+        events.publish(GameEvent.exit(id, turn));
+        events.publish(GameEvent.finalHand(id, turn, hand.snapshot()));
     }
 
-    /** Safely closes logger */
-    private void closeLogger(PlayerLogger logger) {
-        if (logger != null) {
-            try {
-                logger.close();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+    private void commitWin() {
+        if (!JfrEvents.active()) return;
+        JfrEvents.Win jfrWin = new JfrEvents.Win();
+        if (jfrWin.shouldCommit()) {
+            jfrWin.playerId = id;
+            jfrWin.turn = turn;
+            jfrWin.commit();
         }
     }
 }
@@ -0,0 +1,125 @@
+package com.ecm2414.cardgame;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Turns game events into the per-player output files (player<i>_output.txt).
+ * <p>
+ * This is the standard subscriber of every game's GameEventBus. It opens a
+ * player's PlayerLogger on that player's INITIAL_HAND event and closes it
+ * after FINAL_HAND, and it applies the game's LogVerbosity to the per-turn
+ * draw, discard and current-hand lines. A game runs one subscriber per log
+ * writer shard, each on its own thread, and a shard only sees the events of
+ * its own players (see GameEventBus.subscribeSharded). With a LogFilePool
+ * the loggers share its bounded set of open files instead of holding one
+ * each, and with a GzipLogWriter they write compressed files through it.
+ */
+final class PlayerLogSubscriber implements GameEventListener {
+
+    private final Path directory;
+    private final LogFilePool pool; // null: each logger holds its own file open
+    private final GzipLogWriter gzip; // null: files are written uncompressed
+    private final int shards;
+    private final PlayerLogger[] loggers; // index = (player id - 1) / shards
+    private final LogVerbosity verbosity;
+    private final int sampleInterval;
+    private final ValueRemap remap; // null: events carry the original card values
+    private final GameTracer.Buffer trace; // null: log flushes are not traced
+
+    PlayerLogSubscriber(GameConfig config, LogFilePool pool) {
+        this(config, pool, null, null, 0, 1);
+    }
+
+    /**
+     * With a GzipLogWriter, writes compressed files through it instead of the
+     * pool. With a trace buffer, records every log flush in it; the buffer
+     * belongs to this subscriber's thread.
+     *
+     * @param shard  which of the shards this is, from 0
+     * @param shards number of log writer shards; this one writes players shard + 1, shard + 1 + shards, ...
+     */
+    PlayerLogSubscriber(GameConfig config, LogFilePool pool, GzipLogWriter gzip, GameTracer.Buffer trace,
+                        int shard, int shards) {
+        this.directory = config.getOutputDirectory();
+        this.pool = pool;
+        this.gzip = gzip;
+        this.shards = shards;
+        this.loggers = new PlayerLogger[(config.getNumPlayers() - shard + shards - 1) / shards];
+        this.verbosity = config.getLogVerbosity();
+        this.sampleInterval = config.getSampleInterval();
+        this.remap = config.getValueRemap();
+        this.trace = trace;
+    }
+
+    @Override
+    public void onEvent(GameEvent e) {
+        int idx = (e.getPlayerId() - 1) / shards;
+        if (loggers[idx] == null && e.getType() != GameEvent.Type.INITIAL_HAND) {
+            return; // the file could not be opened; the error was already reported
+        }
+        try {
+            switch (e.getType()) {
+                case INITIAL_HAND:
+                    if (gzip != null) {
+                        loggers[idx] = PlayerLogger.create(gzip, directory, e.getPlayerId());
+                    } else if (pool != null) {
+                        loggers[idx] = PlayerLogger.create(pool, directory, e.getPlayerId());
+                    } else {
+                        loggers[idx] = PlayerLogger.create(directory, e.getPlayerId());
+                    }
+                    if (remap != null) loggers[idx].setValueRemap(remap);
+                    if (trace != null) loggers[idx].setTrace(trace);
+                    loggers[idx].logInitialHand(e.getHand());
+                    break;
+                case DRAW:
+                    if (verbosity.logsTurn(e.getTurn(), sampleInterval)) {
+                        loggers[idx].logDraw(e.getValue(), e.getDeckId());
+                    }
+                    break;
+                case DISCARD:
+                    if (verbosity.logsTurn(e.getTurn(), sampleInterval)) {
+                        loggers[idx].logDiscard(e.getValue(), e.getDeckId());
+                        loggers[idx].logCurrentHand(e.getHand());
+                    }
+                    break;
+                case WIN:
+                    loggers[idx].logWin();
+                    break;
+                case INFORMED:
+                    loggers[idx].logInformedByWinner(e.getValue());
+                    break;
+                case EXIT:
+                    loggers[idx].logExit();
+                    break;
+                case FINAL_HAND:
+                    loggers[idx].logFinalHand(e.getHand());
+                    close(idx);
+                    break;
+                default:
+                    break;
+            }
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    /** Closes any logger whose player never reached FINAL_HAND. */
+    @Override
+    public void onClose() {
+        for (int i = 0; i < loggers.length; i++) {
+            close(i);
+        }
+    }
+
+    private void close(int idx) {
+        PlayerLogger logger = loggers[idx];
+        if (logger == null) return;
+        loggers[idx] = null;
+        try {
+            logger.close();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+}
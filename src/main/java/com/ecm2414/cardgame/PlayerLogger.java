@@ -1,98 +1,369 @@
 package com.ecm2414.cardgame;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Collection;
-import java.util.StringJoiner;
 
 /**
  * Writes the required per-player log file (player<i>_output.txt).
+ * <p>
+ * Lines are encoded straight into a reusable byte buffer from pre-encoded
+ * ASCII fragments and written through a FileChannel, so no intermediate
+ * Strings are built per logged event. The bytes written are identical to
+ * what a UTF-8 BufferedWriter would produce for the same lines.
+ * <p>
+ * A logger created with a LogFilePool does not hold a file open: it collects
+ * lines and hands them to the pool once POOLED_FLUSH_BYTES have built up and
+ * on close, so a game with any number of players keeps the pool's bounded
+ * number of descriptors open. A logger created with a GzipLogWriter collects
+ * COMPRESSED_FLUSH_BYTES at a time the same way, and each chunk is
+ * compressed on the writer's threads.
  */
 public final class PlayerLogger implements AutoCloseable {
 
+    private static final byte[] PLAYER = ascii("player ");
+    private static final byte[] INITIAL_HAND = ascii(" initial hand ");
+    private static final byte[] DRAWS_A = ascii(" draws a ");
+    private static final byte[] DISCARDS_A = ascii(" discards a ");
+    private static final byte[] FROM_DECK = ascii(" from deck ");
+    private static final byte[] TO_DECK = ascii(" to deck ");
+    private static final byte[] CURRENT_HAND = ascii(" current hand is ");
+    private static final byte[] HAS_INFORMED = ascii(" has informed player ");
+    private static final byte[] THAT_PLAYER = ascii(" that player ");
+    private static final byte[] HAS_WON = ascii(" has won");
+    private static final byte[] WINS = ascii(" wins");
+    private static final byte[] FINAL_HAND = ascii(" final hand: ");
+    private static final byte[] EXITS = ascii(" exits");
+    private static final byte[] NEWLINE = ascii(System.lineSeparator());
+
+    /** Enough for any fixed line; hand lines grow the buffer if needed. */
+    private static final int INITIAL_CAPACITY = 256;
+    /** Bytes a pooled logger collects before writing them out. */
+    static final int POOLED_FLUSH_BYTES = 4096;
+    /** Bytes a compressing logger collects; larger chunks compress better. */
+    static final int COMPRESSED_FLUSH_BYTES = 16384;
+    /** Longest decimal form of an int ("-2147483648"). */
+    private static final int MAX_INT_DIGITS = 11;
+
     private final int playerId;
-    private final BufferedWriter writer;
+    private final byte[] playerPrefix; // "player <id>", encoded once
+    private final FileChannel channel; // own file, flushed per line; null when pooled
+    private final LogSink sink;        // pool or compressor, flushed in chunks; null when not pooled
+    private final int flushBytes;      // chunk size handed to the sink
+    private final Path path;
     private final Object lock = new Object();
+    private ValueRemap remap; // null: card values are written as given
+    private GameTracer.Buffer trace; // null: flushes are not traced
+    private ByteBuffer buf = ByteBuffer.allocate(INITIAL_CAPACITY);
 
-    private PlayerLogger(int playerId, BufferedWriter writer) {
+    private PlayerLogger(int playerId, FileChannel channel, LogSink sink, int flushBytes, Path path) {
         this.playerId = playerId;
-        this.writer = writer;
+        this.channel = channel;
+        this.sink = sink;
+        this.flushBytes = flushBytes;
+        this.path = path;
+        this.playerPrefix = concat(PLAYER, ascii(Integer.toString(playerId)));
     }
 
     /**
      * Creates a PlayerLogger for the given player id.
-     * The output file is named "player<id>_output.txt" and will be overwritten if present.
+     * The output file is named "player<id>_output.txt" in the working directory
+     * and will be overwritten if present.
      */
     public static PlayerLogger create(int playerId) throws IOException {
+        return create(Path.of(System.getProperty("user.dir")), playerId);
+    }
+
+    /**
+     * Creates a PlayerLogger writing "player<id>_output.txt" in the given directory.
+     */
+    public static PlayerLogger create(Path directory, int playerId) throws IOException {
         String fileName = "player" + playerId + "_output.txt";
-        Path path = Path.of(fileName);
-        BufferedWriter w = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
-        return new PlayerLogger(playerId, w);
+        Path path = directory.resolve(fileName);
+        FileChannel ch = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new PlayerLogger(playerId, ch, null, 0, path);
+    }
+
+    /**
+     * Creates a PlayerLogger writing "player<id>_output.txt" in the given
+     * directory through a shared pool of open files. The file holds every
+     * line once the logger is closed.
+     */
+    public static PlayerLogger create(LogFilePool pool, Path directory, int playerId) {
+        Path path = directory.resolve("player" + playerId + "_output.txt");
+        return new PlayerLogger(playerId, null, pool, POOLED_FLUSH_BYTES, path);
+    }
+
+    /**
+     * Creates a PlayerLogger writing "player<id>_output.txt.gz" in the given
+     * directory through a GzipLogWriter. Decompressed, the file holds the
+     * same bytes as the other loggers write.
+     */
+    public static PlayerLogger create(GzipLogWriter gzip, Path directory, int playerId) {
+        Path path = directory.resolve("player" + playerId + "_output.txt");
+        return new PlayerLogger(playerId, null, gzip, COMPRESSED_FLUSH_BYTES, path);
+    }
+
+    /** Records every flush of this logger in the given trace buffer. */
+    void setTrace(GameTracer.Buffer trace) {
+        this.trace = trace;
+    }
+
+    /**
+     * Makes the logger treat every card value it is given as a dense id and
+     * write the original value instead. Player ids are never translated.
+     */
+    void setValueRemap(ValueRemap remap) {
+        synchronized (lock) {
+            this.remap = remap;
+        }
     }
 
     /** Logs the initial hand dealt to the player. */
     public void logInitialHand(Collection<Integer> hand) throws IOException {
-        writeLine("player " + playerId + " initial hand " + join(hand));
+        synchronized (lock) {
+            begin(hand.size());
+            buf.put(playerPrefix).put(INITIAL_HAND);
+            putValues(hand);
+            endLine();
+        }
+    }
+
+    /** Logs the initial hand dealt to the player, read from a snapshot without boxing. */
+    public void logInitialHand(CardsSnapshot hand) throws IOException {
+        synchronized (lock) {
+            begin(hand.size());
+            buf.put(playerPrefix).put(INITIAL_HAND);
+            putValues(hand);
+            endLine();
+        }
     }
 
     /** Logs that the player drew a card from a specific deck. */
     public void logDraw(int cardValue, int fromDeckId) throws IOException {
-        writeLine("player " + playerId + " draws a " + cardValue + " from deck " + fromDeckId);
+        synchronized (lock) {
+            begin(0);
+            buf.put(playerPrefix).put(DRAWS_A);
+            putCard(cardValue);
+            buf.put(FROM_DECK);
+            putInt(fromDeckId);
+            endLine();
+        }
     }
 
     /** Logs that the player discarded a card to a specific deck. */
     public void logDiscard(int cardValue, int toDeckId) throws IOException {
-        writeLine("player " + playerId + " discards a " + cardValue + " to deck " + toDeckId);
+        synchronized (lock) {
+            begin(0);
+            buf.put(playerPrefix).put(DISCARDS_A);
+            putCard(cardValue);
+            buf.put(TO_DECK);
+            putInt(toDeckId);
+            endLine();
+        }
     }
 
     /** Logs the player's current hand after an action. */
     public void logCurrentHand(Collection<Integer> hand) throws IOException {
-        writeLine("player " + playerId + " current hand is " + join(hand));
+        synchronized (lock) {
+            begin(hand.size());
+            buf.put(playerPrefix).put(CURRENT_HAND);
+            putValues(hand);
+            endLine();
+        }
+    }
+
+    /** Logs the player's current hand after an action, read from a snapshot without boxing. */
+    public void logCurrentHand(CardsSnapshot hand) throws IOException {
+        synchronized (lock) {
+            begin(hand.size());
+            buf.put(playerPrefix).put(CURRENT_HAND);
+            putValues(hand);
+            endLine();
+        }
     }
 
     /** Logs that another player has informed this player that they have won. */
     public void logInformedByWinner(int winnerId) throws IOException {
-        writeLine("player " + winnerId + " has informed player " + playerId + " that player " + winnerId + " has won");
+        synchronized (lock) {
+            begin(0);
+            buf.put(PLAYER);
+            putInt(winnerId);
+            buf.put(HAS_INFORMED);
+            putInt(playerId);
+            buf.put(THAT_PLAYER);
+            putInt(winnerId);
+            buf.put(HAS_WON);
+            endLine();
+        }
     }
 
     /** Logs that this player has won. */
     public void logWin() throws IOException {
-        writeLine("player " + playerId + " wins");
+        synchronized (lock) {
+            begin(0);
+            buf.put(playerPrefix).put(WINS);
+            endLine();
+        }
     }
 
     /** Logs the player's final hand at game end. */
     public void logFinalHand(Collection<Integer> hand) throws IOException {
-        writeLine("player " + playerId + " final hand: " + join(hand));
+        synchronized (lock) {
+            begin(hand.size());
+            buf.put(playerPrefix).put(FINAL_HAND);
+            putValues(hand);
+            endLine();
+        }
+    }
+
+    /** Logs the player's final hand at game end, read from a snapshot without boxing. */
+    public void logFinalHand(CardsSnapshot hand) throws IOException {
+        synchronized (lock) {
+            begin(hand.size());
+            buf.put(playerPrefix).put(FINAL_HAND);
+            putValues(hand);
+            endLine();
+        }
     }
 
     /** Logs that this player exits. */
     public void logExit() throws IOException {
-        writeLine("player " + playerId + " exits");
+        synchronized (lock) {
+            begin(0);
+            buf.put(playerPrefix).put(EXITS);
+            endLine();
+        }
     }
 
-    /** Close the underlying writer. Call this in a finally block. */
+    /** Writes any collected lines and closes the file. Call this in a finally block. */
     @Override
     public void close() throws IOException {
         synchronized (lock) {
-            writer.close();
+            if (channel != null) {
+                channel.close();
+            } else {
+                flush(); // also creates the file if nothing was logged
+            }
         }
     }
 
+    /** Makes room for a line with this many values after any lines already collected. */
+    private void begin(int values) {
+        int worstCase = 128 + values * (MAX_INT_DIGITS + 1);
+        if (buf.remaining() < worstCase) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(buf.position() + worstCase, buf.capacity() * 2));
+            buf.flip();
+            buf = bigger.put(buf);
+        }
+    }
 
-    private void writeLine(String s) throws IOException {
-        synchronized (lock) {
-            writer.write(s);
-            writer.newLine();
-            writer.flush();
+    /** Terminates the line; writes it at once, or when a pooled logger has collected enough. */
+    private void endLine() throws IOException {
+        buf.put(NEWLINE);
+        if (channel != null || buf.position() >= flushBytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        JfrEvents.LogFlush jfrFlush = null;
+        if (JfrEvents.active()) {
+            jfrFlush = new JfrEvents.LogFlush();
+            jfrFlush.begin();
+        }
+        long start = trace != null ? System.nanoTime() : 0;
+        buf.flip();
+        int bytes = buf.remaining();
+        if (channel != null) {
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+        } else {
+            sink.write(path, buf);
+        }
+        buf.clear();
+        if (trace != null) trace.span(GameTracer.Kind.LOG_FLUSH, playerId, start, System.nanoTime());
+        if (jfrFlush != null) {
+            jfrFlush.end();
+            if (jfrFlush.shouldCommit()) {
+                jfrFlush.playerId = playerId;
+                jfrFlush.bytes = bytes;
+                jfrFlush.pooled = sink != null;
+                jfrFlush.commit();
+            }
         }
     }
 
-    private static String join(Collection<Integer> ints) {
-        StringJoiner sj = new StringJoiner(" ");
-        for (Integer i : ints) sj.add(String.valueOf(i));
-        return sj.toString();
+    /** Appends the values separated by single spaces, e.g. "1 1 2 4". */
+    private void putValues(Collection<Integer> values) {
+        boolean first = true;
+        for (Integer v : values) {
+            if (!first) buf.put((byte) ' ');
+            putCard(v);
+            first = false;
+        }
+    }
+
+    private void putValues(CardsSnapshot values) {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) buf.put((byte) ' ');
+            putCard(values.valueAt(i));
+        }
+    }
+
+    private void putCard(int value) {
+        putInt(remap == null ? value : remap.toValue(value));
+    }
+
+    /** Appends the decimal ASCII form of v without creating a String. */
+    private void putInt(int v) {
+        if (v == Integer.MIN_VALUE) {
+            buf.put(ascii(Integer.toString(v)));
+            return;
+        }
+        if (v < 0) {
+            buf.put((byte) '-');
+            v = -v;
+        }
+        if (v < 10) {
+            buf.put((byte) ('0' + v));
+            return;
+        }
+        // write digits right-to-left into the space they will occupy
+        int len = digits(v);
+        int end = buf.position() + len;
+        int pos = end;
+        while (v != 0) {
+            int q = v / 10;
+            buf.put(--pos, (byte) ('0' + (v - q * 10)));
+            v = q;
+        }
+        buf.position(end);
+    }
+
+    private static int digits(int v) {
+        int len = 1;
+        while (v >= 10) {
+            v /= 10;
+            len++;
+        }
+        return len;
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] out = new byte[a.length + b.length];
+        System.arraycopy(a, 0, out, 0, a.length);
+        System.arraycopy(b, 0, out, a.length, b.length);
+        return out;
     }
 }
@@ -0,0 +1,82 @@
+package com.ecm2414.cardgame;
+
+/**
+ * The built-in discard strategies.
+ * <p>
+ * A hand wins with k cards of any one value, not only the preferred one,
+ * and a card the right neighbour does not keep comes round the ring again.
+ * FIRST_NON_PREFERRED ignores both; the other two use one each.
+ */
+public enum StandardDiscard implements DiscardStrategy {
+
+    /** The first card in hand order that is not the preferred value. The game's original rule. */
+    FIRST_NON_PREFERRED {
+        @Override
+        public int chooseDiscard(int[] values, int size, int preferredValue, int neighbourValue) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] != preferredValue) return i;
+            }
+            return 0;
+        }
+    },
+
+    /**
+     * Holds on to the value with the most cards in hand, the preferred value
+     * on a tie, and discards a card of the value with the fewest; among those,
+     * a value other than the preferred one, then the oldest card.
+     */
+    KEEP_MOST_COMMON {
+        @Override
+        public int chooseDiscard(int[] values, int size, int preferredValue, int neighbourValue) {
+            int keep = values[0];
+            int keepCount = 0;
+            for (int i = 0; i < size; i++) {
+                int c = count(values, size, values[i]);
+                if (c > keepCount || (c == keepCount && values[i] == preferredValue)) {
+                    keep = values[i];
+                    keepCount = c;
+                }
+            }
+            int best = -1;
+            int bestCount = Integer.MAX_VALUE;
+            for (int i = 0; i < size; i++) {
+                if (values[i] == keep) continue;
+                int c = count(values, size, values[i]);
+                boolean better = c < bestCount
+                        || (c == bestCount && values[best] == preferredValue && values[i] != preferredValue);
+                if (better) {
+                    best = i;
+                    bestCount = c;
+                }
+            }
+            return best < 0 ? 0 : best;
+        }
+    },
+
+    /**
+     * Keeps the preferred value like FIRST_NON_PREFERRED, but discards the
+     * right neighbour's value first: the neighbour keeps it, where any other
+     * card is likely to be passed on round the ring again.
+     */
+    FEED_NEIGHBOUR {
+        @Override
+        public int chooseDiscard(int[] values, int size, int preferredValue, int neighbourValue) {
+            int first = -1;
+            for (int i = 0; i < size; i++) {
+                if (values[i] == preferredValue) continue;
+                if (values[i] == neighbourValue) return i;
+                if (first < 0) first = i;
+            }
+            return first < 0 ? 0 : first;
+        }
+    };
+
+    /** Returns how many of values[0..size) equal v; hands are small enough to count each time. */
+    private static int count(int[] values, int size, int v) {
+        int c = 0;
+        for (int i = 0; i < size; i++) {
+            if (values[i] == v) c++;
+        }
+        return c;
+    }
+}
@@ -0,0 +1,129 @@
+package com.ecm2414.cardgame;
+
+/**
+ * Which deck each player discards to. Player p always draws from deck p.
+ * <p>
+ * In the single RING player p discards to deck p + 1 and player n to deck 1,
+ * so a stalled player starves the next one once its deck runs dry, then the
+ * one after that, round the whole ring. shards(s) splits the players into s
+ * contiguous blocks that are rings of their own, which keeps a stall inside
+ * its block. crossLinked(s, every) adds a link from each block's last player
+ * to the next block's first deck, taken on every every-th turn instead of
+ * the player's own ring, so cards still move between blocks. Separate
+ * rings never exchange cards: such a game ends only if one ring holds k
+ * cards of a value, so give it a turn or time budget otherwise.
+ * <p>
+ * Every deck is still drawn by one player and a turn still locks the two
+ * decks it touches in order of deck id, so the lock order is the same global
+ * order as in the ring whatever the topology. Compact and deterministic
+ * games only play on the single ring; GameConfig refuses any other.
+ */
+public final class Topology {
+
+    /** The original ring of all players. */
+    public static final Topology RING = new Topology(1, 0);
+
+    private final int shards;
+    private final int linkEvery; // 0 = no links
+
+    private Topology(int shards, int linkEvery) {
+        this.shards = shards;
+        this.linkEvery = linkEvery;
+    }
+
+    /**
+     * Returns s independent rings of about n / s players each.
+     *
+     * @param shards number of rings; must be > 0 and at most the number of players
+     */
+    public static Topology shards(int shards) {
+        if (shards <= 0) {
+            throw new IllegalArgumentException("Number of shards must be positive.");
+        }
+        return shards == 1 ? RING : new Topology(shards, 0);
+    }
+
+    /**
+     * Returns s rings in which each ring's last player discards to the next
+     * ring's first deck on every every-th turn.
+     *
+     * @param shards    number of rings; must be > 1 and at most the number of players
+     * @param linkEvery turns between two discards over a link; must be > 0
+     */
+    public static Topology crossLinked(int shards, int linkEvery) {
+        if (shards <= 1) {
+            throw new IllegalArgumentException("Cross-links need at least two shards.");
+        }
+        if (linkEvery <= 0) {
+            throw new IllegalArgumentException("Link interval must be positive.");
+        }
+        return new Topology(shards, linkEvery);
+    }
+
+    /** Returns the number of rings. */
+    public int getShards() {
+        return shards;
+    }
+
+    /** Returns the turns between two discards over a link, or 0 if the rings are not linked. */
+    public int getLinkEvery() {
+        return linkEvery;
+    }
+
+    /** Checks that every ring of a game of n players has at least one player. */
+    void validate(int n) {
+        if (shards > n) {
+            throw new IllegalArgumentException("Cannot split " + n + " players into " + shards + " shards.");
+        }
+    }
+
+    /** Returns the deck player p discards to on a turn not taken over a link. */
+    public int rightDeck(int p, int n) {
+        int s = shardOf(p, n);
+        return p + 1 < start(s + 1, n) ? p + 1 : start(s, n);
+    }
+
+    /** Returns the deck player p discards to on every getLinkEvery()-th turn, or -1 if it has no link. */
+    public int linkDeck(int p, int n) {
+        if (linkEvery == 0) return -1;
+        int s = shardOf(p, n);
+        return p == start(s + 1, n) - 1 ? start((s + 1) % shards, n) : -1;
+    }
+
+    /** Returns the first player of ring s; start(shards, n) is n + 1. */
+    private int start(int s, int n) {
+        return 1 + (int) ((long) s * n / shards);
+    }
+
+    private int shardOf(int p, int n) {
+        int s = (int) ((long) (p - 1) * shards / n);
+        while (start(s + 1, n) <= p) s++;
+        while (start(s, n) > p) s--;
+        return s;
+    }
+
+    @Override
+    public String toString() {
+        if (shards == 1) return "RING";
+        return linkEvery == 0 ? "SHARDS:" + shards : "LINKED:" + shards + ":" + linkEvery;
+    }
+
+    /**
+     * Parses the form toString returns: RING, SHARDS:s or LINKED:s:every.
+     *
+     * @throws IllegalArgumentException if the text is not a topology
+     */
+    public static Topology parse(String text) {
+        String[] parts = text.split(":");
+        try {
+            if (parts.length == 1 && parts[0].equals("RING")) return RING;
+            if (parts.length == 2 && parts[0].equals("SHARDS")) return shards(Integer.parseInt(parts[1]));
+            if (parts.length == 3 && parts[0].equals("LINKED")) {
+                return crossLinked(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Invalid topology: " + text + ".");
+    }
+}
@@ -0,0 +1,123 @@
+package com.ecm2414.cardgame;
+
+import java.util.Locale;
+
+/**
+ * The latency histograms of one player's turns, or of a whole game once the
+ * players' histograms are merged:
+ * <ul>
+ *   <li>draw wait - from the start of a turn until the left deck has a card</li>
+ *   <li>lock acquire - taking the monitors of both decks</li>
+ *   <li>log write - publishing the turn's events; includes any wait for a
+ *       full BLOCK subscriber, such as a player log writer that has fallen
+ *       behind the disk</li>
+ *   <li>turn - all of the above plus the draw, discard and win check</li>
+ * </ul>
+ */
+public final class TurnLatencies {
+
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+    private static final String[] QUANTILE_LABELS = {"0.5", "0.99", "0.999"};
+    private static final String[] SHORT_NAMES = {"p50", "p99", "p999"};
+
+    private final LatencyHistogram drawWait = new LatencyHistogram();
+    private final LatencyHistogram lockAcquire = new LatencyHistogram();
+    private final LatencyHistogram logWrite = new LatencyHistogram();
+    private final LatencyHistogram turn = new LatencyHistogram();
+
+    /** Returns the histogram of draw waits. */
+    public LatencyHistogram getDrawWait() {
+        return drawWait;
+    }
+
+    /** Returns the histogram of lock acquisitions. */
+    public LatencyHistogram getLockAcquire() {
+        return lockAcquire;
+    }
+
+    /** Returns the histogram of log writes. */
+    public LatencyHistogram getLogWrite() {
+        return logWrite;
+    }
+
+    /** Returns the histogram of whole turns. */
+    public LatencyHistogram getTurn() {
+        return turn;
+    }
+
+    /** Adds another player's histograms to these. */
+    public void merge(TurnLatencies other) {
+        drawWait.merge(other.drawWait);
+        lockAcquire.merge(other.lockAcquire);
+        logWrite.merge(other.logWrite);
+        turn.merge(other.turn);
+    }
+
+    /**
+     * Renders the histograms in the Prometheus text exposition format, one
+     * histogram per phase with only its non-empty buckets, plus the p50, p99
+     * and p999 as a separate gauge. Values are in seconds. Two runs can be
+     * compared with a plain diff.
+     */
+    public String toPrometheus() {
+        StringBuilder sb = new StringBuilder();
+        append(sb, "draw_wait", "Time from the start of a turn until the left deck has a card.", drawWait);
+        append(sb, "lock_acquire", "Time to take the monitors of both decks.", lockAcquire);
+        append(sb, "log_write", "Time to publish the events of a turn.", logWrite);
+        append(sb, "turn", "Total time of a turn.", turn);
+        return sb.toString();
+    }
+
+    /** Returns one line per phase, e.g. "turn: n=120 p50=10.2us p99=85.0us p999=1.2ms max=1.3ms". */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        line(sb, "draw wait", drawWait);
+        line(sb, "lock acquire", lockAcquire);
+        line(sb, "log write", logWrite);
+        line(sb, "turn", turn);
+        return sb.toString();
+    }
+
+    private static void line(StringBuilder sb, String name, LatencyHistogram h) {
+        sb.append(name).append(": n=").append(h.getCount());
+        for (int i = 0; i < QUANTILES.length; i++) {
+            sb.append(' ').append(SHORT_NAMES[i]).append('=').append(human(h.percentile(QUANTILES[i])));
+        }
+        sb.append(" max=").append(human(h.getMax())).append(System.lineSeparator());
+    }
+
+    private static void append(StringBuilder sb, String phase, String help, LatencyHistogram h) {
+        String name = "cardgame_" + phase + "_seconds";
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(" histogram\n");
+        long cumulative = 0;
+        for (int i = 0; i < LatencyHistogram.BUCKETS - 1; i++) {
+            if (h.countAt(i) == 0) continue;
+            cumulative += h.countAt(i);
+            sb.append(name).append("_bucket{le=\"").append(seconds(LatencyHistogram.upperBound(i)))
+                    .append("\"} ").append(cumulative).append('\n');
+        }
+        sb.append(name).append("_bucket{le=\"+Inf\"} ").append(h.getCount()).append('\n');
+        sb.append(name).append("_sum ").append(seconds(h.getSum())).append('\n');
+        sb.append(name).append("_count ").append(h.getCount()).append('\n');
+
+        String quantiles = "cardgame_" + phase + "_quantile_seconds";
+        sb.append("# TYPE ").append(quantiles).append(" gauge\n");
+        for (int i = 0; i < QUANTILES.length; i++) {
+            sb.append(quantiles).append("{quantile=\"").append(QUANTILE_LABELS[i]).append("\"} ")
+                    .append(seconds(h.percentile(QUANTILES[i]))).append('\n');
+        }
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+
+    private static String human(long nanos) {
+        if (nanos < 1_000) return nanos + "ns";
+        if (nanos < 1_000_000) return String.format(Locale.ROOT, "%.1fus", nanos / 1e3);
+        if (nanos < 1_000_000_000) return String.format(Locale.ROOT, "%.1fms", nanos / 1e6);
+        return String.format(Locale.ROOT, "%.2fs", nanos / 1e9);
+    }
+}
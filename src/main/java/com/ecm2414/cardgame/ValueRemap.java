@@ -0,0 +1,97 @@
+package com.ecm2414.cardgame;
+
+import java.util.Arrays;
+
+/**
+ * Maps the distinct card values of a pack to dense ids 0..m-1 and back.
+ * <p>
+ * Card values may be any non-negative int, so per-value bookkeeping would
+ * otherwise need a hash map. With a remap the game plays on ids, and counts
+ * or bitsets indexed by id need only {@link #size()} slots; the original
+ * values are restored for output. Ids follow the order in which values first
+ * appear in the pack. Built by {@link PackLoader#remap(int[])}.
+ */
+public final class ValueRemap {
+
+    private static final int EMPTY = -1; // card values are non-negative
+
+    private int[] values = new int[16]; // id -> original value
+    private int size = 0;
+    private int[] keys;                  // open addressing: original value, or EMPTY
+    private int[] ids;                   // id stored next to its key
+
+    ValueRemap() {
+        keys = new int[32];
+        ids = new int[32];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /** Returns the number of distinct values, m; ids are 0..m-1. */
+    public int size() {
+        return size;
+    }
+
+    /** Returns the original card value of an id. */
+    public int toValue(int id) {
+        if (id < 0 || id >= size) {
+            throw new IllegalArgumentException("No card value has id " + id);
+        }
+        return values[id];
+    }
+
+    /** Returns the id of an original card value, or -1 if the pack has no such card. */
+    public int toId(int value) {
+        int slot = slot(value);
+        return keys[slot] == EMPTY ? -1 : ids[slot];
+    }
+
+    /** Returns the snapshot with every id replaced by its original value; the version is kept. */
+    public CardsSnapshot toValues(CardsSnapshot idSnapshot) {
+        int[] out = new int[idSnapshot.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = values[idSnapshot.valueAt(i)];
+        }
+        return new CardsSnapshot(idSnapshot.getVersion(), out);
+    }
+
+    /** Returns the id of value, giving it the next id if it has none yet. */
+    int assign(int value) {
+        int slot = slot(value);
+        if (keys[slot] != EMPTY) {
+            return ids[slot];
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        int id = size++;
+        values[id] = value;
+        keys[slot] = value;
+        ids[slot] = id;
+        if (size * 2 > keys.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    /** Linear probe for value: its slot, or the empty slot where it belongs. */
+    private int slot(int value) {
+        int mask = keys.length - 1;
+        int h = value * 0x9E3779B9;
+        int i = (h ^ (h >>> 16)) & mask;
+        while (keys[i] != EMPTY && keys[i] != value) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void rehash() {
+        keys = new int[keys.length * 2];
+        ids = new int[keys.length];
+        Arrays.fill(keys, EMPTY);
+        for (int id = 0; id < size; id++) {
+            int slot = slot(values[id]);
+            keys[slot] = values[id];
+            ids[slot] = id;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.ecm2414.cardgame;
+
+/**
+ * How a player waits for a card on an empty Deck.
+ */
+public enum WaitStrategy {
+    /**
+     * Object.wait on the deck's monitor; every discard calls notifyAll.
+     * Each wake-up is a context switch, and the woken reader must then
+     * re-acquire the monitor the discarding player may still hold.
+     */
+    MONITOR,
+    /**
+     * Spin briefly (only with more than one CPU), then yield a few times,
+     * then park. A discard unparks the deck's one waiting reader directly
+     * and calls notifyAll only if a thread is waiting on the monitor.
+     * Short waits never leave the CPU and long ones cost one targeted wake-up.
+     */
+    SPIN_PARK
+}
@@ -0,0 +1,132 @@
+package com.ecm2414.cardgame;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Player threads and Deck/Hand objects kept between games, for a process
+ * that plays many games (see GameServer), so a game neither starts n threads
+ * nor allocates its containers.
+ * <p>
+ * Every player of a game needs its own thread for as long as the game runs,
+ * since a player waiting for a card only gets one when its neighbour plays;
+ * the executor therefore never queues a task, it hands it to an idle thread
+ * or starts a new one, and idle threads stop after the keep-alive time.
+ * Decks and hands are kept as whole sets per number of players, hand size
+ * and wait strategy, and refilled from the next game's pack.
+ */
+final class WarmPool implements AutoCloseable {
+
+    private final ThreadPoolExecutor threads;
+    private final int maxIdleSets;
+    private final Map<String, ArrayDeque<Set>> idle = new HashMap<>(); // guarded by this
+    private int idleSets = 0;  // guarded by this
+    private long createdSets = 0; // guarded by this
+    private long reusedSets = 0;  // guarded by this
+
+    /** The decks and hands of one game. */
+    static final class Set {
+        private final String shape;
+        final List<Hand> hands;
+        final Deck[] decks;
+
+        private Set(String shape, List<Hand> hands, Deck[] decks) {
+            this.shape = shape;
+            this.hands = hands;
+            this.decks = decks;
+        }
+    }
+
+    /**
+     * @param maxIdleSets     most deck and hand sets kept while no game uses them
+     * @param keepAliveMillis time an idle player thread is kept
+     */
+    WarmPool(int maxIdleSets, long keepAliveMillis) {
+        this.maxIdleSets = maxIdleSets;
+        AtomicInteger count = new AtomicInteger();
+        this.threads = new ThreadPoolExecutor(0, Integer.MAX_VALUE, keepAliveMillis, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(), r -> {
+                    Thread t = new Thread(r, "warm-player-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /** Returns decks and hands dealt from the config's pack, reusing an idle set of the same shape. */
+    Set acquire(GameConfig config) {
+        String shape = config.getNumPlayers() + "x" + config.getHandSize() + " " + config.getWaitStrategy();
+        Set s = null;
+        synchronized (this) {
+            ArrayDeque<Set> sets = idle.get(shape);
+            if (sets != null) s = sets.pollFirst();
+            if (s != null) {
+                idleSets--;
+                reusedSets++;
+            } else {
+                createdSets++;
+            }
+        }
+        if (s == null) return new Set(shape, config.dealInitialHands(), config.dealDecks());
+        config.dealInto(s.hands, s.decks);
+        return s;
+    }
+
+    /** Takes back the set of a game whose players have all finished. */
+    synchronized void release(Set s) {
+        if (idleSets >= maxIdleSets) return;
+        idle.computeIfAbsent(s.shape, k -> new ArrayDeque<>()).addFirst(s);
+        idleSets++;
+    }
+
+    /** Runs a player on a pooled thread, named as the game's own thread would be. */
+    void execute(Runnable player, String name) {
+        threads.execute(() -> {
+            Thread t = Thread.currentThread();
+            String poolName = t.getName();
+            t.setName(name);
+            try {
+                player.run();
+            } finally {
+                t.setName(poolName);
+                Thread.interrupted(); // the next game starts uninterrupted
+            }
+        });
+    }
+
+    /** Returns the number of player threads, busy or idle. */
+    int getThreads() {
+        return threads.getPoolSize();
+    }
+
+    /** Returns the number of player threads running a game. */
+    int getBusyThreads() {
+        return threads.getActiveCount();
+    }
+
+    synchronized int getIdleSets() {
+        return idleSets;
+    }
+
+    synchronized long getCreatedSets() {
+        return createdSets;
+    }
+
+    synchronized long getReusedSets() {
+        return reusedSets;
+    }
+
+    @Override
+    public void close() {
+        threads.shutdownNow();
+        synchronized (this) {
+            idle.clear();
+            idleSets = 0;
+        }
+    }
+}
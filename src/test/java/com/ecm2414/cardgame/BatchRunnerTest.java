@@ -0,0 +1,111 @@
+package com.ecm2414.cardgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchRunnerTest {
+
+    @TempDir Path tmp;
+
+    private Path writePack(Path dir, String name, int[] values) throws Exception {
+        List<String> lines = Arrays.stream(values).mapToObj(Integer::toString).collect(Collectors.toList());
+        return Files.write(dir.resolve(name), lines);
+    }
+
+    @Test
+    void run_playsEveryPack_andReportsBadOnes() throws Exception {
+        Path packs = Files.createDirectory(tmp.resolve("packs"));
+        Path out = tmp.resolve("out");
+        for (int i = 0; i < 12; i++) {
+            writePack(packs, String.format("pack%02d.txt", i), new PackGenerator(i).generate(20 + i, 4));
+        }
+        writePack(packs, "short.txt", Arrays.copyOf(new PackGenerator(1).generate(5, 4), 39));
+        Files.write(packs.resolve("text.txt"), List.of("1", "2", "x", "4", "5", "6", "7", "8"));
+
+        BatchRunner runner = new BatchRunner(packs, out);
+        runner.setQueueCapacity(1);
+        runner.setThreads(BatchRunner.Stage.PLAY, 2);
+        BatchRunner.Report report = runner.run();
+
+        assertEquals(14, report.getPacks().size());
+        assertEquals(2, report.getFailedCount());
+        List<String> errors = new ArrayList<>();
+        for (BatchRunner.PackResult p : report.getPacks()) {
+            if (p.getError() != null) {
+                errors.add(p.getPackFile().getFileName() + ": " + p.getError());
+                continue;
+            }
+            GameResult r = p.getResult();
+            assertEquals(GameResult.Outcome.WON, r.getOutcome());
+            int n = r.getFinalState().getNumPlayers();
+            assertTrue(Files.readString(p.getOutputDirectory().resolve("player" + r.getWinnerId() + "_output.txt"))
+                    .contains("player " + r.getWinnerId() + " wins"));
+            assertTrue(Files.exists(p.getOutputDirectory().resolve("deck" + n + "_output.txt")));
+        }
+        assertEquals(List.of("short.txt: Pack file has 39 lines; expected 32.",
+                "text.txt: Line 3 is not a valid integer: \"x\""), errors);
+        assertTrue(Files.isDirectory(out.resolve("pack11")));
+
+        BatchRunner.StageStats read = report.getStageStats(BatchRunner.Stage.READ);
+        BatchRunner.StageStats validate = report.getStageStats(BatchRunner.Stage.VALIDATE);
+        BatchRunner.StageStats write = report.getStageStats(BatchRunner.Stage.WRITE);
+        assertEquals(14, read.getCompleted());
+        assertEquals(14, validate.getCompleted());
+        assertEquals(2, validate.getFailed());
+        assertEquals(12, write.getCompleted());
+        assertTrue(read.getMaxQueueDepth() <= 1 + 2); // capacity + READ threads
+        assertTrue(validate.getMaxQueueDepth() <= 1 + 1);
+        assertTrue(report.toString().contains("PLAY"));
+    }
+
+    @Test
+    void run_withCache_skipsPlayForRepeatedPacks() throws Exception {
+        Path packs = Files.createDirectory(tmp.resolve("packs"));
+        int[] values = new PackGenerator(9).generate(30, 4);
+        for (int i = 0; i < 4; i++) writePack(packs, "copy" + i + ".txt", values);
+
+        BatchRunner runner = new BatchRunner(packs, tmp.resolve("out"));
+        runner.setOutcomeCache(new OutcomeCache(1 << 20, null));
+        runner.setThreads(BatchRunner.Stage.PLAY, 1);
+        runner.setQueueCapacity(1);
+        BatchRunner.Report report = runner.run();
+
+        // DEAL is single-threaded and looks a pack up only after the one before was dealt;
+        // PLAY may still be busy with the first copy, so at least the last copy dealt is cached.
+        // READ has several threads, so that need not be copy3.
+        long played = report.getStageStats(BatchRunner.Stage.PLAY).getCompleted();
+        assertTrue(played >= 1 && played < 4, "played " + played);
+        long cached = report.getPacks().stream().filter(p -> p.getResult().isCached()).count();
+        assertEquals(4 - played, cached);
+        assertEquals(4, report.getStageStats(BatchRunner.Stage.WRITE).getCompleted());
+        assertEquals(Files.readString(tmp.resolve("out/copy0/deck7_output.txt")),
+                Files.readString(tmp.resolve("out/copy3/deck7_output.txt")));
+    }
+
+    @Test
+    void run_rejectsPacksWhoseOutputDirectoryIsTaken() throws Exception {
+        Path packs = Files.createDirectory(tmp.resolve("packs"));
+        writePack(packs, "a.csv", new PackGenerator(1).generate(5, 4));
+        writePack(packs, "a.txt", new PackGenerator(2).generate(5, 4));
+        writePack(packs, "b.txt", new PackGenerator(3).generate(5, 4));
+
+        BatchRunner.Report report = new BatchRunner(packs, tmp.resolve("out")).run();
+
+        assertEquals(3, report.getPacks().size());
+        assertEquals(1, report.getFailedCount());
+        BatchRunner.PackResult second = report.getPacks().get(1);
+        assertEquals("a.txt", second.getPackFile().getFileName().toString());
+        assertEquals("Output directory a is already that of a.csv.", second.getError());
+        assertEquals(tmp.resolve("out/a"), report.getPacks().get(0).getOutputDirectory());
+        assertEquals(2, report.getStageStats(BatchRunner.Stage.WRITE).getCompleted());
+    }
+}
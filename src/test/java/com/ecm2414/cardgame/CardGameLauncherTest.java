@@ -0,0 +1,42 @@
+package com.ecm2414.cardgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardGameLauncherTest {
+
+    @TempDir Path tmp;
+
+    @Test
+    void run_playsTheGameWithTheGivenOptions() throws Exception {
+        // Player 1 draws its fourth 1 on its first turn.
+        Path pack = Files.write(tmp.resolve("pack.txt"),
+                List.of("1", "2", "1", "2", "1", "2", "3", "3", "1", "4", "5", "6", "7", "8", "4", "5"));
+        Path out = Files.createDirectory(tmp.resolve("out"));
+        assertEquals(0, CardGameLauncher.run(new String[]{"2", pack.toString(), "--out", out.toString(),
+                "--verbosity", "SUMMARY", "--deterministic", "3"}));
+
+        assertTrue(Files.readString(out.resolve("player1_output.txt")).contains("player 1 wins"));
+        assertEquals("deck1 contents: 5 7 4", Files.readString(out.resolve("deck1_output.txt")).trim());
+    }
+
+    @Test
+    void run_returns1ForABadPack_and2ForBadArguments() throws Exception {
+        Path negative = Files.write(tmp.resolve("negative.txt"), List.of("1", "-2"));
+        assertEquals(1, CardGameLauncher.run(new String[]{"1", negative.toString()}));
+        assertEquals(1, CardGameLauncher.run(new String[]{"1", tmp.resolve("missing.txt").toString()}));
+
+        Path pack = Files.write(tmp.resolve("pack.txt"), List.of("1", "1", "1", "1", "2", "2", "2", "2"));
+        assertEquals(2, CardGameLauncher.run(new String[]{"1"}));
+        assertEquals(2, CardGameLauncher.run(new String[]{"one", pack.toString()}));
+        assertEquals(2, CardGameLauncher.run(new String[]{"1", pack.toString(), "--no-such-option", "x"}));
+        assertEquals(2, CardGameLauncher.run(new String[]{"1", pack.toString(), "--turn-budget"}));
+        assertEquals(2, CardGameLauncher.run(new String[]{"1", pack.toString(), "--wait", "SOMETIMES"}));
+    }
+}
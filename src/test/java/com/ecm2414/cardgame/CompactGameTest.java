@@ -0,0 +1,36 @@
+package com.ecm2414.cardgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactGameTest {
+
+    @Test
+    void compactGame_writesSummaryFiles(@TempDir Path dir) throws Exception {
+        // Player 1 is dealt 1 1 1 2 and draws the fourth 1 from deck 1.
+        int[] pack = {1, 5, 1, 6, 1, 7, 2, 8, 1, 9, 3, 3, 4, 4, 5, 5};
+        GameConfig config = new GameConfig(2, null, pack);
+        config.setOutputDirectory(dir);
+        config.setCompactMode(true, 1);
+
+        GameResult result = new GameController().startGame(config);
+
+        assertEquals(1, result.getWinnerId());
+        List<String> p1 = Files.readAllLines(dir.resolve("player1_output.txt"));
+        assertEquals("player 1 initial hand 1 1 1 2", p1.get(0));
+        assertEquals("player 1 wins", p1.get(1));
+        assertEquals("player 1 final hand: 1 1 1 1", p1.get(p1.size() - 1));
+        List<String> p2 = Files.readAllLines(dir.resolve("player2_output.txt"));
+        assertEquals("player 2 initial hand 5 6 7 8", p2.get(0));
+        assertEquals("player 1 has informed player 2 that player 1 has won", p2.get(1));
+        // one worker takes player 1's turn first, so player 2 never moves
+        assertEquals("deck1 contents: 3 4 5", Files.readAllLines(dir.resolve("deck1_output.txt")).get(0));
+        assertEquals("deck2 contents: 9 3 4 5 2", Files.readAllLines(dir.resolve("deck2_output.txt")).get(0));
+    }
+}
@@ -0,0 +1,85 @@
+package com.ecm2414.cardgame;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures what card conservation checking costs: a turn of a player with
+ * and without the per-turn check, and one sample over all decks and hands
+ * of a large game.
+ * <p>
+ * Off by default; run with -Dcardgame.bench=true. Writes
+ * target/conservation-report.txt.
+ */
+@Tag("bench")
+@EnabledIfSystemProperty(named = "cardgame.bench", matches = "true")
+class ConservationCheckerBenchmark {
+
+    private static final int TURNS = 2_000_000;
+    private static final int SAMPLE_PLAYERS = 10_000;
+    private static final Path REPORT = Path.of("target/conservation-report.txt");
+
+    @Test
+    void turnAndSampleCost() throws Exception {
+        StringBuilder report = new StringBuilder();
+        for (int round = 0; round < 3; round++) { // the first rounds are warm-up
+            double plain = nanosPerTurn(false);
+            double checked = nanosPerTurn(true);
+            double sample = nanosPerSample();
+            if (round == 2) {
+                report.append(String.format(Locale.ROOT,
+                        "turn: %.0f ns unchecked, %.0f ns checked (+%.0f ns)%n"
+                                + "sample of %d players: %.0f us%n",
+                        plain, checked, checked - plain, SAMPLE_PLAYERS, sample / 1e3));
+            }
+        }
+        Files.createDirectories(REPORT.getParent());
+        Files.writeString(REPORT, report);
+        System.out.print(report);
+    }
+
+    /** A turn as Player takes it: draw from the left deck, discard to the right one. */
+    private static double nanosPerTurn(boolean check) throws Exception {
+        GameConfig config = new GameConfig(2, new PackGenerator(1L), 4);
+        List<Hand> hands = config.dealInitialHands();
+        Deck[] decks = config.dealDecks();
+        ConservationChecker checker = new ConservationChecker(config, decks, hands, 1_000);
+        Hand hand = hands.get(0);
+        long start = System.nanoTime();
+        for (int t = 0; t < TURNS; t++) {
+            Deck left = decks[t & 1];
+            Deck right = decks[(t + 1) & 1];
+            synchronized (left) {
+                synchronized (right) {
+                    if (check) checker.beginTurn(1, left, hand, right);
+                    hand.addCard(left.drawCard());
+                    right.addCard(hand.removeCard(0));
+                    if (check) checker.endTurn(1, t, left, hand, right);
+                }
+            }
+        }
+        double nanos = (System.nanoTime() - start) / (double) TURNS;
+        assertEquals(0, checker.getViolationCount());
+        return nanos;
+    }
+
+    private static double nanosPerSample() throws Exception {
+        GameConfig config = new GameConfig(SAMPLE_PLAYERS, new PackGenerator(1L), 4);
+        ConservationChecker checker = new ConservationChecker(config, config.dealDecks(), config.dealInitialHands(),
+                1_000);
+        int samples = 200;
+        long start = System.nanoTime();
+        for (int i = 0; i < samples; i++) {
+            assertTrue(checker.sample());
+        }
+        return (System.nanoTime() - start) / (double) samples;
+    }
+}
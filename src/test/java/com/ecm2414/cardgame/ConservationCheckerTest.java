@@ -0,0 +1,74 @@
+package com.ecm2414.cardgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConservationCheckerTest {
+
+    @TempDir Path tmp;
+
+    private GameConfig config;
+    private List<Hand> hands;
+    private Deck[] decks;
+
+    private ConservationChecker dealt(int n) throws Exception {
+        config = new GameConfig(n, new PackGenerator(9L), 4);
+        hands = config.dealInitialHands();
+        decks = config.dealDecks();
+        return new ConservationChecker(config, decks, hands, 1_000);
+    }
+
+    @Test
+    void realGame_hasNoViolations() throws Exception {
+        GameConfig config = new GameConfig(8, new PackGenerator(4L), 4);
+        config.setOutputDirectory(tmp);
+        config.setConservationCheck(1);
+        assertEquals(List.of(), new GameController().startGame(config).getConservationViolations());
+    }
+
+    @Test
+    void lostCard_isReportedWithPlayerAndDecks_andBySamples() throws Exception {
+        ConservationChecker checker = dealt(3);
+        assertTrue(checker.sample());
+        assertEquals(0, checker.getViolationCount());
+
+        checker.beginTurn(2, decks[1], hands.get(1), decks[2]);
+        decks[1].drawCard(); // drawn, but never added to the hand
+        checker.endTurn(2, 5, decks[1], hands.get(1), decks[2]);
+        assertTrue(checker.sample());
+
+        assertEquals(2, checker.getViolationCount());
+        assertEquals("player 2 turn 5: deck 2, its hand and deck 3 hold 11 cards after the turn, 12 before",
+                checker.getViolations().get(0));
+        assertTrue(checker.getViolations().get(1).endsWith("hold 23 cards, the pack 24"));
+    }
+
+    @Test
+    void swappedCard_isReportedAsNotTheSameCards() throws Exception {
+        ConservationChecker checker = dealt(2);
+        Hand hand = hands.get(0);
+        checker.beginTurn(1, decks[0], hand, decks[1]);
+        int value = hand.getCardValues().get(0);
+        hand.removeCard(0);
+        hand.addCard(new Card(value + 1)); // the fallback bug: a card that was never drawn
+        checker.endTurn(1, 1, decks[0], hand, decks[1]);
+
+        assertTrue(checker.getViolations().get(0).endsWith("12 before, but not the same ones"));
+    }
+
+    @Test
+    void sample_isSkipped_whileAPlayerIsMidTurn() throws Exception {
+        ConservationChecker checker = dealt(2);
+        checker.beginTurn(1, decks[0], hands.get(0), decks[1]);
+        assertFalse(checker.sample());
+        assertEquals(1, checker.getSkipped());
+        checker.endTurn(1, 1, decks[0], hands.get(0), decks[1]);
+        assertTrue(checker.sample());
+        assertEquals(0, checker.getViolationCount());
+    }
+}
@@ -0,0 +1,119 @@
+package com.ecm2414.cardgame;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeckTest {
+
+    @Test
+    void drawCard_waitsForCardFromAnotherThread_withEitherStrategy() throws Exception {
+        for (WaitStrategy strategy : WaitStrategy.values()) {
+            Deck deck = new Deck(1, strategy);
+            AtomicReference<Card> drawn = new AtomicReference<>();
+            Thread reader = new Thread(() -> drawn.set(deck.drawCard()));
+            reader.start();
+            Thread.sleep(50); // long enough for SPIN_PARK to park
+            deck.addCard(new Card(7));
+            reader.join(5_000);
+
+            assertFalse(reader.isAlive(), strategy.name());
+            assertEquals(7, drawn.get().getValue(), strategy.name());
+            assertEquals(0, deck.size());
+        }
+    }
+
+    @Test
+    void awaitCard_timesOut_andReturnsFalseWhenInterrupted() throws Exception {
+        for (WaitStrategy strategy : WaitStrategy.values()) {
+            Deck deck = new Deck(1, strategy);
+            assertFalse(deck.awaitCard(20), strategy.name());
+
+            CountDownLatch started = new CountDownLatch(1);
+            AtomicReference<Boolean> result = new AtomicReference<>();
+            Thread reader = new Thread(() -> {
+                started.countDown();
+                result.set(deck.awaitCard(10_000));
+            });
+            reader.start();
+            started.await();
+            reader.interrupt();
+            reader.join(5_000);
+
+            assertFalse(reader.isAlive(), strategy.name());
+            assertFalse(result.get(), strategy.name());
+        }
+    }
+
+    @Test
+    void drawCard_whileHoldingTheDeck_fallsBackToMonitorWait() throws Exception {
+        Deck deck = new Deck(1, WaitStrategy.SPIN_PARK);
+        AtomicReference<Card> drawn = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            synchronized (deck) { // as Player does while it holds both decks
+                drawn.set(deck.drawCard());
+            }
+        });
+        reader.start();
+        Thread.sleep(50);
+        deck.addCard(new Card(3));
+        reader.join(5_000);
+
+        assertFalse(reader.isAlive());
+        assertEquals(3, drawn.get().getValue());
+    }
+
+    @Test
+    void close_wakesABlockedDrawer_withEitherStrategy() throws Exception {
+        for (WaitStrategy strategy : WaitStrategy.values()) {
+            Deck deck = new Deck(1, strategy);
+            AtomicReference<Card> drawn = new AtomicReference<>(new Card(0));
+            Thread reader = new Thread(() -> drawn.set(deck.drawCard()));
+            reader.start();
+            Thread.sleep(50);
+            deck.close();
+            reader.join(5_000);
+
+            assertFalse(reader.isAlive(), strategy.name());
+            assertNull(drawn.get(), strategy.name());
+            assertFalse(deck.awaitCard(10_000), strategy.name()); // returns at once
+            deck.addCard(new Card(4));
+            assertEquals(4, deck.drawCard().getValue(), strategy.name());
+        }
+    }
+
+    @Test
+    void snapshot_isCopiedOncePerChange_andLockFreeOnceWatched() throws Exception {
+        Deck deck = new Deck(1);
+        deck.addCard(new Card(1));
+        deck.addCard(new Card(2));
+        CardsSnapshot first = deck.snapshot();
+        assertSame(first, deck.snapshot()); // nothing changed, nothing copied
+        deck.drawCard();
+        assertEquals("2", deck.snapshot().toString());
+        assertEquals(first.getVersion() + 1, deck.snapshot().getVersion());
+
+        deck.watch();
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            synchronized (deck) {
+                deck.addCard(new Card(3));
+                held.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        holder.start();
+        held.await();
+        assertEquals("2 3", deck.contentsString()); // read while another thread holds the lock
+        release.countDown();
+        holder.join();
+    }
+}
@@ -0,0 +1,98 @@
+package com.ecm2414.cardgame;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the two deck wait strategies on a ping-pong between two threads:
+ * each thread draws from one deck and discards to the other, so every card
+ * hand-off wakes the other thread, which is the draw path of a small game.
+ * <p>
+ * Off by default; run with -Dcardgame.bench=true. Reports round trips per
+ * second, the median and p99 hand-off latency and the context switches of both
+ * threads (from /proc, Linux only) to target/deck-wait-report.txt. Other
+ * properties: cardgame.bench.roundTrips (default 200000).
+ */
+@Tag("bench")
+@EnabledIfSystemProperty(named = "cardgame.bench", matches = "true")
+class DeckWaitBenchmark {
+
+    private static final int ROUND_TRIPS = Integer.getInteger("cardgame.bench.roundTrips", 200_000);
+    private static final Path REPORT = Path.of("target/deck-wait-report.txt");
+
+    @Test
+    void pingPong_monitorVersusSpinPark() throws Exception {
+        StringBuilder report = new StringBuilder();
+        report.append("cpus=").append(Runtime.getRuntime().availableProcessors())
+                .append(" roundTrips=").append(ROUND_TRIPS).append(System.lineSeparator());
+        for (int round = 0; round < 2; round++) { // the first round is warm-up
+            for (WaitStrategy strategy : WaitStrategy.values()) {
+                String line = run(strategy);
+                if (round == 1) report.append(line).append(System.lineSeparator());
+            }
+        }
+        Files.createDirectories(REPORT.getParent());
+        Files.writeString(REPORT, report);
+        System.out.print(report);
+    }
+
+    private static String run(WaitStrategy strategy) throws Exception {
+        Deck ping = new Deck(1, strategy);
+        Deck pong = new Deck(2, strategy);
+        LatencyHistogram handoffs = new LatencyHistogram();
+        long[] echoSwitches = new long[1];
+        Thread echo = new Thread(() -> {
+            long before = contextSwitches();
+            for (int i = 0; i < ROUND_TRIPS; i++) {
+                Card c = ping.drawCard();
+                if (c == null) return;
+                pong.addCard(c);
+            }
+            echoSwitches[0] = contextSwitches() - before;
+        });
+        long switchesBefore = contextSwitches();
+        long start = System.nanoTime();
+        echo.start();
+        Card card = new Card(1);
+        for (int i = 0; i < ROUND_TRIPS; i++) {
+            long sent = System.nanoTime();
+            ping.addCard(card);
+            card = pong.drawCard();
+            handoffs.record((System.nanoTime() - sent) / 2); // two hand-offs per round trip
+        }
+        long switches = contextSwitches() - switchesBefore;
+        echo.join();
+        long elapsed = System.nanoTime() - start;
+        switches += echoSwitches[0];
+        assertEquals(1, card.getValue());
+
+        return String.format(Locale.ROOT, "%-9s roundTrips/s=%.0f handoff p50=%dns p99=%dns contextSwitches=%d",
+                strategy, ROUND_TRIPS * 1e9 / elapsed, handoffs.percentile(0.5), handoffs.percentile(0.99),
+                switches);
+    }
+
+    /** Returns the voluntary plus involuntary context switches of the calling thread, or -1 off Linux. */
+    private static long contextSwitches() {
+        Path status = Path.of("/proc/thread-self/status");
+        if (!Files.exists(status)) return -1;
+        long total = 0;
+        try {
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("voluntary_ctxt_switches:") || line.startsWith("nonvoluntary_ctxt_switches:")) {
+                    total += Long.parseLong(line.substring(line.indexOf(':') + 1).trim());
+                }
+            }
+        } catch (IOException e) {
+            return -1;
+        }
+        return total;
+    }
+}
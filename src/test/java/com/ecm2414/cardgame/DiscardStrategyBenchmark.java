@@ -0,0 +1,96 @@
+package com.ecm2414.cardgame;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the discard strategies on the same generated packs: every value
+ * 1..n eight times, shuffled, so no hand is dealt a planted win and the
+ * game length depends on the discards.
+ * <p>
+ * Off by default; run with -Dcardgame.bench=true. Reports, per player count
+ * and strategy, the mean, median, p90 and largest turns-to-win (turns of all
+ * players together), the mean wall time per game and the games that hit the
+ * turn cap, to target/discard-report.txt. Other properties:
+ * cardgame.bench.games (default 20), cardgame.bench.players (default 4,8)
+ * and cardgame.bench.turnCap, turns per player before a game is stopped
+ * (default 500).
+ */
+@Tag("bench")
+@EnabledIfSystemProperty(named = "cardgame.bench", matches = "true")
+class DiscardStrategyBenchmark {
+
+    private static final int GAMES = Integer.getInteger("cardgame.bench.games", 20);
+    private static final String PLAYERS = System.getProperty("cardgame.bench.players", "4,8");
+    private static final int TURN_CAP = Integer.getInteger("cardgame.bench.turnCap", 500);
+    private static final Path REPORT = Path.of("target/discard-report.txt");
+
+    @TempDir Path tmp;
+
+    @Test
+    void turnsToWin_perStrategy() throws Exception {
+        StringBuilder report = new StringBuilder();
+        report.append("games=").append(GAMES).append(" turnCap=").append(TURN_CAP).append("/player")
+                .append(System.lineSeparator());
+        for (String p : PLAYERS.split(",")) {
+            int n = Integer.parseInt(p.trim());
+            for (StandardDiscard strategy : StandardDiscard.values()) {
+                report.append(run(n, strategy)).append(System.lineSeparator());
+            }
+        }
+        Files.createDirectories(REPORT.getParent());
+        Files.writeString(REPORT, report);
+        System.out.print(report);
+    }
+
+    private String run(int n, StandardDiscard strategy) throws Exception {
+        long[] turns = new long[GAMES];
+        long wallNanos = 0;
+        int capped = 0;
+        for (int g = 0; g < GAMES; g++) {
+            GameConfig config = new GameConfig(n, null, shuffledPack(n, 1000L * n + g));
+            config.setDiscardStrategy(strategy);
+            config.setTurnBudget((long) TURN_CAP * n);
+            config.setLogVerbosity(LogVerbosity.SUMMARY, 1);
+            config.setOutputDirectory(Files.createDirectories(tmp.resolve(strategy + "-" + n + "-" + g)));
+            GameResult r = new GameController().startGame(config);
+            if (r.getOutcome() == GameResult.Outcome.TURN_BUDGET_EXHAUSTED) {
+                capped++;
+            } else {
+                assertEquals(GameResult.Outcome.WON, r.getOutcome());
+            }
+            turns[g] = r.getTotalTurns();
+            wallNanos += r.getElapsedNanos();
+        }
+        Arrays.sort(turns);
+        return String.format(Locale.ROOT,
+                "n=%-3d %-19s turns mean=%.0f p50=%d p90=%d max=%d  wall mean=%.0fms  capped=%d",
+                n, strategy, Arrays.stream(turns).average().orElse(0), turns[GAMES / 2],
+                turns[Math.min(GAMES - 1, (int) Math.ceil(GAMES * 0.9) - 1)], turns[GAMES - 1],
+                wallNanos / 1e6 / GAMES, capped);
+    }
+
+    /** Returns every value 1..n eight times in an order drawn from the seed. */
+    private static int[] shuffledPack(int n, long seed) {
+        int[] values = new int[8 * n];
+        for (int i = 0; i < values.length; i++) values[i] = i % n + 1;
+        Random rnd = new Random(seed);
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int t = values[i];
+            values[i] = values[j];
+            values[j] = t;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,92 @@
+package com.ecm2414.cardgame;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures the heap a compact game needs per player with a class histogram
+ * taken before and after setting it up, and writes the difference to
+ * target/footprint-report.txt.
+ * <p>
+ * Off by default because a million players need a large heap and two full
+ * GCs; run with -Dcardgame.bench=true.
+ */
+@Tag("bench")
+@EnabledIfSystemProperty(named = "cardgame.bench", matches = "true")
+class FootprintTest {
+
+    private static final int PLAYERS = 1_000_000;
+    /** Budget for game state per player, on top of the pack held by GameConfig. */
+    private static final long BUDGET_BYTES_PER_PLAYER = 200;
+    private static final Path REPORT = Path.of("target/footprint-report.txt");
+    private static final Pattern ROW = Pattern.compile("^\\s*\\d+:\\s+(\\d+)\\s+(\\d+)\\s+(\\S+)");
+
+    @Test
+    void compactGame_millionPlayers_staysWithinBudget() throws Exception {
+        GameConfig config = new GameConfig(PLAYERS, new PackGenerator(7L), 4);
+        Map<String, long[]> before = histogram(); // also a full GC
+
+        CompactGame game = new CompactGame(config);
+        Map<String, long[]> after = histogram();
+
+        List<String> rows = new ArrayList<>();
+        long total = 0;
+        for (Map.Entry<String, long[]> e : after.entrySet()) {
+            long[] b = before.getOrDefault(e.getKey(), new long[2]);
+            long bytes = e.getValue()[1] - b[1];
+            total += bytes;
+            if (bytes >= PLAYERS) { // only classes costing at least a byte per player
+                rows.add(String.format("%12d %10d  %s", bytes, e.getValue()[0] - b[0], e.getKey()));
+            }
+        }
+        rows.sort((x, y) -> y.compareTo(x));
+        long perPlayer = total / PLAYERS;
+        long packPerPlayer = 4L * config.getPackSize() / PLAYERS;
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("players: ").append(PLAYERS).append('\n');
+        sb.append("game state bytes: ").append(total).append('\n');
+        sb.append("game state bytes per player: ").append(perPlayer).append('\n');
+        sb.append("pack bytes per player (GameConfig): ").append(packPerPlayer).append('\n');
+        sb.append("budget per player: ").append(BUDGET_BYTES_PER_PLAYER).append(" + pack\n");
+        sb.append("\n       bytes  instances  class\n");
+        for (String r : rows) sb.append(r).append('\n');
+        Files.createDirectories(REPORT.getParent());
+        Files.writeString(REPORT, sb.toString(), StandardCharsets.UTF_8);
+
+        assertTrue(perPlayer <= BUDGET_BYTES_PER_PLAYER,
+                "compact game uses " + perPlayer + " bytes per player, see " + REPORT);
+        assertNotEquals(-1, game.play(2));
+    }
+
+    /** Runs GC.class_histogram and returns class name -> {instances, bytes}. */
+    private static Map<String, long[]> histogram() throws Exception {
+        String out = (String) ManagementFactory.getPlatformMBeanServer().invoke(
+                new ObjectName("com.sun.management:type=DiagnosticCommand"), "gcClassHistogram",
+                new Object[]{new String[0]}, new String[]{String[].class.getName()});
+        Map<String, long[]> classes = new HashMap<>();
+        for (String line : out.split("\n")) {
+            Matcher m = ROW.matcher(line);
+            if (m.find()) {
+                classes.merge(m.group(3), new long[]{Long.parseLong(m.group(1)), Long.parseLong(m.group(2))},
+                        (a, b) -> new long[]{a[0] + b[0], a[1] + b[1]});
+            }
+        }
+        return classes;
+    }
+}
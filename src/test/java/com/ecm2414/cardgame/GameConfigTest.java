@@ -0,0 +1,84 @@
+package com.ecm2414.cardgame;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameConfigTest {
+
+    @Test
+    void dealing_matchesRoundRobinLayout_serialAndParallel() {
+        for (int n : new int[]{1, 3, 20_000}) { // 20,000 is above the parallel threshold
+            int[] pack = new int[8 * n];
+            for (int i = 0; i < pack.length; i++) pack[i] = i;
+            GameConfig config = new GameConfig(n, null, pack);
+
+            List<Hand> hands = config.dealInitialHands();
+            Deck[] decks = config.dealDecks();
+            Deck[] filled = new Deck[n];
+            for (int d = 0; d < n; d++) filled[d] = new Deck(d + 1);
+            config.fillDecks(filled);
+
+            assertEquals(n, hands.size());
+            for (int p = 0; p < n; p++) {
+                assertEquals(List.of(p, n + p, 2 * n + p, 3 * n + p), hands.get(p).getCardValues());
+                assertEquals(p + 1, decks[p].getId());
+                assertEquals(filled[p].snapshot().getValues(), decks[p].snapshot().getValues());
+            }
+        }
+    }
+
+    @Test
+    void dealing_withLargerHands_givesKCardsToEveryHandAndDeck() {
+        int n = 3, k = 6;
+        int[] pack = new int[2 * k * n];
+        for (int i = 0; i < pack.length; i++) pack[i] = i;
+        GameConfig config = new GameConfig(n, null, pack, k);
+
+        List<Hand> hands = config.dealInitialHands();
+        Deck[] decks = config.dealDecks();
+
+        assertEquals(List.of(1, 4, 7, 10, 13, 16), hands.get(1).getCardValues());
+        assertTrue(hands.get(1).isValidHand());
+        assertEquals("19 22 25 28 31 34", decks[1].contentsString());
+        assertThrows(IllegalArgumentException.class, () -> new GameConfig(n, null, new int[8 * n], k));
+    }
+
+    @Test
+    void dealtDeck_keepsFifoOrder_whenItsRingWrapsAndGrows() {
+        GameConfig config = new GameConfig(1, null, new int[]{0, 0, 0, 0, 1, 2, 3, 4});
+        Deck deck = config.dealDecks()[0];
+
+        assertEquals(1, deck.drawCard().getValue());
+        deck.addCard(new Card(5)); // wraps into the freed slot
+        deck.addCard(new Card(6)); // full: grows
+        deck.addCard(new Card(7));
+
+        assertEquals("2 3 4 5 6 7", deck.contentsString());
+        for (int expected = 2; expected <= 7; expected++) {
+            assertEquals(expected, deck.drawCard().getValue());
+        }
+        assertEquals(0, deck.size());
+    }
+
+    @Test
+    void discardStrategy_isRejectedForCompactAndDeterministicGames_inEitherOrder() {
+        GameConfig compact = new GameConfig(2, null, new int[16]);
+        compact.setCompactMode(true, 1);
+        assertThrows(IllegalArgumentException.class, () -> compact.setDiscardStrategy(StandardDiscard.KEEP_MOST_COMMON));
+        compact.setDiscardStrategy(StandardDiscard.FIRST_NON_PREFERRED); // what it plays anyway
+
+        GameConfig deterministic = new GameConfig(2, null, new int[16]);
+        deterministic.setDeterministic(true, 1);
+        assertThrows(IllegalArgumentException.class, () -> deterministic.setDiscardStrategy(StandardDiscard.FEED_NEIGHBOUR));
+
+        GameConfig threaded = new GameConfig(2, null, new int[16]);
+        threaded.setDiscardStrategy(StandardDiscard.FEED_NEIGHBOUR);
+        assertThrows(IllegalArgumentException.class, () -> threaded.setCompactMode(true, 1));
+        assertThrows(IllegalArgumentException.class, () -> threaded.setDeterministic(true, 1));
+        assertFalse(threaded.isCompactMode() || threaded.isDeterministic());
+        threaded.setCompactMode(false, 1);
+    }
+}
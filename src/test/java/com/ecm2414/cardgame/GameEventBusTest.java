@@ -0,0 +1,166 @@
+package com.ecm2414.cardgame;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameEventBusTest {
+
+    /** Collects events; only touched from its dispatcher thread until close() returns. */
+    private static final class Recorder implements GameEventListener {
+        final List<GameEvent> events = new ArrayList<>();
+        boolean closed;
+
+        @Override
+        public void onEvent(GameEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void onClose() {
+            closed = true;
+        }
+    }
+
+    @Test
+    void block_deliversEveryEvent_inPerPlayerOrder() throws Exception {
+        GameEventBus bus = new GameEventBus();
+        Recorder rec = new Recorder();
+        bus.subscribe(rec, BackpressurePolicy.BLOCK, 16); // small ring forces producers to wait
+
+        int players = 4, perPlayer = 5000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 1; p <= players; p++) {
+            int id = p;
+            threads.add(new Thread(() -> {
+                for (int t = 1; t <= perPlayer; t++) bus.publish(GameEvent.draw(id, t, t, id));
+            }));
+        }
+        for (Thread t : threads) t.start();
+        for (Thread t : threads) t.join();
+        bus.close();
+
+        assertTrue(rec.closed);
+        assertEquals(players * perPlayer, rec.events.size());
+        int[] lastTurn = new int[players + 1];
+        for (GameEvent e : rec.events) {
+            assertEquals(lastTurn[e.getPlayerId()] + 1, e.getTurn(), "events of one player must stay in order");
+            lastTurn[e.getPlayerId()] = e.getTurn();
+        }
+    }
+
+    @Test
+    void drop_neverBlocksPublisher_whenSubscriberIsStuck() throws Exception {
+        GameEventBus bus = new GameEventBus();
+        CountDownLatch release = new CountDownLatch(1);
+        GameEventBus.Subscription sub = bus.subscribe(event -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, BackpressurePolicy.DROP, 8);
+
+        for (int t = 1; t <= 1000; t++) bus.publish(GameEvent.draw(1, t, 0, 1));
+        assertTrue(sub.getDropped() > 0, "a stuck subscriber with DROP must lose events, not stall");
+
+        release.countDown();
+        bus.close();
+        assertEquals(1000, sub.getDelivered() + sub.getDropped());
+    }
+
+    @Test
+    void grow_neverBlocksPublisher_andLosesNothing() throws Exception {
+        GameEventBus bus = new GameEventBus();
+        CountDownLatch release = new CountDownLatch(1);
+        Recorder rec = new Recorder();
+        GameEventBus.Subscription sub = bus.subscribe(event -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            rec.onEvent(event);
+        }, BackpressurePolicy.GROW, 8);
+
+        for (int t = 1; t <= 1000; t++) bus.publish(GameEvent.draw(1, t, 0, 1)); // returns with the subscriber stuck
+        assertTrue(sub.getQueueDepth() >= 999, "depth " + sub.getQueueDepth());
+        assertTrue(sub.getPeakQueueDepth() >= 999);
+
+        release.countDown();
+        bus.close();
+        assertEquals(0, sub.getDropped());
+        assertEquals(1000, rec.events.size());
+        for (int t = 1; t <= 1000; t++) assertEquals(t, rec.events.get(t - 1).getTurn());
+    }
+
+    @Test
+    void sharded_routesEachPlayerToOneShard_inOrder() throws Exception {
+        GameEventBus bus = new GameEventBus();
+        List<Recorder> shards = List.of(new Recorder(), new Recorder(), new Recorder());
+        bus.subscribeSharded(shards, BackpressurePolicy.BLOCK, 16); // as the player log writers
+
+        int players = 7, perPlayer = 2000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 1; p <= players; p++) {
+            int id = p;
+            threads.add(new Thread(() -> {
+                for (int t = 1; t <= perPlayer; t++) bus.publish(GameEvent.draw(id, t, t, id));
+            }));
+        }
+        for (Thread t : threads) t.start();
+        for (Thread t : threads) t.join();
+        bus.close();
+
+        int total = 0;
+        for (int shard = 0; shard < shards.size(); shard++) {
+            Recorder rec = shards.get(shard);
+            assertTrue(rec.closed);
+            int[] lastTurn = new int[players + 1];
+            for (GameEvent e : rec.events) {
+                assertEquals(shard, (e.getPlayerId() - 1) % shards.size());
+                assertEquals(lastTurn[e.getPlayerId()] + 1, e.getTurn(), "events of one player must stay in order");
+                lastTurn[e.getPlayerId()] = e.getTurn();
+            }
+            total += rec.events.size();
+        }
+        assertEquals(players * perPlayer, total);
+    }
+
+    /** Counts its events down. */
+    private static final class Arrivals implements GameEventListener {
+        volatile CountDownLatch next = new CountDownLatch(1);
+
+        @Override
+        public void onEvent(GameEvent event) {
+            next.countDown();
+        }
+    }
+
+    @Test
+    void idleDispatcher_parksUntilAPublish() throws Exception {
+        GameEventBus bus = new GameEventBus();
+        Arrivals arrivals = new Arrivals();
+        bus.subscribe(arrivals, BackpressurePolicy.BLOCK, 16);
+        Thread dispatcher = Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> t.getName().equals("event-dispatch-Arrivals")).findFirst().orElseThrow();
+        for (int round = 1; round <= 20; round++) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (dispatcher.getState() != Thread.State.WAITING) { // parked without a timeout
+                assertTrue(System.nanoTime() < deadline, "dispatcher state " + dispatcher.getState());
+                Thread.sleep(1);
+            }
+            CountDownLatch arrived = arrivals.next;
+            bus.publish(GameEvent.draw(1, round, 0, 1));
+            assertTrue(arrived.await(5, TimeUnit.SECONDS), "event " + round + " was not delivered");
+            arrivals.next = new CountDownLatch(1);
+        }
+        bus.close();
+        assertFalse(dispatcher.isAlive());
+    }
+}
@@ -0,0 +1,145 @@
+package com.ecm2414.cardgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameHandleTest {
+
+    @TempDir Path tmp;
+
+    /** No value appears four times, so nobody can ever win. */
+    private static final int[] ENDLESS = {1, 2, 3, 4, 5, 1, 2, 3, 4, 5, 1, 2, 3, 4, 5, 6};
+
+    private GameConfig endless(String dir) throws Exception {
+        GameConfig config = new GameConfig(2, null, ENDLESS);
+        config.setOutputDirectory(Files.createDirectory(tmp.resolve(dir)));
+        return config;
+    }
+
+    @Test
+    void cancel_stopsTheGame_andLeavesConsistentFiles() throws Exception {
+        GameConfig config = endless("cancel");
+        GameHandle handle = new GameController().start(config);
+        assertNull(handle.awaitCompletion(100, TimeUnit.MILLISECONDS));
+        assertFalse(handle.isDone());
+
+        long start = System.nanoTime();
+        handle.cancel();
+        GameResult result = handle.awaitCompletion(5, TimeUnit.SECONDS);
+        assertNotNull(result);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(GameResult.Outcome.CANCELLED, result.getOutcome());
+        assertEquals(-1, result.getWinnerId());
+
+        OutputVerifier.Report report = new OutputVerifier(config.getOutputDirectory(), 2, ENDLESS).verify(1);
+        assertEquals(List.of("no player won"), report.getProblems(), report.toString());
+    }
+
+    @Test
+    void budgets_stopTheGame_withTheirOutcome() throws Exception {
+        GameConfig byTime = endless("time");
+        byTime.setTimeBudget(200);
+        assertEquals(GameResult.Outcome.TIME_BUDGET_EXHAUSTED, new GameController().startGame(byTime).getOutcome());
+
+        GameConfig byTurns = endless("turns");
+        byTurns.setTurnBudget(20);
+        GameResult result = new GameController().startGame(byTurns);
+        assertEquals(GameResult.Outcome.TURN_BUDGET_EXHAUSTED, result.getOutcome());
+        assertTrue(result.getTotalTurns() >= 20);
+
+        GameConfig compact = endless("compact");
+        compact.setCompactMode(true, 1);
+        compact.setTimeBudget(100);
+        assertEquals(GameResult.Outcome.TIME_BUDGET_EXHAUSTED, new GameController().startGame(compact).getOutcome());
+    }
+
+    @Test
+    void compactGame_stopsAtItsTurnBudget() throws Exception {
+        GameConfig one = endless("one");
+        one.setCompactMode(true, 1);
+        one.setTurnBudget(5000);
+        one.setTimeBudget(10_000); // only if the budget is ignored
+        GameResult result = new GameController().startGame(one);
+        assertEquals(GameResult.Outcome.TURN_BUDGET_EXHAUSTED, result.getOutcome());
+        assertEquals(5000, result.getTotalTurns());
+
+        GameConfig many = new GameConfig(100, new PackGenerator(1).setWinnability(PackGenerator.Winnability.UNWINNABLE), 4);
+        many.setOutputDirectory(Files.createDirectory(tmp.resolve("many")));
+        many.setCompactMode(true, 4);
+        many.setTurnBudget(100_000);
+        many.setTimeBudget(10_000);
+        result = new GameController().startGame(many);
+        assertEquals(GameResult.Outcome.TURN_BUDGET_EXHAUSTED, result.getOutcome());
+        assertTrue(result.getTotalTurns() <= 100_000 && result.getTotalTurns() > 50_000, result.getTotalTurns() + " turns");
+    }
+
+    @Test
+    void turnPause_boundsTheTurns_andZeroLiftsTheBound() throws Exception {
+        GameConfig paused = endless("paused");
+        paused.setTimeBudget(300);
+        long pausedTurns = new GameController().startGame(paused).getTotalTurns();
+        assertTrue(pausedTurns <= 2 * 31, pausedTurns + " turns"); // two players, one turn per 10 ms
+
+        GameConfig unpaused = endless("unpaused");
+        unpaused.setTurnPause(0);
+        unpaused.setTimeBudget(300);
+        GameResult result = new GameController().startGame(unpaused);
+        assertEquals(GameResult.Outcome.TIME_BUDGET_EXHAUSTED, result.getOutcome());
+        assertTrue(result.getTotalTurns() > 10 * pausedTurns, result.getTotalTurns() + " vs " + pausedTurns);
+        assertThrows(IllegalArgumentException.class, () -> unpaused.setTurnPause(-1));
+    }
+
+    @Test
+    void interruptingStartGame_cancelsTheGame_andKeepsTheInterrupt() throws Exception {
+        GameConfig config = endless("interrupt");
+        AtomicReference<GameResult> result = new AtomicReference<>();
+        AtomicReference<Boolean> interrupted = new AtomicReference<>();
+        Thread caller = new Thread(() -> {
+            result.set(new GameController().startGame(config));
+            interrupted.set(Thread.currentThread().isInterrupted());
+        });
+        caller.start();
+        Thread.sleep(100);
+        caller.interrupt();
+        caller.join(5_000);
+
+        assertFalse(caller.isAlive());
+        assertEquals(GameResult.Outcome.CANCELLED, result.get().getOutcome());
+        assertTrue(interrupted.get());
+        assertTrue(Files.readString(config.getOutputDirectory().resolve("player1_output.txt"))
+                .contains("player 1 exits"));
+        assertTrue(Files.exists(config.getOutputDirectory().resolve("deck2_output.txt")));
+    }
+
+    @Test
+    void wonGame_reportsWon_andIgnoresLateCancel() throws Exception {
+        int[] pack = {1, 5, 1, 6, 1, 7, 1, 8, 2, 9, 3, 3, 4, 4, 5, 5}; // player 1 wins on the deal
+        GameConfig config = new GameConfig(2, null, pack);
+        config.setOutputDirectory(tmp);
+        GameHandle handle = new GameController().start(config);
+        GameResult result = handle.awaitCompletion();
+        handle.cancel();
+        assertEquals(GameResult.Outcome.WON, result.getOutcome());
+        assertEquals(1, result.getWinnerId());
+    }
+
+    @Test
+    void detachedHandle_runsNoStopAction() {
+        GameHandle handle = new GameHandle();
+        AtomicInteger runs = new AtomicInteger();
+        handle.onStop(runs::incrementAndGet);
+        handle.detach(); // the game's decks went back to a WarmPool
+        handle.cancel();
+        assertFalse(handle.stop(GameResult.Outcome.TIME_BUDGET_EXHAUSTED));
+        assertEquals(0, runs.get());
+    }
+}
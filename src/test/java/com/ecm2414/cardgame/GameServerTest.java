@@ -0,0 +1,204 @@
+package com.ecm2414.cardgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameServerTest {
+
+    private static final String ENDLESS = "1\n2\n3\n4\n5\n1\n2\n3\n4\n5\n1\n2\n3\n4\n5\n6\n";
+
+    @TempDir Path tmp;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private HttpResponse<String> post(GameServer server, String query, String body) throws Exception {
+        return postAsync(server, query, body).get();
+    }
+
+    private CompletableFuture<HttpResponse<String>> postAsync(GameServer server, String query, String body) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + "/games?" + query))
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String stats(GameServer server) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + "/stats")).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private static String pack(int[] values) {
+        return Arrays.stream(values).mapToObj(v -> v + "\n").collect(Collectors.joining());
+    }
+
+    @Test
+    void post_playsInlineAndFilePacks_andReusesDecksAndThreads() throws Exception {
+        int[] values = new PackGenerator(2).generate(6, 4); // not won on the deal, so players start
+        Path packFile = Files.write(tmp.resolve("pack.txt"),
+                Arrays.stream(values).mapToObj(Integer::toString).collect(Collectors.toList()));
+        try (GameServer server = new GameServer(0, 2, 4, tmp.resolve("games"), tmp)) {
+            HttpResponse<String> first = post(server, "players=6&events=true", pack(values));
+            assertEquals(200, first.statusCode());
+            List<String> lines = first.body().lines().collect(Collectors.toList());
+            assertTrue(lines.get(0).startsWith("accepted 1 queued "), lines.get(0));
+            assertEquals("started 1", lines.get(1));
+            assertTrue(lines.get(2).startsWith("event "), lines.get(2));
+            String result = lines.get(lines.size() - 1);
+            assertTrue(result.startsWith("result id=1 outcome=WON winner="), result);
+            int winner = Integer.parseInt(result.replaceAll(".* winner=(\\d+) .*", "$1"));
+            assertTrue(Files.readString(tmp.resolve("games/game-1/player" + winner + "_output.txt"))
+                    .contains("player " + winner + " wins"));
+
+            Path out = tmp.resolve("games/second");
+            HttpResponse<String> second = post(server,
+                    "players=6&pack=" + packFile.getFileName() + "&verbosity=SUMMARY&out=second", "");
+            assertTrue(second.body().contains("result id=2 outcome=WON"), second.body());
+            assertTrue(Files.exists(out.resolve("deck6_output.txt")));
+
+            String stats = stats(server);
+            assertTrue(stats.contains("cardgame_server_games_completed_total 2\n"), stats);
+            assertTrue(stats.contains("cardgame_server_deck_sets_created_total 1\n"), stats);
+            assertTrue(stats.contains("cardgame_server_deck_sets_reused_total 1\n"), stats);
+            assertTrue(stats.contains("cardgame_server_queue_depth 0\n"), stats);
+            assertTrue(stats.contains("cardgame_server_player_threads 6\n"), stats);
+        }
+    }
+
+    @Test
+    void post_rejectsBadPacks_andSubmissionsBeyondTheQueue() throws Exception {
+        try (GameServer server = new GameServer(0, 1, 1, tmp.resolve("games"))) {
+            HttpResponse<String> shortPack = post(server, "players=2", "1\n2\n3\n");
+            assertEquals(400, shortPack.statusCode());
+            assertTrue(shortPack.body().contains("expected 16"), shortPack.body());
+            assertEquals(400, post(server, "handSize=4", ENDLESS).statusCode());
+            assertEquals(400, post(server, "players=2&colour=red", ENDLESS).statusCode());
+
+            // One game runs and one waits until their time budgets run out; a third finds the queue full.
+            CompletableFuture<HttpResponse<String>> running = postAsync(server, "players=2&time-budget=1500", ENDLESS);
+            while (!stats(server).contains("cardgame_server_games_running 1\n")) Thread.sleep(10);
+            CompletableFuture<HttpResponse<String>> queued = postAsync(server, "players=2&time-budget=100", ENDLESS);
+            while (!stats(server).contains("cardgame_server_queue_depth 1\n")) Thread.sleep(10);
+
+            HttpResponse<String> full = post(server, "players=2", ENDLESS);
+            assertEquals(503, full.statusCode());
+            assertTrue(running.get().body().contains("outcome=TIME_BUDGET_EXHAUSTED"), running.get().body());
+            assertTrue(queued.get().body().startsWith("accepted 2 queued 1\n"), queued.get().body());
+            assertTrue(stats(server).contains("cardgame_server_games_rejected_total 1\n"));
+        }
+    }
+
+    @Test
+    void post_keepsPacksAndOutputInsideTheirRoots_andQuotesNoPackFile() throws Exception {
+        Files.writeString(tmp.resolve("secret.txt"), "password\n");
+        Path packs = Files.createDirectory(tmp.resolve("packs"));
+        Files.writeString(packs.resolve("bad.txt"), "hunter2\n");
+        try (GameServer server = new GameServer(0, 1, 4, tmp.resolve("games"), packs)) {
+            for (String query : List.of("pack=" + tmp.resolve("secret.txt"), "pack=../secret.txt",
+                    "pack=missing.txt", "pack=bad.txt", "out=" + tmp.resolve("elsewhere"), "out=../elsewhere",
+                    "out=.", "players=1001")) {
+                HttpResponse<String> r = post(server, "players=2&" + query, ENDLESS);
+                assertEquals(400, r.statusCode(), query + ": " + r.body());
+                assertFalse(r.body().contains("password") || r.body().contains("hunter2"), r.body());
+            }
+            assertFalse(Files.exists(tmp.resolve("elsewhere")));
+
+            server.setMaxPlayers(2);
+            assertEquals(400, post(server, "players=3", ENDLESS + ENDLESS).statusCode());
+            assertEquals(400, post(server, "players=2&handSize=5", ENDLESS + "1\n2\n3\n4\n").statusCode());
+        }
+        try (GameServer server = new GameServer(0, 1, 4, tmp.resolve("games"))) {
+            HttpResponse<String> r = post(server, "players=2&pack=packs/bad.txt", "");
+            assertEquals(400, r.statusCode());
+            assertTrue(r.body().contains("does not read pack files"), r.body());
+        }
+    }
+
+    @Test
+    void post_capsWorkerThreadsAndTimeBudgets() throws Exception {
+        int tooMany = Runtime.getRuntime().availableProcessors() + 1;
+        try (GameServer server = new GameServer(0, 1, 4, tmp.resolve("games"))) {
+            server.setMaxTimeBudget(300);
+            for (String option : List.of("compact", "gzip", "log-writers")) {
+                HttpResponse<String> r = post(server, "players=2&" + option + "=" + tooMany, ENDLESS);
+                assertEquals(400, r.statusCode(), option + ": " + r.body());
+            }
+            assertEquals(400, post(server, "players=2&time-budget=301", ENDLESS).statusCode());
+
+            // Neither game names a time budget, so both end at the server's.
+            for (String query : List.of("players=2", "players=2&compact=1")) {
+                HttpResponse<String> r = post(server, query, ENDLESS);
+                assertEquals(200, r.statusCode());
+                assertTrue(r.body().contains("outcome=TIME_BUDGET_EXHAUSTED"), query + ": " + r.body());
+            }
+        }
+    }
+
+    @Test
+    void closedConnection_cancelsTheGame_atTheNextHeartbeat() throws Exception {
+        try (GameServer server = new GameServer(0, 1, 4, tmp.resolve("games"))) {
+            try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+                OutputStream out = socket.getOutputStream();
+                out.write(("POST /games?players=2 HTTP/1.1\r\nHost: localhost\r\nContent-Length: "
+                        + ENDLESS.length() + "\r\n\r\n" + ENDLESS).getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                String line;
+                while ((line = in.readLine()) != null && !line.equals("started 1")) {
+                    // status line, headers and the accepted line
+                }
+                assertEquals("started 1", line);
+            }
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            String stats;
+            while (!(stats = stats(server)).contains("cardgame_server_games_running 0\n")) {
+                assertTrue(System.nanoTime() < deadline, "the endless game is still running");
+                Thread.sleep(50);
+            }
+            assertTrue(stats.contains("cardgame_server_games_completed_total 1\n"), stats);
+        }
+    }
+
+    @Test
+    void heartbeat_isSentWhileTheGameIsQuiet() throws Exception {
+        try (GameServer server = new GameServer(0, 1, 4, tmp.resolve("games"))) {
+            String body = post(server, "players=2&time-budget=" + (2 * GameServer.HEARTBEAT_MILLIS + 500), ENDLESS).body();
+            assertTrue(body.contains("\nheartbeat\n"), body);
+            assertTrue(body.contains("outcome=TIME_BUDGET_EXHAUSTED"), body);
+        }
+    }
+
+    @Test
+    void stats_reportGamesFinishedPerSecond() throws Exception {
+        String values = pack(new PackGenerator(3).generate(6, 4));
+        try (GameServer server = new GameServer(0, 1, 4, tmp.resolve("games"))) {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(post(server, "players=6&verbosity=SUMMARY", values).body().contains("outcome=WON"));
+            }
+            Thread.sleep(1100); // so the second the last game finished in is complete
+            String stats = stats(server);
+            double throughput = Double.parseDouble(stats.replaceAll(
+                    "(?s).*\ncardgame_server_throughput_games_per_second (\\S+)\n.*", "$1"));
+            long uptime = Long.parseLong(stats.replaceAll("(?s).*\ncardgame_server_uptime_seconds (\\d+)\n.*", "$1"));
+            // The uptime is read just after the throughput, so it may be a second further on.
+            assertTrue(Math.abs(throughput * Math.min(10, uptime) - 3) < 1e-9
+                    || Math.abs(throughput * Math.min(10, uptime - 1) - 3) < 1e-9, stats);
+        }
+    }
+}
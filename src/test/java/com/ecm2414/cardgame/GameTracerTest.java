@@ -0,0 +1,70 @@
+package com.ecm2414.cardgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameTracerTest {
+
+    @TempDir Path tmp;
+
+    @Test
+    void tracedGame_writesOneTurnSpanPerTurn_withDrawWaitAndBothLocks() throws Exception {
+        int[] pack = {1, 5, 1, 6, 1, 7, 2, 8, 1, 9, 3, 3, 4, 4, 5, 5};
+        GameConfig config = new GameConfig(2, null, pack);
+        config.setOutputDirectory(tmp);
+        config.setTrace(tmp.resolve("trace.json"), GameTracer.DEFAULT_MAX_SPANS);
+        GameResult result = new GameController().startGame(config);
+
+        String json = Files.readString(tmp.resolve("trace.json"));
+        assertTrue(json.startsWith("{\"displayTimeUnit\":\"ns\",\"traceEvents\":["));
+        assertTrue(json.contains("\"args\":{\"name\":\"player-1\"}"));
+        assertTrue(json.contains("\"args\":{\"name\":\"player-log-writer-1\"}"));
+        assertEquals(result.getTotalTurns(), count(json, "\"name\":\"turn\""));
+        assertEquals(result.getTotalTurns(), count(json, "\"name\":\"draw wait\""));
+        assertEquals(2 * result.getTotalTurns(), count(json, "\"name\":\"lock deck "));
+        assertTrue(count(json, "\"name\":\"log flush\"") >= 2); // each player's file is flushed on close
+        assertEquals(count(json, "\\{"), count(json, "\\}"));
+        assertTrue(json.contains("\"droppedSpans\":\"0\""));
+    }
+
+    @Test
+    void buffers_dropSpansBeyondTheSharedBudget() throws Exception {
+        GameTracer tracer = new GameTracer(100);
+        GameTracer.Buffer a = tracer.buffer(1, "a");
+        GameTracer.Buffer b = tracer.buffer(2, "b");
+        for (int i = 0; i < 80; i++) {
+            a.span(GameTracer.Kind.TURN, i, System.nanoTime(), System.nanoTime());
+            b.span(GameTracer.Kind.LOCK, 3, System.nanoTime(), System.nanoTime());
+        }
+        tracer.write(tmp.resolve("t.json"));
+
+        String json = Files.readString(tmp.resolve("t.json"));
+        assertEquals(60, tracer.getDropped());
+        assertEquals(100, count(json, "\"ph\":\"X\""));
+        assertTrue(json.contains("\"name\":\"lock deck 3\""));
+    }
+
+    @Test
+    void spanTimes_areMicrosecondsWithThreeDecimals() throws Exception {
+        GameTracer tracer = new GameTracer(10);
+        long t = System.nanoTime();
+        tracer.buffer(1, "a").span(GameTracer.Kind.DRAW_WAIT, 2, t, t + 1_005);
+        tracer.write(tmp.resolve("t.json"));
+
+        assertTrue(Files.readString(tmp.resolve("t.json")).contains("\"dur\":1.005,\"args\":{\"deck\":2}"));
+    }
+
+    private static long count(String s, String regex) {
+        Matcher m = Pattern.compile(regex).matcher(s);
+        long n = 0;
+        while (m.find()) n++;
+        return n;
+    }
+}
@@ -0,0 +1,74 @@
+package com.ecm2414.cardgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GzipLogWriterTest {
+
+    @TempDir Path tmp;
+
+    @Test
+    void chunksOfManyFiles_readBackInOrder() throws Exception {
+        StringBuilder[] expected = new StringBuilder[5];
+        try (LogFilePool pool = new LogFilePool(2)) {
+            GzipLogWriter gzip = new GzipLogWriter(pool, 3);
+            for (int chunk = 0; chunk < 40; chunk++) {
+                for (int f = 0; f < expected.length; f++) {
+                    if (expected[f] == null) expected[f] = new StringBuilder();
+                    String text = "file " + f + " chunk " + chunk + " " + "x".repeat(chunk * 97) + "\n";
+                    expected[f].append(text);
+                    gzip.write(tmp.resolve("f" + f + ".txt"), ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+                }
+            }
+            gzip.close();
+            assertTrue(gzip.getBytesOut() < gzip.getBytesIn());
+        }
+        for (int f = 0; f < expected.length; f++) {
+            Path file = tmp.resolve("f" + f + ".txt.gz");
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            LogReader.copy(file, out);
+            assertEquals(expected[f].toString(), out.toString(StandardCharsets.UTF_8));
+            assertFalse(Files.exists(tmp.resolve("f" + f + ".txt")));
+        }
+    }
+
+    @Test
+    void compressedGame_readsBackAsThePlainFiles() throws Exception {
+        int[] pack = {1, 5, 1, 6, 1, 7, 1, 8, 2, 9, 3, 3, 4, 4, 5, 5}; // player 1 wins on the deal
+        for (boolean compressed : new boolean[]{false, true}) {
+            GameConfig config = new GameConfig(2, null, pack);
+            config.setOutputDirectory(Files.createDirectory(tmp.resolve(compressed ? "gz" : "plain")));
+            config.setCompressedOutput(compressed, 2);
+            assertEquals(1, new GameController().startGame(config).getWinnerId());
+        }
+        for (String name : new String[]{"player1_output.txt", "player2_output.txt", "deck1_output.txt",
+                "deck2_output.txt"}) {
+            Path gz = tmp.resolve("gz").resolve(name + ".gz");
+            assertFalse(Files.exists(tmp.resolve("gz").resolve(name)), name);
+            try (Stream<String> lines = LogReader.lines(gz)) {
+                List<String> read = lines.collect(Collectors.toList());
+                assertEquals(Files.readAllLines(tmp.resolve("plain").resolve(name)), read, name);
+            }
+        }
+    }
+
+    @Test
+    void logReader_readsPlainFilesAsIs() throws Exception {
+        Path file = tmp.resolve("deck1_output.txt");
+        Files.writeString(file, "deck1 contents: 1 2\n");
+        try (Stream<String> lines = LogReader.lines(file)) {
+            assertEquals(List.of("deck1 contents: 1 2"), lines.collect(Collectors.toList()));
+        }
+    }
+}
@@ -53,6 +53,62 @@ class HandTest {
         assertEquals(4, toDiscard.getValue());
     }
 
+    @Test
+    void chooseDiscard_keepMostCommon_holdsTheLargestGroup() {
+        Hand h = new Hand(List.of(c(1), c(7), c(7), c(3)));
+        h.addCard(c(3));
+        // 7 and 3 have two cards each but neither is preferred: keep the first, 7;
+        // 1, the only single, goes even though it is preferred.
+        assertEquals(1, h.chooseDiscard(StandardDiscard.KEEP_MOST_COMMON, 1, 2).getValue());
+
+        h.setCards(List.of(c(2), c(5), c(5), c(9), c(2)));
+        assertEquals(9, h.chooseDiscard(StandardDiscard.KEEP_MOST_COMMON, 2, 3).getValue(),
+                "5 and 2 tie, the preferred 2 is kept, 9 is the only single");
+        h.setCards(List.of(c(4), c(6), c(8), c(5), c(4)));
+        assertEquals(6, h.chooseDiscard(StandardDiscard.KEEP_MOST_COMMON, 5, 1).getValue(),
+                "singles tie: the oldest that is not preferred");
+    }
+
+    @Test
+    void chooseDiscard_feedNeighbour_passesTheNeighboursValueFirst() {
+        Hand h = new Hand(List.of(c(1), c(4), c(2), c(1)));
+        h.addCard(c(2));
+        assertEquals(2, h.chooseDiscard(StandardDiscard.FEED_NEIGHBOUR, 1, 2).getValue());
+        assertEquals(4, h.chooseDiscard(StandardDiscard.FEED_NEIGHBOUR, 1, 3).getValue());
+        assertEquals(4, h.chooseDiscard(StandardDiscard.FIRST_NON_PREFERRED, 1, 2).getValue());
+        assertThrows(IllegalStateException.class, () -> h.chooseDiscard((v, size, p, nb) -> size, 1, 2));
+    }
+
+    @Test
+    void discard_removesTheChosenCard_andReturnsItsValue() {
+        Hand h = new Hand(List.of(c(1), c(4), c(2), c(1)));
+        h.addCard(c(2));
+        assertEquals(2, h.discard(StandardDiscard.FEED_NEIGHBOUR, 1, 2));
+        assertEquals(List.of(1, 4, 1, 2), h.getCardValues());
+        assertEquals(4, h.discard(StandardDiscard.FIRST_NON_PREFERRED, 1, 2));
+        assertEquals(List.of(1, 1, 2), h.getCardValues());
+        assertThrows(IllegalStateException.class, () -> h.discard((v, size, p, nb) -> -1, 1, 2));
+        assertEquals(3, h.size());
+    }
+
+    @Test
+    void hasWinningHand_followsConfiguredHandSize_throughTurns() {
+        int big = 2_000_000_000; // squares overflow a long sum after a few cards
+        Hand h = new Hand(List.of(c(big), c(big), c(big), c(big), c(big), c(3)), 6);
+        assertTrue(h.isValidHand());
+        assertFalse(h.hasWinningHand());
+
+        h.addCard(c(big));
+        assertEquals(7, h.size());
+        assertThrows(IllegalStateException.class, () -> h.addCard(c(1)));
+        assertFalse(h.hasWinningHand(), "k + 1 cards never win");
+        h.removeCard(5);
+        assertTrue(h.hasWinningHand());
+
+        h.setCards(List.of(c(big), c(big), c(big), c(big), c(big), c(big - 1)));
+        assertFalse(h.hasWinningHand());
+    }
+
     @Test
     void hasWinningHand_trueWhenExactlyFourEqual() {
         Hand h = new Hand(List.of(c(7), c(7), c(7), c(7)));
@@ -102,4 +158,19 @@ class HandTest {
         assertEquals(0, h.size());
         assertFalse(h.contains(three));
     }
+
+    @Test
+    void snapshot_followsEveryChange_withIncreasingVersion() {
+        Hand h = new Hand(List.of(c(1), c(2), c(3), c(4)));
+        CardsSnapshot first = h.snapshot();
+        assertEquals(List.of(1,2,3,4), first.getValues());
+
+        h.addCard(c(5));
+        h.removeCard(0);
+        CardsSnapshot latest = h.snapshot();
+        assertEquals(List.of(2,3,4,5), latest.getValues());
+        assertEquals("2 3 4 5", latest.toString());
+        assertTrue(latest.getVersion() > first.getVersion());
+        assertEquals(List.of(1,2,3,4), first.getValues(), "old snapshots must not change");
+    }
 }
@@ -0,0 +1,47 @@
+package com.ecm2414.cardgame;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrEventsTest {
+
+    @TempDir Path tmp;
+
+    @Test
+    void enabledEvents_areRecordedForEveryTurnWinAndExit() throws Exception {
+        int n = 10;
+        GameConfig config = new GameConfig(n, new PackGenerator(1L), 4);
+        config.setOutputDirectory(tmp);
+        Path file = tmp.resolve("game.jfr");
+
+        GameResult result;
+        try (Recording recording = new Recording()) {
+            for (String name : new String[]{"Turn", "DeckWait", "LogFlush", "Win", "Exit"}) {
+                recording.enable("com.ecm2414.cardgame." + name).withoutThreshold();
+            }
+            recording.start();
+            result = new GameController().startGame(config);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (RecordedEvent e : RecordingFile.readAllEvents(file)) {
+            counts.merge(e.getEventType().getName().replace("com.ecm2414.cardgame.", ""), 1, Integer::sum);
+        }
+        assertTrue(result.getTotalTurns() > 0, "the generated game must not be won on the deal");
+        assertEquals((int) result.getTotalTurns(), counts.getOrDefault("Turn", 0));
+        assertEquals(1, counts.getOrDefault("Win", 0));
+        assertEquals(n, counts.getOrDefault("Exit", 0));
+        assertTrue(counts.getOrDefault("LogFlush", 0) >= n, "every player file is flushed at least once");
+    }
+}
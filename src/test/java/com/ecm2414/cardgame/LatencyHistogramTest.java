@@ -0,0 +1,60 @@
+package com.ecm2414.cardgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @TempDir Path tmp;
+
+    @Test
+    void buckets_coverEveryValueOnce_andStayWithinAnEighth() {
+        for (long v = 0; v < 100_000; v++) {
+            int b = LatencyHistogram.bucket(v);
+            assertTrue(v <= LatencyHistogram.upperBound(b));
+            assertTrue(b == 0 || v > LatencyHistogram.upperBound(b - 1));
+            assertTrue(LatencyHistogram.upperBound(b) - v <= v / 8, "bucket of " + v + " is too wide");
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    void percentiles_ofMergedHistograms() {
+        LatencyHistogram fast = new LatencyHistogram();
+        LatencyHistogram slow = new LatencyHistogram();
+        for (int i = 1; i <= 990; i++) fast.record(1_000 + i);  // about 1-2 us
+        for (int i = 1; i <= 10; i++) slow.record(5_000_000);   // 5 ms tail
+        fast.merge(slow);
+
+        assertEquals(1000, fast.getCount());
+        assertEquals(5_000_000, fast.getMax());
+        long p50 = fast.percentile(0.5); // the 500th value, 1500 ns, rounded up to its bucket
+        assertTrue(p50 >= 1_500 && p50 <= 1_500 * 9 / 8, "p50 " + p50);
+        long p99 = fast.percentile(0.99); // the 990th value, 1990 ns, not the 5 ms tail
+        assertTrue(p99 >= 1_990 && p99 <= 1_990 * 9 / 8, "p99 " + p99);
+        assertEquals(5_000_000, fast.percentile(0.999));
+        assertEquals(0, new LatencyHistogram().percentile(0.99));
+    }
+
+    @Test
+    void game_writesPrometheusReport() throws Exception {
+        GameConfig config = new GameConfig(10, new PackGenerator(1L), 4);
+        config.setOutputDirectory(tmp);
+        Path report = tmp.resolve("latency.prom");
+        config.setLatencyReport(report);
+
+        GameResult result = new GameController().startGame(config);
+
+        TurnLatencies latencies = result.getLatencies();
+        assertEquals(result.getTotalTurns(), latencies.getTurn().getCount());
+        String text = Files.readString(report);
+        assertTrue(text.contains("# TYPE cardgame_turn_seconds histogram"));
+        assertTrue(text.contains("cardgame_turn_seconds_count " + result.getTotalTurns()));
+        assertTrue(text.contains("cardgame_lock_acquire_quantile_seconds{quantile=\"0.99\"}"));
+    }
+}
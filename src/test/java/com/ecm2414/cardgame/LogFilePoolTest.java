@@ -0,0 +1,79 @@
+package com.ecm2414.cardgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogFilePoolTest {
+
+    @TempDir Path tmp;
+
+    @Test
+    void pooledLoggers_writeSameFilesAsDirectOnes_withBoundedOpenFiles() throws Exception {
+        Path direct = Files.createDirectory(tmp.resolve("direct"));
+        Path pooled = Files.createDirectory(tmp.resolve("pooled"));
+        Files.writeString(pooled.resolve("player1_output.txt"), "stale content from an older game\n");
+
+        int players = 20, turns = 300; // enough lines for several flushes, and so reopens, per file
+        LogFilePool pool = new LogFilePool(3);
+        List<PlayerLogger> a = new ArrayList<>();
+        List<PlayerLogger> b = new ArrayList<>();
+        for (int p = 1; p <= players; p++) {
+            a.add(PlayerLogger.create(direct, p));
+            b.add(PlayerLogger.create(pool, pooled, p));
+        }
+        for (int t = 0; t < turns; t++) {
+            for (int p = 0; p < players; p++) {
+                for (List<PlayerLogger> side : List.of(a, b)) {
+                    side.get(p).logDraw(t, p + 1);
+                    side.get(p).logCurrentHand(List.of(p, t, p, t));
+                }
+                assertTrue(pool.openCount() <= 3);
+            }
+        }
+        for (int p = 0; p < players; p++) {
+            a.get(p).close();
+            b.get(p).close();
+        }
+        pool.close();
+
+        assertTrue(pool.getOpens() > players, "files were evicted and reopened");
+        assertEquals(0, pool.openCount());
+        for (int p = 1; p <= players; p++) {
+            String name = "player" + p + "_output.txt";
+            assertEquals(Files.readString(direct.resolve(name)), Files.readString(pooled.resolve(name)));
+        }
+    }
+
+    @Test
+    void directLoggers_areTheDefault_andWriteEachLineAsItHappens() throws Exception {
+        assertEquals(0, new GameConfig(2, null, new int[16]).getMaxOpenFiles());
+
+        PlayerLogger logger = PlayerLogger.create(tmp, 1);
+        logger.logDraw(3, 2);
+        String line = Files.readString(tmp.resolve("player1_output.txt"));
+        assertEquals("player 1 draws a 3 from deck 2" + System.lineSeparator(), line);
+        logger.close();
+    }
+
+    @Test
+    void deckLogger_throughPool_matchesDirectOutput() throws Exception {
+        LogFilePool pool = new LogFilePool(1);
+        Path pooled = Files.createDirectory(tmp.resolve("pooled"));
+        DeckLogger.logFinalState(pool, pooled, 1, List.of(3, 3, 4, 7));
+        DeckLogger.logFinalState(pool, pooled, 2, List.of());
+        pool.close();
+        DeckLogger.logFinalState(tmp, 1, List.of(3, 3, 4, 7));
+        DeckLogger.logFinalState(tmp, 2, List.of());
+
+        for (String name : List.of("deck1_output.txt", "deck2_output.txt")) {
+            assertEquals(Files.readString(tmp.resolve(name)), Files.readString(pooled.resolve(name)));
+        }
+    }
+}
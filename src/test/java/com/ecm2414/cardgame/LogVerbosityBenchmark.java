@@ -0,0 +1,73 @@
+package com.ecm2414.cardgame;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures the per-turn cost of each LogVerbosity, as documented on that
+ * enum: one player's turns are published straight to a PlayerLogSubscriber,
+ * so the figures are the logging cost alone, without deck locks or the
+ * player's pause between turns.
+ * <p>
+ * Off by default; run with -Dcardgame.bench=true. Reports nanoseconds and
+ * bytes per turn for each level to target/log-verbosity-report.txt. Other
+ * properties: cardgame.bench.turns (default 300000) and
+ * cardgame.bench.sampleInterval (default 10).
+ */
+@Tag("bench")
+@EnabledIfSystemProperty(named = "cardgame.bench", matches = "true")
+class LogVerbosityBenchmark {
+
+    private static final int TURNS = Integer.getInteger("cardgame.bench.turns", 300_000);
+    private static final int SAMPLE_INTERVAL = Integer.getInteger("cardgame.bench.sampleInterval", 10);
+    private static final Path REPORT = Path.of("target/log-verbosity-report.txt");
+
+    @TempDir Path tmp;
+
+    @Test
+    void costPerTurn_perVerbosity() throws Exception {
+        StringBuilder report = new StringBuilder();
+        report.append("turns=").append(TURNS).append(" sampleInterval=").append(SAMPLE_INTERVAL)
+                .append(System.lineSeparator());
+        for (int round = 0; round < 2; round++) { // the first round is warm-up
+            for (LogVerbosity verbosity : LogVerbosity.values()) {
+                String line = run(verbosity);
+                if (round == 1) report.append(line).append(System.lineSeparator());
+            }
+        }
+        Files.createDirectories(REPORT.getParent());
+        Files.writeString(REPORT, report);
+        System.out.print(report);
+    }
+
+    private String run(LogVerbosity verbosity) throws Exception {
+        Path dir = Files.createDirectories(tmp.resolve(verbosity.name()));
+        GameConfig config = new GameConfig(1, null, new int[8]);
+        config.setOutputDirectory(dir);
+        config.setLogVerbosity(verbosity, SAMPLE_INTERVAL);
+        PlayerLogSubscriber subscriber = new PlayerLogSubscriber(config, null);
+        CardsSnapshot hand = new CardsSnapshot(0, new int[]{1, 2, 3, 4});
+        subscriber.onEvent(GameEvent.initialHand(1, hand));
+        long fixed = Files.size(dir.resolve("player1_output.txt"));
+
+        long start = System.nanoTime();
+        for (int turn = 1; turn <= TURNS; turn++) {
+            subscriber.onEvent(GameEvent.draw(1, turn, 5, 1));
+            subscriber.onEvent(GameEvent.discard(1, turn, 5, 2, hand));
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = Files.size(dir.resolve("player1_output.txt")) - fixed;
+        subscriber.onClose();
+        if (verbosity == LogVerbosity.SUMMARY) assertEquals(0, bytes);
+        return String.format(Locale.ROOT, "%-8s %8.1f ns/turn  %6.1f bytes/turn",
+                verbosity, (double) elapsed / TURNS, (double) bytes / TURNS);
+    }
+}
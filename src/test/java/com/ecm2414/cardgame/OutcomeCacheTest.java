@@ -0,0 +1,153 @@
+package com.ecm2414.cardgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutcomeCacheTest {
+
+    @TempDir Path tmp;
+
+    /** No value appears four times, so nobody can ever win. */
+    private static final int[] ENDLESS = {1, 2, 3, 4, 5, 1, 2, 3, 4, 5, 1, 2, 3, 4, 5, 6};
+
+    private GameConfig deterministic(String dir, int[] pack, long seed, OutcomeCache cache) throws Exception {
+        GameConfig config = new GameConfig(pack.length / 8, null, pack);
+        config.setOutputDirectory(Files.createDirectory(tmp.resolve(dir)));
+        config.setDeterministic(true, seed);
+        config.setOutcomeCache(cache);
+        return config;
+    }
+
+    private static void assertSameFiles(Path a, Path b, int n) throws Exception {
+        for (int i = 1; i <= n; i++) {
+            assertEquals(Files.readString(a.resolve("player" + i + "_output.txt")),
+                    Files.readString(b.resolve("player" + i + "_output.txt")));
+            assertEquals(Files.readString(a.resolve("deck" + i + "_output.txt")),
+                    Files.readString(b.resolve("deck" + i + "_output.txt")));
+        }
+    }
+
+    @Test
+    void sameSeed_playsTheSameGame() throws Exception {
+        int[] pack = new PackGenerator(7).generate(50, 4);
+        GameResult a = new GameController().startGame(deterministic("a", pack, 3, null));
+        GameResult b = new GameController().startGame(deterministic("b", pack, 3, null));
+        assertEquals(GameResult.Outcome.WON, a.getOutcome());
+        assertEquals(a.getWinnerId(), b.getWinnerId());
+        assertEquals(a.getTotalTurns(), b.getTotalTurns());
+        assertFalse(a.isCached());
+        assertSameFiles(tmp.resolve("a"), tmp.resolve("b"), 50);
+    }
+
+    @Test
+    void repeatedGame_isAnsweredFromMemory_thenFromDisk() throws Exception {
+        int[] pack = new PackGenerator(11).generate(50, 4);
+        Path dir = tmp.resolve("cache");
+        OutcomeCache cache = new OutcomeCache(1 << 20, dir);
+
+        GameResult played = new GameController().startGame(deterministic("played", pack, 5, cache));
+        GameResult fromMemory = new GameController().startGame(deterministic("memory", pack, 5, cache));
+        assertFalse(played.isCached());
+        assertTrue(fromMemory.isCached());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getMemoryHits());
+        assertEquals(played.getWinnerId(), fromMemory.getWinnerId());
+        assertEquals(played.getTotalTurns(), fromMemory.getTotalTurns());
+        assertSameFiles(tmp.resolve("played"), tmp.resolve("memory"), 50);
+
+        OutcomeCache reopened = new OutcomeCache(1 << 20, dir); // as in a later run
+        GameResult fromDisk = new GameController().startGame(deterministic("disk", pack, 5, reopened));
+        assertTrue(fromDisk.isCached());
+        assertEquals(1, reopened.getDiskHits());
+        assertArrayEquals(played.getFinalState().getHand(1), fromDisk.getFinalState().getHand(1));
+        assertArrayEquals(played.getFinalState().getDeck(50), fromDisk.getFinalState().getDeck(50));
+        assertSameFiles(tmp.resolve("played"), tmp.resolve("disk"), 50);
+
+        // Another seed is another game.
+        assertFalse(new GameController().startGame(deterministic("seed", pack, 6, reopened)).isCached());
+    }
+
+    @Test
+    void turnBudget_isExact_andItsOutcomeIsCached() throws Exception {
+        OutcomeCache cache = new OutcomeCache(1 << 20, null);
+        GameConfig config = deterministic("budget", ENDLESS, 1, cache);
+        config.setTurnBudget(1000);
+        GameResult result = new GameController().startGame(config);
+        assertEquals(GameResult.Outcome.TURN_BUDGET_EXHAUSTED, result.getOutcome());
+        assertEquals(1000, result.getTotalTurns());
+        assertEquals(16, result.getFinalState().getHand(1).length + result.getFinalState().getHand(2).length
+                + result.getFinalState().getDeck(1).length + result.getFinalState().getDeck(2).length);
+
+        GameConfig again = deterministic("again", ENDLESS, 1, cache);
+        again.setTurnBudget(1000);
+        assertTrue(new GameController().startGame(again).isCached());
+        GameConfig longer = deterministic("longer", ENDLESS, 1, cache);
+        longer.setTurnBudget(1001);
+        assertFalse(new GameController().startGame(longer).isCached());
+    }
+
+    @Test
+    void memoryTier_evictsLeastRecentlyUsed() throws Exception {
+        OutcomeCache cache = new OutcomeCache(1000, null);
+        int[][] packs = new int[4][];
+        for (int i = 0; i < packs.length; i++) {
+            packs[i] = new PackGenerator(i).generate(10, 4);
+            new GameController().startGame(deterministic("fill" + i, packs[i], 0, cache));
+            assertTrue(cache.getMemoryBytes() <= 1000);
+        }
+        // Each entry weighs about 600 bytes, so only the last one is kept.
+        assertTrue(new GameController().startGame(deterministic("last", packs[3], 0, cache)).isCached());
+        assertFalse(new GameController().startGame(deterministic("first", packs[0], 0, cache)).isCached());
+    }
+
+    @Test
+    void unreadableDiskEntry_isAMiss() throws Exception {
+        int[] pack = new PackGenerator(3).generate(10, 4);
+        Path dir = tmp.resolve("cache");
+        new GameController().startGame(deterministic("a", pack, 0, new OutcomeCache(0, dir)));
+        try (var files = Files.list(dir)) {
+            for (Path f : (Iterable<Path>) files::iterator) Files.write(f, new byte[] {1, 2, 3});
+        }
+        OutcomeCache cache = new OutcomeCache(0, dir);
+        assertFalse(new GameController().startGame(deterministic("b", pack, 0, cache)).isCached());
+        assertEquals(1, cache.getMisses());
+        assertTrue(new GameController().startGame(deterministic("c", pack, 0, cache)).isCached());
+    }
+
+    @Test
+    void diskEntryWithCorruptSizes_isAMiss() throws Exception {
+        int n = 10, k = 4;
+        int[] pack = new PackGenerator(3).generate(n, 4);
+        Path dir = tmp.resolve("cache");
+        new GameController().startGame(deterministic("a", pack, 0, new OutcomeCache(0, dir)));
+        Path entry;
+        try (var files = Files.list(dir)) {
+            entry = files.findFirst().orElseThrow();
+        }
+        byte[] good = Files.readAllBytes(entry);
+
+        // Offsets of n, k and the first deck's size; see OutcomeCache.write.
+        int nAt = 34, kAt = 38, deckAt = 42 + 4 * k * n;
+        int[][] corruptions = {
+            {nAt, 100_000, kAt, 100_000}, // k * n overflows to a 5 GB array
+            {nAt, -1},
+            {kAt, 0},
+            {deckAt, Integer.MAX_VALUE},
+            {deckAt, -1},
+        };
+        for (int[] c : corruptions) {
+            java.nio.ByteBuffer bytes = java.nio.ByteBuffer.wrap(good.clone());
+            for (int i = 0; i < c.length; i += 2) bytes.putInt(c[i], c[i + 1]);
+            Files.write(entry, bytes.array());
+            OutcomeCache cache = new OutcomeCache(0, dir);
+            assertFalse(new GameController().startGame(deterministic("b" + c[0] + c[1], pack, 0, cache)).isCached());
+            assertEquals(1, cache.getMisses());
+            assertArrayEquals(good, Files.readAllBytes(entry), "the miss rewrote the entry");
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.ecm2414.cardgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutputVerifierTest {
+
+    @TempDir Path tmp;
+
+    @Test
+    void outputOfRealGames_verifies_plainAndCompressed() throws Exception {
+        for (boolean compressed : new boolean[]{false, true}) {
+            int n = 6;
+            int[] pack = new PackGenerator(3L).generate(n, 4);
+            Path dir = Files.createDirectory(tmp.resolve(compressed ? "gz" : "plain"));
+            GameConfig config = new GameConfig(n, null, pack);
+            config.setOutputDirectory(dir);
+            config.setCompressedOutput(compressed, 1);
+            GameResult result = new GameController().startGame(config);
+
+            OutputVerifier.Report report = new OutputVerifier(dir, n, pack).verify(3);
+            assertTrue(report.isOk(), report.toString());
+            assertEquals(result.getWinnerId(), report.getWinner());
+        }
+    }
+
+    /** Plays a game on a random pack with no planted winner, so decks are drawn from far more than k times. */
+    private GameConfig playUnplanted(Path dir, int n) throws Exception {
+        GameConfig config = new GameConfig(n, new PackGenerator(6).setWinnability(PackGenerator.Winnability.ANY), 4);
+        config.setOutputDirectory(dir);
+        assertEquals(GameResult.Outcome.WON, new GameController().startGame(config).getOutcome());
+        return config;
+    }
+
+    @Test
+    void outputOfUnplantedGame_verifies() throws Exception {
+        int n = 5;
+        GameConfig config = playUnplanted(tmp, n);
+        int[] pack = config.getPack().stream().mapToInt(Card::getValue).toArray();
+
+        OutputVerifier.Report report = new OutputVerifier(tmp, n, pack).verify(2);
+        assertTrue(report.isOk(), report.toString());
+        assertTrue(Files.readAllLines(tmp.resolve("player1_output.txt")).size() > 3 * 4 + 3,
+                "player 1 should have drawn more than k cards");
+    }
+
+    @Test
+    void deckTailOutOfOrder_afterMoreThanKDraws_isReported() throws Exception {
+        int n = 5;
+        playUnplanted(tmp, n);
+        // Find a deck drawn from more than k times that still holds two different cards beyond the
+        // initial ones, and swap them: the draws are untouched, so only the hash of the later draws
+        // followed by the deck's tail can tell.
+        for (int d = 1; d <= n; d++) {
+            long draws = Files.readAllLines(tmp.resolve("player" + d + "_output.txt")).stream()
+                    .filter(l -> l.contains(" draws a ")).count();
+            Path deck = tmp.resolve("deck" + d + "_output.txt");
+            String[] cards = Files.readString(deck).trim().substring(("deck" + d + " contents: ").length()).split(" ");
+            if (draws <= 4 || cards.length < 2 || cards[0].equals(cards[cards.length - 1])) continue;
+
+            String first = cards[0];
+            cards[0] = cards[cards.length - 1];
+            cards[cards.length - 1] = first;
+            writeLines(deck.getFileName().toString(), "deck" + d + " contents: " + String.join(" ", cards));
+            OutputVerifier.Report bad = new OutputVerifier(tmp, n, null).verify(2);
+            assertEquals(1, bad.getProblemCount(), bad.toString());
+            assertTrue(bad.getProblems().get(0).startsWith("deck " + d + ":"), bad.toString());
+            return;
+        }
+        fail("no deck with more than k draws and two different cards left");
+    }
+
+    @Test
+    void immediateWin_verifies() throws Exception {
+        int[] pack = {1, 5, 1, 6, 1, 7, 1, 8, 2, 9, 3, 3, 4, 4, 5, 5};
+        GameConfig config = new GameConfig(2, null, pack);
+        config.setOutputDirectory(tmp);
+        new GameController().startGame(config);
+
+        OutputVerifier.Report report = new OutputVerifier(tmp, 2, pack).verify(1);
+        assertTrue(report.isOk(), report.toString());
+        assertEquals(1, report.getWinner());
+    }
+
+    @Test
+    void reportsDiscardsThatDoNotReachTheDeck_andBrokenHands() throws Exception {
+        // Deck 1 starts 9 1 6 7 and deck 2 starts 5 4 4 6.
+        writeLines("player1_output.txt",
+                "player 1 initial hand 1 1 1 2",
+                "player 1 draws a 9 from deck 1",
+                "player 1 discards a 9 to deck 2",
+                "player 1 current hand is 1 1 1 2",
+                "player 1 draws a 1 from deck 1",
+                "player 1 discards a 2 to deck 2",
+                "player 1 current hand is 1 1 1 1",
+                "player 1 wins",
+                "player 1 final hand: 1 1 1 1");
+        writeLines("player2_output.txt",
+                "player 2 initial hand 3 3 4 1",
+                "player 2 draws a 5 from deck 2",
+                "player 2 discards a 1 to deck 1",
+                "player 2 current hand is 3 3 4 5",
+                "player 1 has informed player 2 that player 1 has won",
+                "player 2 exits",
+                "player 2 final hand: 3 3 4 5");
+        writeLines("deck1_output.txt", "deck1 contents: 6 7 1");
+        writeLines("deck2_output.txt", "deck2 contents: 4 4 6 9 2");
+        OutputVerifier.Report ok = new OutputVerifier(tmp, 2, null).verify(2);
+        assertTrue(ok.isOk(), ok.toString());
+
+        writeLines("deck2_output.txt", "deck2 contents: 4 4 6 2 9"); // discards out of order
+        writeLines("player2_output.txt",
+                "player 2 initial hand 3 3 4 1",
+                "player 2 draws a 5 from deck 2",
+                "player 2 discards a 1 to deck 1",
+                "player 2 current hand is 3 3 4 4", // not the replayed hand
+                "player 1 has informed player 2 that player 1 has won",
+                "player 2 exits",
+                "player 2 final hand: 3 3 4 5");
+        OutputVerifier.Report bad = new OutputVerifier(tmp, 2, null).verify(2);
+        assertFalse(bad.isOk());
+        assertEquals(2, bad.getProblemCount(), bad.toString());
+        assertTrue(bad.getProblems().get(0).contains("player2_output.txt line 4"), bad.toString());
+        assertTrue(bad.getProblems().get(1).startsWith("deck 2:"), bad.toString());
+    }
+
+    private void writeLines(String name, String... lines) throws Exception {
+        Files.write(tmp.resolve(name), List.of(lines));
+    }
+}
@@ -0,0 +1,78 @@
+package com.ecm2414.cardgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackGeneratorTest {
+
+    @TempDir Path tmp;
+
+    private static int[] pack(GameConfig config) {
+        return config.getPack().stream().mapToInt(Card::getValue).toArray();
+    }
+
+    private static int[] counts(int[] pack, int max) {
+        int[] counts = new int[max + 1];
+        for (int v : pack) counts[v]++;
+        return counts;
+    }
+
+    @Test
+    void fill_isReproducible_andFollowsTheDistribution() throws Exception {
+        PackGenerator gen = new PackGenerator(7).setDistribution(PackGenerator.Distribution.BALANCED)
+                .setWinnability(PackGenerator.Winnability.ANY);
+        int[] a = pack(new GameConfig(50, gen, 4));
+        assertArrayEquals(a, pack(new GameConfig(50, gen, 4)));
+        assertFalse(Arrays.equals(a, pack(new GameConfig(50, new PackGenerator(8)
+                .setDistribution(PackGenerator.Distribution.BALANCED).setWinnability(PackGenerator.Winnability.ANY), 4))));
+        int[] counts = counts(a, 50);
+        for (int v = 1; v <= 50; v++) assertEquals(8, counts[v], "value " + v);
+
+        int[] skewed = pack(new GameConfig(1000, new PackGenerator(1).setMaxValue(100)
+                .setDistribution(PackGenerator.Distribution.SKEWED).setWinnability(PackGenerator.Winnability.ANY), 4));
+        int[] c = counts(skewed, 100);
+        assertTrue(Arrays.stream(skewed).allMatch(v -> v >= 1 && v <= 100));
+        assertTrue(c[1] > 4 * c[50], "1 should be far more common than 50: " + c[1] + " vs " + c[50]);
+    }
+
+    @Test
+    void fill_controlsWinnability() throws Exception {
+        GameConfig planted = new GameConfig(30, new PackGenerator(3), 4);
+        planted.setOutputDirectory(tmp);
+        GameResult won = new GameController().startGame(planted);
+        assertEquals(GameResult.Outcome.WON, won.getOutcome());
+
+        int[] unwinnable = pack(new GameConfig(30, new PackGenerator(3)
+                .setWinnability(PackGenerator.Winnability.UNWINNABLE), 4));
+        assertTrue(Arrays.stream(counts(unwinnable, 80)).allMatch(count -> count < 4));
+        assertThrows(InvalidPackException.class, () -> new GameConfig(3, new PackGenerator(3)
+                .setWinnability(PackGenerator.Winnability.UNWINNABLE), 1));
+    }
+
+    @Test
+    void file_readsLikePackLoader() throws Exception {
+        int[] values = new PackGenerator(2).generate(5, 4);
+        List<String> lines = Arrays.stream(values).mapToObj(Integer::toString).collect(Collectors.toList());
+        Path file = Files.write(tmp.resolve("pack.txt"), lines);
+        GameConfig config = new GameConfig(5, PackSource.file(file), 4);
+        assertArrayEquals(values, pack(config));
+        assertEquals(file, config.getPackFilePath());
+
+        Path longer = Files.write(tmp.resolve("long.txt"), lines);
+        Files.write(longer, List.of("1", "2"), java.nio.file.StandardOpenOption.APPEND);
+        InvalidPackException e = assertThrows(InvalidPackException.class,
+                () -> new GameConfig(5, PackSource.file(longer), 4));
+        assertEquals("Pack file has 42 lines; expected 40.", e.getMessage());
+        Path bad = Files.write(tmp.resolve("bad.txt"), List.of("1", "-3"));
+        e = assertThrows(InvalidPackException.class, () -> new GameConfig(1, PackSource.file(bad), 4));
+        assertEquals("Line 2 is negative (-3).", e.getMessage());
+    }
+}
@@ -29,6 +29,15 @@ class PackValidatorTest {
         PackValidator.validateLineCount(lines, n);
     }
 
+    @Test
+    void validateLineCount_withHandSize_expects2kn() throws Exception {
+        int n = 3, k = 6;
+        PackValidator.validateLineCount(Collections.nCopies(2 * k * n, 0), n, k);
+        assertThrows(InvalidPackException.class,
+                () -> PackValidator.validateLineCount(Collections.nCopies(8 * n, 0), n, k));
+        assertThrows(InvalidPackException.class, () -> PackValidator.validateHandSize(0));
+    }
+
     @Test
     void validateLineCount_rejectsEmptyAndWrongCount() {
         int n = 2;
@@ -0,0 +1,57 @@
+package com.ecm2414.cardgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerLogSubscriberTest {
+
+    @TempDir Path tmp;
+
+    /** Plays ten turns of player 1 through a subscriber and returns its output file. */
+    private List<String> log(LogVerbosity verbosity, int sampleInterval) throws Exception {
+        GameConfig config = new GameConfig(1, null, new int[8]);
+        config.setOutputDirectory(tmp);
+        config.setLogVerbosity(verbosity, sampleInterval);
+        PlayerLogSubscriber subscriber = new PlayerLogSubscriber(config, null);
+        subscriber.onEvent(GameEvent.initialHand(1, new CardsSnapshot(0, new int[]{1, 2, 3, 4})));
+        for (int turn = 1; turn <= 10; turn++) {
+            subscriber.onEvent(GameEvent.draw(1, turn, turn, 1));
+            subscriber.onEvent(GameEvent.discard(1, turn, turn, 1, new CardsSnapshot(turn, new int[]{1, 2, 3, turn})));
+        }
+        subscriber.onEvent(GameEvent.win(1, 10));
+        subscriber.onEvent(GameEvent.exit(1, 10));
+        subscriber.onEvent(GameEvent.finalHand(1, 10, new CardsSnapshot(11, new int[]{1, 1, 1, 1})));
+        subscriber.onClose();
+        return Files.readAllLines(tmp.resolve("player1_output.txt"));
+    }
+
+    private static List<String> turn(int t) {
+        return List.of("player 1 draws a " + t + " from deck 1",
+                "player 1 discards a " + t + " to deck 1",
+                "player 1 current hand is 1 2 3 " + t);
+    }
+
+    @Test
+    void sampled_writesEveryKthTurnBetweenTheFixedLines() throws Exception {
+        List<String> expected = new ArrayList<>(List.of("player 1 initial hand 1 2 3 4"));
+        expected.addAll(turn(3));
+        expected.addAll(turn(6));
+        expected.addAll(turn(9));
+        expected.addAll(List.of("player 1 wins", "player 1 exits", "player 1 final hand: 1 1 1 1"));
+        assertEquals(expected, log(LogVerbosity.SAMPLED, 3));
+    }
+
+    @Test
+    void summary_writesNoTurnLines() throws Exception {
+        assertEquals(List.of("player 1 initial hand 1 2 3 4", "player 1 wins", "player 1 exits",
+                "player 1 final hand: 1 1 1 1"), log(LogVerbosity.SUMMARY, 1));
+        assertEquals(4 + 3 * 10, log(LogVerbosity.FULL, 1).size()); // three lines per turn
+    }
+}
@@ -2,9 +2,13 @@ package com.ecm2414.cardgame;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.StringJoiner;
 import static org.junit.jupiter.api.Assertions.*;
 
 class PlayerLoggerTest {
@@ -43,4 +47,48 @@ class PlayerLoggerTest {
                 "player 1 exits"
         ), lines);
     }
+
+    /** Joins values as the BufferedWriter logger did; the test below builds its lines the same way. */
+    private static String join(List<Integer> ints) {
+        StringJoiner sj = new StringJoiner(" ");
+        for (Integer i : ints) sj.add(String.valueOf(i));
+        return sj.toString();
+    }
+
+    @Test
+    void encodesTheSameBytesAsStringConcatenation() throws Exception {
+        int[] edges = {0, 7, 10, 99, 100, 12345, 1_000_000_000, Integer.MAX_VALUE};
+        Random random = new Random(26);
+        StringBuilder expected = new StringBuilder();
+        String nl = System.lineSeparator();
+        int id = Integer.MAX_VALUE;
+        try (PlayerLogger log = PlayerLogger.create(tmp, id)) {
+            for (int call = 0; call < 60_000; call++) {
+                List<Integer> hand = new ArrayList<>();
+                int size = call % 50 == 0 ? 0 : random.nextInt(6);
+                int a = edges[random.nextInt(edges.length)];
+                int b = random.nextBoolean() ? edges[random.nextInt(edges.length)] : random.nextInt(Integer.MAX_VALUE);
+                for (int i = 0; i < size; i++) {
+                    hand.add(random.nextBoolean() ? edges[random.nextInt(edges.length)] : random.nextInt(1000));
+                }
+                switch (call % 8) {
+                    case 0: log.logInitialHand(hand); expected.append("player " + id + " initial hand " + join(hand)); break;
+                    case 1: log.logDraw(a, b); expected.append("player " + id + " draws a " + a + " from deck " + b); break;
+                    case 2: log.logDiscard(b, a); expected.append("player " + id + " discards a " + b + " to deck " + a); break;
+                    case 3: log.logCurrentHand(hand); expected.append("player " + id + " current hand is " + join(hand)); break;
+                    case 4:
+                        log.logInformedByWinner(a);
+                        expected.append("player " + a + " has informed player " + id + " that player " + a + " has won");
+                        break;
+                    case 5: log.logWin(); expected.append("player " + id + " wins"); break;
+                    case 6: log.logFinalHand(hand); expected.append("player " + id + " final hand: " + join(hand)); break;
+                    default: log.logExit(); expected.append("player " + id + " exits"); break;
+                }
+                expected.append(nl);
+            }
+        }
+        byte[] written = Files.readAllBytes(tmp.resolve("player" + id + "_output.txt"));
+        assertEquals(expected.toString(), new String(written, StandardCharsets.US_ASCII));
+        assertEquals(expected.length(), written.length);
+    }
 }
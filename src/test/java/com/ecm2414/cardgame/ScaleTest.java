@@ -0,0 +1,266 @@
+package com.ecm2414.cardgame;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs whole games at growing player counts and checks them against a stored baseline.
+ * <p>
+ * Every game is dealt an unwinnable pack, so nobody can win early and each
+ * size plays the same number of turns per player until its turn budget runs
+ * out.
+ * <p>
+ * Off by default because the large sizes need many threads and minutes of
+ * time; run with -Dcardgame.scale=true. A size with no baseline entry is
+ * reported but not checked. The output files go to java.io.tmpdir; the stored
+ * baseline was taken with it on tmpfs, because on a disk writing 2n files can
+ * take several times as long from one run to the next. Other properties:
+ * <ul>
+ *   <li>cardgame.scale.sizes - comma-separated player counts (default 1,10,100,1000,10000, and 100000 in
+ *       compact mode: a thread per player at 100k needs a higher thread limit than most machines allow)</li>
+ *   <li>cardgame.scale.turnsPerPlayer - turn budget per player (default 100, and 1000 in compact mode,
+ *       whose turns take well under a microsecond)</li>
+ *   <li>cardgame.scale.timeBudgetMillis - time budget of each game, which only stops a game that hangs
+ *       (default 300000)</li>
+ *   <li>cardgame.scale.repeats - games per size; the fastest is reported (default 3)</li>
+ *   <li>cardgame.scale.threshold - allowed factor against the baseline (default 1.5)</li>
+ *   <li>cardgame.scale.report - JSON report path (default target/scale-report.json)</li>
+ *   <li>cardgame.scale.updateBaseline=true - write this run's numbers as the new baseline</li>
+ *   <li>cardgame.scale.compact=true - run the games in compact mode (baseline keys get a "compact." prefix)</li>
+ * </ul>
+ */
+@Tag("scale")
+@EnabledIfSystemProperty(named = "cardgame.scale", matches = "true")
+class ScaleTest {
+
+    private static final Path BASELINE = Path.of("src/test/resources/scale-baseline.properties");
+    private static final long HEAP_SLACK_BYTES = 32L << 20;
+    private static final boolean COMPACT = Boolean.getBoolean("cardgame.scale.compact");
+    private static final String KEY_PREFIX = COMPACT ? "compact.n." : "n.";
+    private static final int TURNS_PER_PLAYER = Integer.getInteger("cardgame.scale.turnsPerPlayer", COMPACT ? 1000 : 100);
+    private static final long TIME_BUDGET = Long.getLong("cardgame.scale.timeBudgetMillis", 300_000);
+
+    /** Measurements of one game. */
+    private static final class Run {
+        int players;
+        long wallMillis;
+        long peakHeapBytes;
+        int peakThreads;
+        long peakOpenFds;
+        double turnsPerSec;
+        long turns;
+        GameResult.Outcome outcome;
+    }
+
+    @Test
+    void scaleSuite_staysWithinBaseline() throws Exception {
+        String sizes = System.getProperty("cardgame.scale.sizes",
+                COMPACT ? "1,10,100,1000,10000,100000" : "1,10,100,1000,10000");
+        double threshold = Double.parseDouble(System.getProperty("cardgame.scale.threshold", "1.5"));
+        Path report = Path.of(System.getProperty("cardgame.scale.report", "target/scale-report.json"));
+        int repeats = Integer.getInteger("cardgame.scale.repeats", 3);
+
+        runGame(1000); // warm-up: the first games in a JVM pay for class loading and JIT
+        List<Run> runs = new ArrayList<>();
+        for (String s : sizes.split(",")) {
+            int n = Integer.parseInt(s.trim());
+            Run best = null;
+            for (int i = 0; i < repeats; i++) {
+                Run r = runGame(n);
+                if (best == null || r.wallMillis < best.wallMillis) best = r;
+            }
+            runs.add(best);
+        }
+        writeReport(report, runs);
+
+        if (Boolean.getBoolean("cardgame.scale.updateBaseline")) {
+            writeBaseline(runs);
+            return;
+        }
+        Properties baseline = readBaseline();
+        List<String> regressions = new ArrayList<>();
+        for (Run r : runs) {
+            checkUpper(baseline, r, "wallMillis", r.wallMillis, threshold, 50, regressions);
+            // peak heap includes garbage not yet collected, so allow about one young generation
+            checkUpper(baseline, r, "peakHeapBytes", r.peakHeapBytes, threshold, HEAP_SLACK_BYTES, regressions);
+            checkUpper(baseline, r, "peakThreads", r.peakThreads, threshold, 50, regressions);
+            checkUpper(baseline, r, "peakOpenFds", r.peakOpenFds, threshold, 50, regressions);
+            String key = KEY_PREFIX + r.players + ".turnsPerSec";
+            if (baseline.containsKey(key)) {
+                double base = Double.parseDouble(baseline.getProperty(key));
+                if (r.turnsPerSec * threshold < base) {
+                    regressions.add(key + ": " + r.turnsPerSec + " vs baseline " + base);
+                }
+            }
+        }
+        assertTrue(regressions.isEmpty(), "Scale regressions (see " + report + "): " + regressions);
+    }
+
+    private static Run runGame(int n) throws Exception {
+        Path dir = Files.createTempDirectory("scale-" + n + "-");
+        try {
+            GameConfig config = new GameConfig(n,
+                    new PackGenerator(42L + n).setWinnability(PackGenerator.Winnability.UNWINNABLE), 4);
+            config.setOutputDirectory(dir);
+            config.setMaxOpenFiles(LogFilePool.DEFAULT_MAX_OPEN); // 10k players would need 10k descriptors
+            config.setTurnBudget((long) TURNS_PER_PLAYER * n);
+            config.setTimeBudget(TIME_BUDGET);
+            if (COMPACT) config.setCompactMode(true, config.getCompactWorkers());
+
+            System.gc();
+            List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    pool.resetPeakUsage();
+                    heapPools.add(pool);
+                }
+            }
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            threads.resetPeakThreadCount();
+            FdSampler fds = new FdSampler();
+            fds.start();
+
+            GameResult result = new GameController().startGame(config);
+
+            fds.stop();
+            Run r = new Run();
+            r.players = n;
+            r.wallMillis = result.getElapsedNanos() / 1_000_000;
+            for (MemoryPoolMXBean pool : heapPools) r.peakHeapBytes += pool.getPeakUsage().getUsed();
+            r.peakThreads = threads.getPeakThreadCount();
+            r.peakOpenFds = fds.peak;
+            r.turns = result.getTotalTurns();
+            r.turnsPerSec = result.getTotalTurns() / Math.max(1e-9, result.getElapsedNanos() / 1e9);
+            r.outcome = result.getOutcome();
+            assertEquals(GameResult.Outcome.TURN_BUDGET_EXHAUSTED, r.outcome, n + " players");
+            return r;
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    /**
+     * Records a regression if value exceeds baseline * threshold + slack. The
+     * absolute slack keeps tiny baselines (a few ms, a few fds) from flapping.
+     */
+    private static void checkUpper(Properties baseline, Run r, String metric, long value, double threshold,
+                                   long slack, List<String> regressions) {
+        String key = KEY_PREFIX + r.players + "." + metric;
+        if (!baseline.containsKey(key)) return;
+        long base = Long.parseLong(baseline.getProperty(key));
+        if (value > base * threshold + slack) {
+            regressions.add(key + ": " + value + " vs baseline " + base);
+        }
+    }
+
+    private static void writeReport(Path report, List<Run> runs) throws IOException {
+        StringBuilder sb = new StringBuilder("[\n");
+        for (int i = 0; i < runs.size(); i++) {
+            Run r = runs.get(i);
+            sb.append("  {\"players\": ").append(r.players)
+                    .append(", \"wallMillis\": ").append(r.wallMillis)
+                    .append(", \"peakHeapBytes\": ").append(r.peakHeapBytes)
+                    .append(", \"peakThreads\": ").append(r.peakThreads)
+                    .append(", \"peakOpenFds\": ").append(r.peakOpenFds)
+                    .append(", \"turns\": ").append(r.turns)
+                    .append(", \"turnsPerSec\": ").append(String.format(java.util.Locale.ROOT, "%.1f", r.turnsPerSec))
+                    .append(", \"outcome\": \"").append(r.outcome).append('"')
+                    .append(i + 1 < runs.size() ? "},\n" : "}\n");
+        }
+        sb.append("]\n");
+        if (report.getParent() != null) Files.createDirectories(report.getParent());
+        Files.writeString(report, sb.toString(), StandardCharsets.UTF_8);
+    }
+
+    private static Properties readBaseline() throws IOException {
+        Properties p = new Properties();
+        if (Files.exists(BASELINE)) {
+            try (InputStream in = Files.newInputStream(BASELINE)) {
+                p.load(in);
+            }
+        }
+        return p;
+    }
+
+    private static void writeBaseline(List<Run> runs) throws IOException {
+        Properties p = readBaseline();
+        for (Run r : runs) {
+            String prefix = KEY_PREFIX + r.players + ".";
+            p.setProperty(prefix + "wallMillis", Long.toString(r.wallMillis));
+            p.setProperty(prefix + "peakHeapBytes", Long.toString(r.peakHeapBytes));
+            p.setProperty(prefix + "peakThreads", Integer.toString(r.peakThreads));
+            p.setProperty(prefix + "peakOpenFds", Long.toString(r.peakOpenFds));
+            p.setProperty(prefix + "turnsPerSec", String.format(java.util.Locale.ROOT, "%.1f", r.turnsPerSec));
+        }
+        Files.createDirectories(BASELINE.getParent());
+        try (OutputStream out = Files.newOutputStream(BASELINE)) {
+            p.store(out, "ScaleTest baseline; regenerate with -Dcardgame.scale.updateBaseline=true");
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    /** Samples the process's open file descriptors every few milliseconds and keeps the maximum. */
+    private static final class FdSampler implements Runnable {
+        private final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        private final Thread thread = new Thread(this, "fd-sampler");
+        private volatile boolean running = true;
+        private volatile long peak;
+
+        void start() {
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void stop() throws InterruptedException {
+            running = false;
+            thread.join();
+            sample();
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                sample();
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        private void sample() {
+            if (os instanceof com.sun.management.UnixOperatingSystemMXBean) {
+                long open = ((com.sun.management.UnixOperatingSystemMXBean) os).getOpenFileDescriptorCount();
+                if (open > peak) peak = open;
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.ecm2414.cardgame;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the single ring with sharded and cross-linked topologies on an
+ * unwinnable pack, so every game runs for its whole time budget.
+ * <p>
+ * Each game runs for a warm-up, then a window in which every player's turns
+ * are counted, then a window in which the benchmark holds deck 1's monitor,
+ * as a stuck logger or a descheduled player would: player 1 cannot draw and
+ * the player discarding to deck 1 cannot discard. A player counts as stalled
+ * if it took less than half its usual turns during the stall; in a ring the
+ * stall spreads from deck to deck as each runs dry, in shards it stays in
+ * deck 1's ring.
+ * <p>
+ * Off by default; run with -Dcardgame.bench=true. Reports turns per second
+ * before the stall and the stalled players per topology to
+ * target/topology-report.txt. Other properties: cardgame.bench.players
+ * (default 1000), cardgame.bench.windowMillis (default 2000),
+ * cardgame.bench.topologies (default RING,SHARDS:4,SHARDS:16,LINKED:16:8)
+ * and cardgame.bench.turnPauseMillis (default 10, as in a game). With the
+ * pause every player is held to about 100 turns a second and turns/s only
+ * shows how many players are not stalled; set it to 0 to compare how fast
+ * the topologies can turn cards over.
+ * <p>
+ * On one CPU, with 3 s windows and no pause, the ring took about 570,000
+ * turns/s at 1,000 players and 440,000 at 5,000, and SHARDS:16 about
+ * 700,000 at both. With the pause the CPU, not the pause, bounds the games
+ * from a few thousand players on: 29,000 to 43,000 turns/s at 5,000 players
+ * against the 500,000 the pause allows. At 10,000 players one CPU spends
+ * most of a window scheduling threads and the figures vary tenfold between
+ * topologies and runs; use more CPUs there.
+ */
+@Tag("bench")
+@EnabledIfSystemProperty(named = "cardgame.bench", matches = "true")
+class TopologyBenchmark {
+
+    private static final int PLAYERS = Integer.getInteger("cardgame.bench.players", 1000);
+    private static final long WINDOW = Long.getLong("cardgame.bench.windowMillis", 2000);
+    private static final int TURN_PAUSE = Integer.getInteger("cardgame.bench.turnPauseMillis", 10);
+    private static final String TOPOLOGIES = System.getProperty("cardgame.bench.topologies",
+            "RING,SHARDS:4,SHARDS:16,LINKED:16:8");
+    private static final Path REPORT = Path.of("target/topology-report.txt");
+
+    @TempDir Path tmp;
+
+    @Test
+    void throughputAndStallSpread_perTopology() throws Exception {
+        StringBuilder report = new StringBuilder();
+        report.append("cpus=").append(Runtime.getRuntime().availableProcessors()).append(" players=").append(PLAYERS)
+                .append(" windowMillis=").append(WINDOW).append(" turnPauseMillis=").append(TURN_PAUSE)
+                .append(System.lineSeparator());
+        for (String t : TOPOLOGIES.split(",")) {
+            report.append(run(Topology.parse(t.trim()))).append(System.lineSeparator());
+        }
+        Files.createDirectories(REPORT.getParent());
+        Files.writeString(REPORT, report);
+        System.out.print(report);
+    }
+
+    private String run(Topology topology) throws Exception {
+        GameConfig config = new GameConfig(PLAYERS,
+                new PackGenerator(1).setWinnability(PackGenerator.Winnability.UNWINNABLE), 4);
+        config.setTopology(topology);
+        config.setLogVerbosity(LogVerbosity.SUMMARY, 1);
+        config.setTurnPause(TURN_PAUSE);
+        config.setTimeBudget(4 * WINDOW);
+        config.setOutputDirectory(Files.createDirectories(tmp.resolve(topology.toString().replace(':', '-'))));
+
+        // The game deals into the set the pool keeps, so the benchmark can reach its decks and hands.
+        try (WarmPool warm = new WarmPool(1, 60_000)) {
+            WarmPool.Set set = warm.acquire(config);
+            warm.release(set);
+            GameResult[] result = new GameResult[1];
+            Thread game = new Thread(() -> result[0] = new GameController(warm).startGame(config));
+            game.start();
+
+            Thread.sleep(WINDOW); // warm-up
+            long[] start = versions(set.hands);
+            long t0 = System.nanoTime();
+            Thread.sleep(WINDOW);
+            long[] beforeStall = versions(set.hands);
+            long t1 = System.nanoTime();
+            synchronized (set.decks[0]) {
+                Thread.sleep(WINDOW);
+            }
+            long[] afterStall = versions(set.hands);
+            long t2 = System.nanoTime();
+            game.join();
+            assertEquals(GameResult.Outcome.TIME_BUDGET_EXHAUSTED, result[0].getOutcome());
+
+            long turns = 0;
+            int stalled = 0;
+            for (int p = 0; p < PLAYERS; p++) {
+                long usual = beforeStall[p] - start[p];
+                long during = afterStall[p] - beforeStall[p];
+                turns += usual / 2; // a turn adds one card to the hand and removes one
+                if (during * (t1 - t0) < usual * (t2 - t1) / 2) stalled++;
+            }
+            return String.format(Locale.ROOT, "%-12s turns/s=%8.0f  stalled=%d/%d (%.1f%%)  total turns=%d",
+                    topology, turns * 1e9 / (t1 - t0), stalled, PLAYERS, 100.0 * stalled / PLAYERS,
+                    result[0].getTotalTurns());
+        }
+    }
+
+    private static long[] versions(List<Hand> hands) {
+        long[] v = new long[hands.size()];
+        for (int i = 0; i < v.length; i++) v[i] = hands.get(i).snapshot().getVersion();
+        return v;
+    }
+}
@@ -0,0 +1,82 @@
+package com.ecm2414.cardgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopologyTest {
+
+    @TempDir Path tmp;
+
+    @Test
+    void decks_formRingsPerShard_withLinksFromEachLastPlayer() {
+        for (int p = 1; p <= 7; p++) {
+            assertEquals(p % 7 + 1, Topology.RING.rightDeck(p, 7));
+            assertEquals(-1, Topology.RING.linkDeck(p, 7));
+        }
+        Topology shards = Topology.shards(3); // players 1-2, 3-4, 5-7
+        assertArrayEquals(new int[]{2, 1, 4, 3, 6, 7, 5}, rightDecks(shards, 7));
+        Topology linked = Topology.crossLinked(3, 5);
+        assertArrayEquals(rightDecks(shards, 7), rightDecks(linked, 7));
+        int[] links = new int[7];
+        for (int p = 1; p <= 7; p++) links[p - 1] = linked.linkDeck(p, 7);
+        assertArrayEquals(new int[]{-1, 3, -1, 5, -1, -1, 1}, links);
+
+        assertSame(Topology.RING, Topology.shards(1));
+        assertEquals("LINKED:3:5", linked.toString());
+        assertEquals(7, rightDecks(Topology.parse(linked.toString()), 7).length);
+        assertThrows(IllegalArgumentException.class, () -> Topology.parse("SHARDS:x"));
+        assertThrows(IllegalArgumentException.class, () -> Topology.crossLinked(1, 5));
+        GameConfig config = new GameConfig(2, null, new int[16]);
+        assertThrows(IllegalArgumentException.class, () -> config.setTopology(Topology.shards(3)));
+    }
+
+    @Test
+    void topology_isRejectedForCompactAndDeterministicGames_inEitherOrder() {
+        GameConfig compact = new GameConfig(4, null, new int[32]);
+        compact.setCompactMode(true, 1);
+        assertThrows(IllegalArgumentException.class, () -> compact.setTopology(Topology.shards(2)));
+        compact.setTopology(Topology.RING);
+
+        GameConfig deterministic = new GameConfig(4, null, new int[32]);
+        deterministic.setDeterministic(true, 1);
+        assertThrows(IllegalArgumentException.class, () -> deterministic.setTopology(Topology.crossLinked(2, 3)));
+
+        GameConfig sharded = new GameConfig(4, null, new int[32]);
+        sharded.setTopology(Topology.shards(2));
+        assertThrows(IllegalArgumentException.class, () -> sharded.setCompactMode(true, 1));
+        assertThrows(IllegalArgumentException.class, () -> sharded.setDeterministic(true, 1));
+        assertFalse(sharded.isCompactMode() || sharded.isDeterministic());
+    }
+
+    private static int[] rightDecks(Topology t, int n) {
+        int[] decks = new int[n];
+        for (int p = 1; p <= n; p++) decks[p - 1] = t.rightDeck(p, n);
+        return decks;
+    }
+
+    @Test
+    void gamesOnShardsAndLinks_verify() throws Exception {
+        int n = 12;
+        PackGenerator packs = new PackGenerator(4); // planted: separate rings need not hold k of a value
+        for (Topology topology : new Topology[]{Topology.shards(3), Topology.crossLinked(3, 1)}) {
+            Path dir = Files.createDirectory(tmp.resolve(topology.toString().replace(':', '-')));
+            GameConfig config = new GameConfig(n, packs, 4);
+            config.setTopology(topology);
+            config.setOutputDirectory(dir);
+            GameResult result = new GameController().startGame(config);
+            assertEquals(GameResult.Outcome.WON, result.getOutcome());
+
+            int[] pack = config.getPack().stream().mapToInt(Card::getValue).toArray();
+            OutputVerifier verifier = new OutputVerifier(dir, n, pack);
+            verifier.setTopology(topology);
+            OutputVerifier.Report report = verifier.verify(2);
+            assertTrue(report.isOk(), topology + ": " + report);
+            assertEquals(result.getWinnerId(), report.getWinner());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.ecm2414.cardgame;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValueRemapTest {
+
+    @TempDir Path tmp;
+
+    @Test
+    void remap_assignsIdsInOrderOfFirstAppearance_andMapsBack() {
+        int[] values = {70, 3, 70, 2_000_000_000, 3, 0};
+        ValueRemap remap = PackLoader.remap(values);
+
+        assertArrayEquals(new int[]{0, 1, 0, 2, 1, 3}, values);
+        assertEquals(4, remap.size());
+        assertEquals(2_000_000_000, remap.toValue(2));
+        assertEquals(3, remap.toId(0));
+        assertEquals(-1, remap.toId(5));
+    }
+
+    @Test
+    void remap_handlesManyDistinctValues() {
+        int[] values = new int[100_000];
+        for (int i = 0; i < values.length; i++) values[i] = (i % 50_000) * 40_503;
+        ValueRemap remap = PackLoader.remap(values);
+
+        assertEquals(50_000, remap.size());
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(i % 50_000, values[i]);
+            assertEquals((i % 50_000) * 40_503, remap.toValue(values[i]));
+        }
+    }
+
+    @Test
+    void denseGame_writesSameFilesAsPlainGame() throws Exception {
+        // Player 1 is dealt 1 1 1 2000000000 and draws the fourth 1 from deck 1.
+        int[] pack = {1, 500_000_000, 1, 600_000_000, 1, 700_000_000, 2_000_000_000, 800_000_000,
+                1, 900_000_000, 3, 3, 4, 4, 5, 5};
+        for (boolean dense : new boolean[]{false, true}) {
+            GameConfig config = new GameConfig(2, null, pack);
+            config.setOutputDirectory(Files.createDirectory(tmp.resolve(dense ? "dense" : "plain")));
+            config.setCompactMode(true, 1); // one worker makes the game deterministic
+            config.setDenseValues(dense);
+            if (dense) assertEquals(4, config.getPackValue(6)); // 2000000000 is the fifth distinct value
+            assertEquals(1, new GameController().startGame(config).getWinnerId());
+        }
+        for (String name : new String[]{"player1_output.txt", "player2_output.txt", "deck1_output.txt",
+                "deck2_output.txt"}) {
+            assertEquals(Files.readString(tmp.resolve("plain").resolve(name)),
+                    Files.readString(tmp.resolve("dense").resolve(name)), name);
+        }
+    }
+}